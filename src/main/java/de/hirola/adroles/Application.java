@@ -13,6 +13,7 @@ package de.hirola.adroles;
 
 import com.vaadin.flow.component.dependency.NpmPackage;
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.server.PWA;
 import de.hirola.adroles.util.SimpleI18NProvider;
 import org.springframework.boot.SpringApplication;
@@ -25,6 +26,7 @@ import static java.lang.System.setProperty;
  * The entry point of the Spring Boot application.
  */
 @SpringBootApplication
+@Push // the progress of imports is pushed to the session
 @NpmPackage(value = "lumo-css-framework", version = "^4.0.10")
 // @Theme("flowcrmtutorial")
 @PWA(name = "Hirola AD-Roles", shortName = "AD-Roles", offlinePath="offline.html", offlineResources = { "./images/offline.png"})
@@ -33,6 +33,7 @@ public final class Global {
     public enum LOGGING_VALUES {
         ;
         public static final String UNKNOWN_USER_STRING = "Unknown";
+        public static final String SCHEDULER_USER_STRING = "Scheduler";
     }
 
     public enum EMPLOYEE_DEFAULT_VALUES {
@@ -66,6 +67,61 @@ public final class Global {
         public static final String EMAIL_ROLE_TEXT = "mail";
     }
 
+    public enum CACHE_REGION {
+        ;
+        // the entities, which are rarely changed, e.g. the role resources and the settings
+        public static final String REFERENCE_DATA = "reference-data";
+        public static final String REFERENCE_DATA_QUERIES = "reference-data-queries";
+    }
+
+    public enum STATISTICS_RESOLUTION {
+        ;
+        public static final int HOURLY = 0;
+        public static final int DAILY = 1;
+        public static final int WEEKLY = 2;
+    }
+
+    public enum JOB_TYPE {
+        ;
+        public static final int UPDATE_AD_USERS = 0;
+        public static final int UPDATE_AD_GROUPS = 1;
+        public static final int UPDATE_PERSONS = 2;
+        public static final int UPDATE_ROLES_FROM_GROUPS = 3;
+        public static final int UPDATE_ORG_ROLES = 4;
+        public static final int ASSIGN_PERSONS_TO_ROLES = 5;
+        public static final int SYNC_ACTIVE_DIRECTORY = 6;
+    }
+
+    public enum JOB_STATE {
+        ;
+        public static final int QUEUED = 0;
+        public static final int RUNNING = 1;
+        public static final int FINISHED = 2;
+        public static final int FAILED = 3;
+        public static final int CANCELLED = 4;
+        public static final int REJECTED = 5;
+        public static final int TIMED_OUT = 6;
+    }
+
+    public enum IMPORT_PHASE {
+        ;
+        public static final int AD_USERS = 1;
+        public static final int PERSONS = 2;
+        public static final int LINK_AD_USERS = 3;
+        public static final int AD_GROUPS = 4;
+        public static final int ROLES_FROM_GROUPS = 5;
+        public static final int ORG_ROLES = 6;
+        public static final int EMPLOYEES = 7;
+        public static final int ASSIGN_ROLES = 8;
+    }
+
+    public enum SYNC_DEFAULT_VALUES {
+        ;
+        public static final String CRON_EXPRESSION = "0 0 2 * * *"; // every day at 2 am
+        public static final int JITTER_MINUTES = 10;
+        public static final int MAX_RUN_TIME_MINUTES = 120;
+    }
+
     public enum ADAttributes {
         ;
         public static final String GROUP_TYPE = "groupType";
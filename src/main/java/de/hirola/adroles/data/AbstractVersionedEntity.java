@@ -0,0 +1,30 @@
+package de.hirola.adroles.data;
+
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * The entities edited in the forms extend this as super class.
+ * The version is incremented with each update, an update of an outdated copy
+ * fails with an optimistic locking exception.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+@MappedSuperclass
+public abstract class AbstractVersionedEntity extends AbstractEntity {
+
+    @Version
+    private Integer version;
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+}
@@ -11,9 +11,13 @@
 
 package de.hirola.adroles.data;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
 import de.hirola.adroles.Global;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
@@ -22,7 +26,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 @Configuration
@@ -30,6 +38,10 @@ import java.util.Objects;
 public class DataSourceFactory {
     @Autowired
     private Environment env;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    // the pools behind the routing data source are no beans and closed by the factory
+    private final List<HikariDataSource> routedPools = new ArrayList<>();
     @Value("${db.type}")
     private String type;
     @Value("${db.name}")
@@ -42,10 +54,50 @@ public class DataSourceFactory {
     private String username;
     @Value("${db.password}")
     private String password;
+    // the pool settings are optional in db.properties
+    @Value("${db.pool.minIdle:2}")
+    private int poolMinIdle;
+    @Value("${db.pool.maxSize:10}")
+    private int poolMaxSize;
+    @Value("${db.pool.connectionTimeoutMillis:30000}")
+    private long poolConnectionTimeoutMillis;
+    @Value("${db.pool.idleTimeoutMillis:600000}")
+    private long poolIdleTimeoutMillis;
+    @Value("${db.pool.leakDetectionThresholdMillis:0}")
+    private long poolLeakDetectionThresholdMillis;
+    // the file of the H2 database is created in the directory of the configuration, if no url is given
+    @Value("${db.h2.directory:}")
+    private String h2Directory;
+    @Value("${db.h2.cacheSizeKb:65536}")
+    private int h2CacheSizeKb;
+    @Value("${db.h2.maxCompactTimeMillis:2000}")
+    private int h2MaxCompactTimeMillis;
+    // the read-only transactions are sent to the replica, if an url is given
+    @Value("${db.replica.jdbcUrl:}")
+    private String replicaJdbcUrl;
+    @Value("${db.replica.username:${db.username}}")
+    private String replicaUsername;
+    @Value("${db.replica.password:${db.password}}")
+    private String replicaPassword;
+    @Value("${db.postgres.prepareThreshold:5}")
+    private int postgresPrepareThreshold;
+    @Value("${db.postgres.statementCacheSize:256}")
+    private int postgresStatementCacheSize;
 
     @Bean
     public DataSource getDataSource() {
         Logger logger = LoggerFactory.getLogger(DataSourceFactory.class);
+        DataSource primaryDataSource = createPrimaryDataSource(logger);
+        if (replicaJdbcUrl.isEmpty()) {
+            return primaryDataSource;
+        }
+        return createRoutingDataSource(primaryDataSource, logger);
+    }
+
+    private DataSource createPrimaryDataSource(Logger logger) {
+        if (type.compareToIgnoreCase(Global.CONFIG.H2_DATA_SOURCE) == 0 && !name.isEmpty()) {
+            return createH2FileDataSource(logger);
+        }
         if (type.isEmpty() || name.isEmpty() || jdbcUrl.isEmpty()) {
             if (!env.containsProperty(Global.CONFIG.CONFIG_DIR_VAR)) {
                 logger.debug("System var \"" + Global.CONFIG.CONFIG_DIR_VAR
@@ -56,7 +108,7 @@ public class DataSourceFactory {
             // default database from application.properties
             System.setProperty(Global.CONFIG.DATASOURCE_TYPE, Global.CONFIG.DEFAULT_DATA_SOURCE);
             System.setProperty(Global.CONFIG.DATASOURCE_NAME, Global.CONFIG.DEFAULT_DATA_SOURCE);
-            return DataSourceBuilder.create().build();
+            return createDefaultDataSource();
         }
         if (type.compareToIgnoreCase(Global.CONFIG.POSTGRES_DATA_SOURCE) == 0) {
             // set hibernate dialect property
@@ -67,12 +119,13 @@ public class DataSourceFactory {
             // default database from application.properties
             System.setProperty(Global.CONFIG.DATASOURCE_TYPE, Global.CONFIG.DEFAULT_DATA_SOURCE);
             System.setProperty(Global.CONFIG.DATASOURCE_NAME, Global.CONFIG.DEFAULT_DATA_SOURCE);
-            return DataSourceBuilder.create().build();
+            return createDefaultDataSource();
         }
         System.setProperty(Global.CONFIG.DATASOURCE_TYPE, type);
         System.setProperty(Global.CONFIG.DATASOURCE_NAME, name);
         System.setProperty(Global.CONFIG.DATASOURCE_URL, jdbcUrl);
-        DataSourceBuilder<?> dataSourceBuilder = DataSourceBuilder.create();
+        DataSourceBuilder<HikariDataSource> dataSourceBuilder = DataSourceBuilder.create()
+                .type(HikariDataSource.class);
         if (!jdbcDriverName.isEmpty()) {
             System.setProperty(Global.CONFIG.DATASOURCE_DRIVER_NAME, jdbcDriverName);
             dataSourceBuilder.driverClassName(jdbcDriverName);
@@ -81,7 +134,93 @@ public class DataSourceFactory {
         dataSourceBuilder.username(username);
         dataSourceBuilder.password(password);
         logger.debug("Using " + type + " database \"" + name + "\" ...");
-        return dataSourceBuilder.build();
+        HikariDataSource dataSource = dataSourceBuilder.build();
+        configurePool(dataSource);
+        // the driver prepares a statement on the server after it was executed n times
+        // and caches the prepared statements per connection
+        dataSource.addDataSourceProperty("prepareThreshold", postgresPrepareThreshold);
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", postgresStatementCacheSize);
+        return dataSource;
+    }
+
+    private DataSource createDefaultDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(env.getProperty("spring.datasource.url"))
+                .driverClassName(env.getProperty("spring.datasource.driver-class-name"))
+                .build();
+        configurePool(dataSource);
+        return dataSource;
+    }
+
+    private DataSource createH2FileDataSource(Logger logger) {
+        String url = jdbcUrl;
+        if (url.isEmpty()) {
+            String directory = h2Directory.isEmpty()
+                    ? env.getProperty(Global.CONFIG.CONFIG_DIR_VAR, System.getProperty("user.home"))
+                    : h2Directory;
+            // the database is compacted for the given time when it is closed,
+            // it is closed by the pool on shutdown and not by the shutdown hook of H2
+            url = "jdbc:h2:file:" + Path.of(directory, name).toAbsolutePath()
+                    + ";CACHE_SIZE=" + h2CacheSizeKb
+                    + ";MAX_COMPACT_TIME=" + h2MaxCompactTimeMillis
+                    + ";DB_CLOSE_ON_EXIT=FALSE";
+        }
+        System.setProperty(Global.CONFIG.DATASOURCE_TYPE, Global.CONFIG.H2_DATA_SOURCE);
+        System.setProperty(Global.CONFIG.DATASOURCE_NAME, name);
+        System.setProperty(Global.CONFIG.DATASOURCE_URL, url);
+        logger.debug("Using H2 database \"" + name + "\" in file ...");
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("org.h2.Driver")
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        configurePool(dataSource);
+        return dataSource;
+    }
+
+    private DataSource createRoutingDataSource(DataSource primaryDataSource, Logger logger) {
+        HikariDataSource replicaDataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaJdbcUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        configurePool(replicaDataSource);
+        replicaDataSource.setPoolName("adroles-replica");
+        replicaDataSource.setReadOnly(true);
+        routedPools.add(replicaDataSource);
+        if (primaryDataSource instanceof HikariDataSource hikariDataSource) {
+            routedPools.add(hikariDataSource);
+            replicaDataSource.setDataSourceProperties(hikariDataSource.getDataSourceProperties());
+            // the pools are not beans anymore, the metrics are not bound by Spring
+            MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+            if (meterRegistry != null) {
+                hikariDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                replicaDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+        }
+        logger.debug("Using the replica \"" + replicaJdbcUrl + "\" for read-only transactions ...");
+        return ReadWriteRoutingDataSource.create(primaryDataSource, replicaDataSource);
+    }
+
+    @PreDestroy
+    public void closeRoutedPools() {
+        routedPools.forEach(HikariDataSource::close);
+        routedPools.clear();
+    }
+
+    private void configurePool(HikariDataSource dataSource) {
+        // the metrics of the pool are tagged with its name
+        dataSource.setPoolName("adroles");
+        dataSource.setMinimumIdle(Math.min(poolMinIdle, poolMaxSize));
+        dataSource.setMaximumPoolSize(poolMaxSize);
+        dataSource.setConnectionTimeout(poolConnectionTimeoutMillis);
+        dataSource.setIdleTimeout(poolIdleTimeoutMillis);
+        // 0 disables the detection, a connection not returned in time is logged with the stack of the borrower
+        dataSource.setLeakDetectionThreshold(poolLeakDetectionThresholdMillis);
     }
 
     public String getName() {
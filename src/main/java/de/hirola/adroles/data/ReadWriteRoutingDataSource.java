@@ -0,0 +1,80 @@
+/*
+ * *
+ *  * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ *  * This software us licensed under the AGPL-3.0 or later.
+ *  *
+ *  *
+ *  * @author Michael Schmidt (Hirola)
+ *  * @since v0.1
+ *
+ */
+
+package de.hirola.adroles.data;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Sends the statements of read-only transactions to a replica of the database,
+ * all other statements to the primary database.
+ * <p>The data source must be wrapped in a {@link LazyConnectionDataSourceProxy}, because the
+ * transaction managers get the connection before the transaction is marked as read-only.</p>
+ * <p>The replica may lag behind the primary. Code reading its own writes, like the imports
+ * and the loading of the entities for the forms, must run with {@link #onPrimary}.
+ * The grids read from the replica and may show a saved change only after the replica caught up.</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+
+    private ReadWriteRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource) {
+        setTargetDataSources(Map.of(PRIMARY, primaryDataSource, REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Create the data source for the primary and the replica.
+     *
+     * @param primaryDataSource for the writes
+     * @param replicaDataSource for the read-only transactions
+     * @return the lazy connected routing data source
+     */
+    public static DataSource create(DataSource primaryDataSource, DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    /**
+     * Run the code with the primary database, also for read-only transactions.
+     *
+     * @param callable to run
+     * @return the result of the callable
+     * @throws Exception thrown by the callable
+     */
+    public static <T> T onPrimary(Callable<T> callable) throws Exception {
+        if (PRIMARY_ONLY.get()) {
+            return callable.call();
+        }
+        PRIMARY_ONLY.set(true);
+        try {
+            return callable.call();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!PRIMARY_ONLY.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * *
+ *  * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ *  * This software us licensed under the AGPL-3.0 or later.
+ *  *
+ *  *
+ *  * @author Michael Schmidt (Hirola)
+ *  * @since v0.1
+ *
+ */
+
+package de.hirola.adroles.data;
+
+import de.hirola.adroles.Global;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Evicts the reference data from the second-level cache, e.g. after the settings were saved,
+ * and exposes the statistics of the cache as metrics (adroles.cache.hits, .misses, .puts and .size),
+ * if adroles.cache.statistics is enabled.
+ */
+@Component
+public class ReferenceDataCache {
+    private final SessionFactory sessionFactory;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory,
+                              ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    /**
+     * Evict the cached entities and query results of the reference data.
+     * They are loaded from the database on the next access.
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictRegion(Global.CACHE_REGION.REFERENCE_DATA);
+        sessionFactory.getCache().evictQueryRegion(Global.CACHE_REGION.REFERENCE_DATA_QUERIES);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry == null || !statistics.isStatisticsEnabled()) {
+            return;
+        }
+        registerMetrics(meterRegistry, Global.CACHE_REGION.REFERENCE_DATA,
+                cachedStatistics -> cachedStatistics.getDomainDataRegionStatistics(Global.CACHE_REGION.REFERENCE_DATA));
+        registerMetrics(meterRegistry, Global.CACHE_REGION.REFERENCE_DATA_QUERIES,
+                cachedStatistics -> cachedStatistics.getQueryRegionStatistics(Global.CACHE_REGION.REFERENCE_DATA_QUERIES));
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry, String region,
+                                 Function<Statistics, CacheRegionStatistics> getRegionStatistics) {
+        Statistics statistics = sessionFactory.getStatistics();
+        FunctionCounter.builder("adroles.cache.hits", statistics, cachedStatistics ->
+                        getValue(getRegionStatistics.apply(cachedStatistics), CacheRegionStatistics::getHitCount))
+                .tag("region", region)
+                .register(meterRegistry);
+        FunctionCounter.builder("adroles.cache.misses", statistics, cachedStatistics ->
+                        getValue(getRegionStatistics.apply(cachedStatistics), CacheRegionStatistics::getMissCount))
+                .tag("region", region)
+                .register(meterRegistry);
+        FunctionCounter.builder("adroles.cache.puts", statistics, cachedStatistics ->
+                        getValue(getRegionStatistics.apply(cachedStatistics), CacheRegionStatistics::getPutCount))
+                .tag("region", region)
+                .register(meterRegistry);
+        Gauge.builder("adroles.cache.size", statistics, cachedStatistics ->
+                        getValue(getRegionStatistics.apply(cachedStatistics),
+                                CacheRegionStatistics::getElementCountInMemory))
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+
+    private static double getValue(@Nullable CacheRegionStatistics regionStatistics,
+                                   ToLongFunction<CacheRegionStatistics> getCount) {
+        // the query region is created with the first cached query
+        return regionStatistics == null ? 0 : getCount.applyAsLong(regionStatistics);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * *
+ *  * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ *  * This software us licensed under the AGPL-3.0 or later.
+ *  *
+ *  *
+ *  * @author Michael Schmidt (Hirola)
+ *  * @since v0.1
+ *
+ */
+
+package de.hirola.adroles.data;
+
+import de.hirola.adroles.Global;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures the second-level cache of Hibernate for the entities, which are rarely changed.
+ * <p>The regions of the reference data are kept on the heap with a maximum count of entries
+ * and a time to live. Other regions, e.g. the timestamps of the query cache, are created
+ * by Hibernate without limits.</p>
+ */
+@Configuration
+public class ReferenceDataCacheConfiguration {
+    // each persistence unit gets its own cache manager, e.g. in the tests
+    private static final AtomicInteger CACHE_MANAGER_NUMBER = new AtomicInteger();
+    @Value("${adroles.cache.maxEntries:1000}")
+    private long maxEntries;
+    @Value("${adroles.cache.timeToLiveSeconds:3600}")
+    private long timeToLiveSeconds;
+    @Value("${adroles.cache.statistics:false}")
+    private boolean isStatisticsEnabled;
+
+    @Bean
+    public HibernatePropertiesCustomizer referenceDataCacheCustomizer() {
+        return properties -> {
+            // Hibernate closes the cache manager with the persistence unit
+            properties.put(ConfigSettings.CACHE_MANAGER, createCacheManager());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, isStatisticsEnabled);
+        };
+    }
+
+    private CacheManager createCacheManager() {
+        CacheConfiguration<Object, Object> cacheConfiguration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build();
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        return cachingProvider.getCacheManager(
+                URI.create("adroles:reference-data:" + CACHE_MANAGER_NUMBER.incrementAndGet()),
+                ConfigurationBuilder.newConfigurationBuilder()
+                        .withCache(Global.CACHE_REGION.REFERENCE_DATA, cacheConfiguration)
+                        .withCache(Global.CACHE_REGION.REFERENCE_DATA_QUERIES, cacheConfiguration)
+                        .build());
+    }
+}
@@ -1,6 +1,11 @@
 package de.hirola.adroles.data.entity;
 
-import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.AbstractVersionedEntity;
+import de.hirola.adroles.data.listener.StatisticsListener;
+import de.hirola.adroles.data.search.MemorySearchIndexListener;
+import de.hirola.adroles.data.search.SearchText;
+import de.hirola.adroles.data.search.Searchable;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -17,7 +22,8 @@ import java.util.*;
  */
 
 @Entity
-public class ADGroup extends AbstractEntity implements Comparable<ADGroup> {
+@EntityListeners({MemorySearchIndexListener.class, StatisticsListener.class})
+public class ADGroup extends AbstractVersionedEntity implements Comparable<ADGroup>, Searchable {
     @NotEmpty
     private String name;
     @NotEmpty
@@ -28,7 +34,11 @@ public class ADGroup extends AbstractEntity implements Comparable<ADGroup> {
     private int groupArea; // local, global, universal ==> Global.ADGroupArea
     private int groupType; // security, distribution ==> Global.ADGroupType
     private boolean isAdminGroup;
-    @ManyToMany(mappedBy = "adGroups", cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    // the searchable attributes in lower case
+    @Column(length = SearchText.MAX_TEXT_LENGTH)
+    private String searchText;
+    @OptimisticLock(excluded = true)
+    @ManyToMany(mappedBy = "adGroups", cascade = CascadeType.PERSIST)
     private Set<Role> roles = new LinkedHashSet<>();
 
     public String getName() {
@@ -135,5 +145,16 @@ public class ADGroup extends AbstractEntity implements Comparable<ADGroup> {
     public int compareTo(ADGroup o) {
         return name.compareTo(o.getName());
     }
-}
 
+    @Override
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    @Override
+    public void updateSearchText() {
+        searchText = SearchText.of(name, description, distinguishedName);
+    }
+}
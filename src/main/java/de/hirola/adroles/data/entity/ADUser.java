@@ -1,6 +1,11 @@
 package de.hirola.adroles.data.entity;
 
-import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.AbstractVersionedEntity;
+import de.hirola.adroles.data.listener.StatisticsListener;
+import de.hirola.adroles.data.search.MemorySearchIndexListener;
+import de.hirola.adroles.data.search.SearchText;
+import de.hirola.adroles.data.search.Searchable;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -23,7 +28,8 @@ import java.util.UUID;
  */
 
 @Entity
-public class ADUser extends AbstractEntity implements Comparable<ADUser> {
+@EntityListeners({MemorySearchIndexListener.class, StatisticsListener.class})
+public class ADUser extends AbstractVersionedEntity implements Comparable<ADUser>, Searchable {
     @NotEmpty
     private String logonName;
     @NotEmpty
@@ -37,11 +43,15 @@ public class ADUser extends AbstractEntity implements Comparable<ADUser> {
     private boolean isAdminAccount;
 
     private boolean isServiceAccount;
+    // the searchable attributes in lower case
+    @Column(length = SearchText.MAX_TEXT_LENGTH)
+    private String searchText;
     @ManyToOne
     @JoinColumn(name = "person_id")
     private Person person;
 
-    @ManyToMany(mappedBy = "adUsers", cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OptimisticLock(excluded = true)
+    @ManyToMany(mappedBy = "adUsers", cascade = CascadeType.PERSIST)
     private Set<Role> roles = new LinkedHashSet<>();
 
     public String getLogonName() {
@@ -162,5 +172,16 @@ public class ADUser extends AbstractEntity implements Comparable<ADUser> {
     public int compareTo(ADUser o) {
         return logonName.compareTo(o.getLogonName());
     }
-}
 
+    @Override
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    @Override
+    public void updateSearchText() {
+        searchText = SearchText.of(logonName, distinguishedName);
+    }
+}
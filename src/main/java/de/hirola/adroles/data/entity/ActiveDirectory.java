@@ -1,9 +1,13 @@
 package de.hirola.adroles.data.entity;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.AbstractEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import javax.validation.constraints.NotEmpty;
+import java.util.Objects;
 
 /**
  * Copyright 2022 by Michael Schmidt, Hirola Consulting
@@ -15,6 +19,7 @@ import javax.validation.constraints.NotEmpty;
  * @since v0.1
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Global.CACHE_REGION.REFERENCE_DATA)
 public class ActiveDirectory extends AbstractEntity {
     @NotEmpty
     private String domainName;
@@ -27,6 +32,10 @@ public class ActiveDirectory extends AbstractEntity {
     @NotEmpty
     private String connectionPassword;
     private boolean isReadOnly;
+    private boolean syncEnabled;
+    private String syncCronExpression = Global.SYNC_DEFAULT_VALUES.CRON_EXPRESSION;
+    private int syncJitterMinutes = Global.SYNC_DEFAULT_VALUES.JITTER_MINUTES;
+    private int syncMaxRunTimeMinutes = Global.SYNC_DEFAULT_VALUES.MAX_RUN_TIME_MINUTES;
 
     public String getDomainName() {
         return domainName;
@@ -92,4 +101,54 @@ public class ActiveDirectory extends AbstractEntity {
     public void setReadOnly(boolean readOnly) {
         isReadOnly = readOnly;
     }
+
+    public boolean isSyncEnabled() {
+        return syncEnabled;
+    }
+
+    public void setSyncEnabled(boolean syncEnabled) {
+        this.syncEnabled = syncEnabled;
+    }
+
+    /**
+     * Get the schedule of the periodic synchronisation with the Active Directory.
+     * <p>The expression has six fields: second, minute, hour, day of month, month and day of week,
+     * e.g. "0 0 2 * * *" for every day at 2 am or "0 0/30 * * * *" for every 30 minutes.</p>
+     *
+     * @return the cron expression of the schedule
+     */
+    public String getSyncCronExpression() {
+        return Objects.requireNonNullElse(syncCronExpression, Global.SYNC_DEFAULT_VALUES.CRON_EXPRESSION);
+    }
+
+    public void setSyncCronExpression(String syncCronExpression) {
+        this.syncCronExpression = syncCronExpression;
+    }
+
+    /**
+     * The start of a scheduled synchronisation is delayed by a random time up to this value,
+     * so that several instances do not query the domain controller at the same time.
+     *
+     * @return the maximum delay in minutes
+     */
+    public int getSyncJitterMinutes() {
+        return syncJitterMinutes;
+    }
+
+    public void setSyncJitterMinutes(int syncJitterMinutes) {
+        this.syncJitterMinutes = syncJitterMinutes;
+    }
+
+    /**
+     * A scheduled synchronisation running longer than this value will be cancelled.
+     *
+     * @return the maximum run time in minutes, 0 for no limit
+     */
+    public int getSyncMaxRunTimeMinutes() {
+        return syncMaxRunTimeMinutes;
+    }
+
+    public void setSyncMaxRunTimeMinutes(int syncMaxRunTimeMinutes) {
+        this.syncMaxRunTimeMinutes = syncMaxRunTimeMinutes;
+    }
 }
@@ -1,6 +1,9 @@
 package de.hirola.adroles.data.entity;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.AbstractEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import java.util.Objects;
@@ -16,6 +19,7 @@ import java.util.Objects;
  */
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Global.CACHE_REGION.REFERENCE_DATA)
 public class Authorities extends AbstractEntity {
     private String loginName;
     private String authority;
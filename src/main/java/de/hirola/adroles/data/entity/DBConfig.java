@@ -11,13 +11,17 @@
 
 package de.hirola.adroles.data.entity;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.AbstractEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import javax.validation.constraints.NotEmpty;
 import java.util.Objects;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Global.CACHE_REGION.REFERENCE_DATA)
 public class DBConfig extends AbstractEntity {
     @NotEmpty
     private String name;
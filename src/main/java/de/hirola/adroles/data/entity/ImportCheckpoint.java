@@ -0,0 +1,61 @@
+package de.hirola.adroles.data.entity;
+
+import de.hirola.adroles.data.AbstractEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * The position of an import, which was interrupted, e.g. by a restart of the app.
+ * The entries of an import are processed in the order of the key (SID or id),
+ * so the next run can continue after the last committed key of the phase.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+@Entity
+public class ImportCheckpoint extends AbstractEntity {
+    @Column(unique = true)
+    private int importType; // Global.JOB_TYPE
+    private int phase; // Global.IMPORT_PHASE
+    private String lastKey;
+    private LocalDateTime updatedAt;
+
+    public int getImportType() {
+        return importType;
+    }
+
+    public void setImportType(int importType) {
+        this.importType = importType;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public void setPhase(int phase) {
+        this.phase = phase;
+    }
+
+    public String getLastKey() {
+        return Objects.requireNonNullElse(lastKey, "");
+    }
+
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
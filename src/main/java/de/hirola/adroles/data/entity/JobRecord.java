@@ -0,0 +1,135 @@
+package de.hirola.adroles.data.entity;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.AbstractEntity;
+
+import javax.persistence.Entity;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * History entry of a background job, e.g. an import from the Active Directory.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+@Entity
+public class JobRecord extends AbstractEntity {
+    private int jobType; // Global.JOB_TYPE
+    private int state; // Global.JOB_STATE
+    private String startedBy;
+    private LocalDateTime queuedAt, startedAt, finishedAt;
+    private long durationMillis;
+    private int addedCount, updatedCount, processedCount;
+    private int failedCount; // entries which could not be saved
+    private String resultMessage;
+
+    public int getJobType() {
+        return jobType;
+    }
+
+    public void setJobType(int jobType) {
+        this.jobType = jobType;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public void setState(int state) {
+        this.state = state;
+    }
+
+    public boolean isActive() {
+        return state == Global.JOB_STATE.QUEUED || state == Global.JOB_STATE.RUNNING;
+    }
+
+    public String getStartedBy() {
+        return Objects.requireNonNullElse(startedBy, Global.LOGGING_VALUES.UNKNOWN_USER_STRING);
+    }
+
+    public void setStartedBy(String startedBy) {
+        this.startedBy = startedBy;
+    }
+
+    public LocalDateTime getQueuedAt() {
+        return queuedAt;
+    }
+
+    public void setQueuedAt(LocalDateTime queuedAt) {
+        this.queuedAt = queuedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+        if (startedAt != null && finishedAt != null) {
+            durationMillis = Duration.between(startedAt, finishedAt).toMillis();
+        }
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    public void setAddedCount(int addedCount) {
+        this.addedCount = addedCount;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(int updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getResultMessage() {
+        return Objects.requireNonNullElse(resultMessage, "");
+    }
+
+    public void setResultMessage(String resultMessage) {
+        // the length is set to 255 characters
+        if (resultMessage != null && resultMessage.length() > Global.IMPORT_SETTINGS.MAX_STRING_LENGTH) {
+            this.resultMessage = resultMessage.substring(0, Global.IMPORT_SETTINGS.MAX_STRING_LENGTH - 1);
+        } else {
+            this.resultMessage = resultMessage;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package de.hirola.adroles.data.entity;
 
 import de.hirola.adroles.Global;
-import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.AbstractVersionedEntity;
+import de.hirola.adroles.data.listener.StatisticsListener;
+import de.hirola.adroles.data.search.MemorySearchIndexListener;
+import de.hirola.adroles.data.search.SearchText;
+import de.hirola.adroles.data.search.Searchable;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -23,7 +28,12 @@ import java.util.Set;
  */
 
 @Entity
-public class Person extends AbstractEntity implements Comparable<Person> {
+@EntityListeners({MemorySearchIndexListener.class, StatisticsListener.class})
+@NamedEntityGraph(name = "Person.relations", attributeNodes = {
+        @NamedAttributeNode("adUsers"),
+        @NamedAttributeNode(value = "roles", subgraph = "roles")},
+        subgraphs = @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("roleResource")))
+public class Person extends AbstractVersionedEntity implements Comparable<Person>, Searchable {
     private String centralAccountName; // used the first logon name
     @NotEmpty
     private String lastName;
@@ -35,12 +45,17 @@ public class Person extends AbstractEntity implements Comparable<Person> {
     private String description;
     private LocalDate entryDate, exitDate;
     private boolean isEmployee;
+    // the searchable attributes in lower case
+    @Column(length = SearchText.MAX_TEXT_LENGTH)
+    private String searchText;
 
-    @OneToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.PERSIST)
     @JoinColumn(name = "person_id")
     private Set<ADUser> adUsers = new LinkedHashSet<>();
 
-    @ManyToMany(mappedBy = "persons", cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    // the role owns the assignments, they change the version of the role only
+    @OptimisticLock(excluded = true)
+    @ManyToMany(mappedBy = "persons", cascade = CascadeType.PERSIST)
     private Set<Role> roles = new LinkedHashSet<>();
 
     public String getCentralAccountName() {
@@ -208,4 +223,15 @@ public class Person extends AbstractEntity implements Comparable<Person> {
         return lastName.compareTo(o.getLastName());
     }
 
+    @Override
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    @Override
+    public void updateSearchText() {
+        searchText = SearchText.of(firstName, lastName, departmentName, description, emailAddress, centralAccountName);
+    }
 }
@@ -1,6 +1,10 @@
 package de.hirola.adroles.data.entity;
 
-import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.AbstractVersionedEntity;
+import de.hirola.adroles.data.listener.StatisticsListener;
+import de.hirola.adroles.data.search.MemorySearchIndexListener;
+import de.hirola.adroles.data.search.SearchText;
+import de.hirola.adroles.data.search.Searchable;
 
 import javax.annotation.Nullable;
 import javax.persistence.*;
@@ -20,37 +24,45 @@ import java.util.Set;
  */
 
 @Entity
-public class Role extends AbstractEntity implements Comparable<Role> {
+@EntityListeners({MemorySearchIndexListener.class, StatisticsListener.class})
+@NamedEntityGraph(name = "Role.row", attributeNodes = @NamedAttributeNode("roleResource"))
+@NamedEntityGraph(name = "Role.relations", attributeNodes = {
+        @NamedAttributeNode("roleResource"),
+        @NamedAttributeNode("persons")})
+public class Role extends AbstractVersionedEntity implements Comparable<Role>, Searchable {
     @NotEmpty
     private String name;
     private String description;
     public boolean isAdminRole;
+    // the searchable attributes in lower case
+    @Column(length = SearchText.MAX_TEXT_LENGTH)
+    private String searchText;
 
     @ManyToOne(cascade = CascadeType.MERGE, fetch= FetchType.EAGER)
     @JoinColumn(name = "role_resource_id")
     private RoleResource roleResource;
 
-    @OneToOne(cascade = CascadeType.PERSIST, orphanRemoval = true)
+    @OneToOne(cascade = CascadeType.PERSIST, orphanRemoval = true, fetch = FetchType.LAZY)
     @JoinColumn(name = "responsible_id")
     private Person responsible;
 
-    @OneToOne(cascade = CascadeType.PERSIST, orphanRemoval = true)
+    @OneToOne(cascade = CascadeType.PERSIST, orphanRemoval = true, fetch = FetchType.LAZY)
     @JoinColumn(name = "second_responsible_id")
     private Person secondResponsible;
 
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch= FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST)
     @JoinTable(name = "role_adgroup",
             joinColumns = @JoinColumn(name = "role_id"),
             inverseJoinColumns = @JoinColumn(name = "adgroup_id"))
     private Set<ADGroup> adGroups = new LinkedHashSet<>();
 
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST)
     @JoinTable(name = "role_person",
             joinColumns = @JoinColumn(name = "role_id"),
             inverseJoinColumns = @JoinColumn(name = "person_id"))
     private Set<Person> persons = new LinkedHashSet<>();
 
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.PERSIST)
     @JoinTable(name = "role_aduser",
             joinColumns = @JoinColumn(name = "role_id"),
             inverseJoinColumns = @JoinColumn(name = "aduser_id"))
@@ -203,4 +215,16 @@ public class Role extends AbstractEntity implements Comparable<Role> {
     public int compareTo(Role o) {
         return name.compareTo(o.getName());
     }
+
+    @Override
+    public String getSearchText() {
+        return searchText;
+    }
+
+    @PrePersist
+    @PreUpdate
+    @Override
+    public void updateSearchText() {
+        searchText = SearchText.of(name, description);
+    }
 }
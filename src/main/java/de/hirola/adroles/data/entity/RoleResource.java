@@ -1,10 +1,11 @@
 package de.hirola.adroles.data.entity;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.AbstractEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import javax.persistence.Entity;
-import javax.persistence.FetchType;
-import javax.persistence.OneToMany;
+import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import java.util.LinkedHashSet;
@@ -17,12 +18,14 @@ import java.util.Set;
  *
  * <P>Roles can be used for various permissions, such as for folders and distribution lists.
  * Roles can also represent organizations.</P>
+ * <P>The type of the resource is one of {@link Global.ROLE_RESOURCE} or a type defined by the user.</P>
  *
  * @author Michael Schmidt (Hirola)
  * @since v0.1
  */
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Global.CACHE_REGION.REFERENCE_DATA)
 public class RoleResource extends AbstractEntity implements Comparable<RoleResource> {
     @NotEmpty
     private String name;
@@ -33,12 +36,9 @@ public class RoleResource extends AbstractEntity implements Comparable<RoleResou
     String addResourceTranslationKey;
     @NotEmpty
     String deleteResourcesTranslationKey;
-    private boolean isOrgResource;
-    private boolean isProjectResource;
-    private boolean isFileShareResource;
-    private boolean isEmailResource;
+    private int resourceType;
 
-    @OneToMany(mappedBy = "roleResource", fetch= FetchType.EAGER, orphanRemoval = true)
+    @OneToMany(mappedBy = "roleResource", orphanRemoval = true)
     private Set<Role> roles = new LinkedHashSet<>();
 
     public String getName() {
@@ -90,54 +90,28 @@ public class RoleResource extends AbstractEntity implements Comparable<RoleResou
         this.deleteResourcesTranslationKey = deleteResourcesTranslationKey;
     }
 
-    public void setDefaultResource() {
-        isOrgResource = false;
-        isProjectResource = false;
-        isFileShareResource = false;
-        isEmailResource = false;
-    }
-    public boolean isOrgResource() {
-        return isOrgResource;
+    public int getResourceType() {
+        return resourceType;
     }
 
-    public void setOrgResource(boolean orgResource) {
-        isOrgResource = orgResource;
-        isProjectResource = false;
-        isFileShareResource = false;
-        isEmailResource = false;
+    public void setResourceType(int resourceType) {
+        this.resourceType = resourceType;
     }
 
-    public boolean isProjectResource() {
-        return isProjectResource;
+    public boolean isOrgResource() {
+        return resourceType == Global.ROLE_RESOURCE.ORG_ROLE;
     }
 
-    public void setProjectResource(boolean projectResource) {
-        isProjectResource = projectResource;
-        isOrgResource = false;
-        isFileShareResource = false;
-        isEmailResource = false;
+    public boolean isProjectResource() {
+        return resourceType == Global.ROLE_RESOURCE.PROJECT_ROLE;
     }
 
     public boolean isFileShareResource() {
-        return isFileShareResource;
-    }
-
-    public void setFileShareResource(boolean fileShareResource) {
-        isFileShareResource = fileShareResource;
-        isOrgResource = false;
-        isProjectResource = false;
-        isEmailResource = false;
+        return resourceType == Global.ROLE_RESOURCE.FILE_SHARE_ROLE;
     }
 
     public boolean isEmailResource() {
-        return isEmailResource;
-    }
-
-    public void setEmailResource(boolean emailResource) {
-        isEmailResource = emailResource;
-        isFileShareResource = false;
-        isOrgResource = false;
-        isProjectResource = false;
+        return resourceType == Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE;
     }
 
     public Set<Role> getRoles() {
@@ -0,0 +1,45 @@
+package de.hirola.adroles.data.entity;
+
+import de.hirola.adroles.data.search.SearchText;
+
+import javax.persistence.*;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * A token of the search text of an entity, used to search on H2.
+ * The tokens are written by {@link de.hirola.adroles.data.search.H2SearchTrigger}, not by the entity manager.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+@Entity
+public class SearchToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 16)
+    private String entityType; // the table of the entity
+    @Column(nullable = false)
+    private Integer entityId;
+    @Column(nullable = false, length = SearchText.MAX_TOKEN_LENGTH)
+    private String token;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,91 @@
+package de.hirola.adroles.data.entity;
+
+import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+
+import javax.persistence.Entity;
+import java.time.LocalDateTime;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * The numbers of the dashboard in an hour, a day or a week of the history.
+ * A record holds the last numbers recorded in its period.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+@Entity
+public class StatisticsRecord extends AbstractEntity {
+    private int resolution; // Global.STATISTICS_RESOLUTION
+    // the start of the period
+    private LocalDateTime recordedAt;
+    private int personCount, orgUnitCount, roleCount, adUserCount, adGroupCount, adminGroupCount;
+    private int passwordNeverExpiresCount;
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(int resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public int getPersonCount() {
+        return personCount;
+    }
+
+    public int getOrgUnitCount() {
+        return orgUnitCount;
+    }
+
+    public int getRoleCount() {
+        return roleCount;
+    }
+
+    public int getADUserCount() {
+        return adUserCount;
+    }
+
+    public int getADGroupCount() {
+        return adGroupCount;
+    }
+
+    public int getAdminGroupCount() {
+        return adminGroupCount;
+    }
+
+    public int getPasswordNeverExpiresCount() {
+        return passwordNeverExpiresCount;
+    }
+
+    public void setStatistics(DashboardStatistics statistics) {
+        personCount = (int) statistics.personCount();
+        orgUnitCount = (int) statistics.orgUnitCount();
+        roleCount = (int) statistics.roleCount();
+        adUserCount = (int) statistics.adUserCount();
+        adGroupCount = (int) statistics.adGroupCount();
+        adminGroupCount = (int) statistics.adminGroupCount();
+        passwordNeverExpiresCount = (int) statistics.passwordNeverExpiresCount();
+    }
+
+    public void setStatistics(StatisticsRecord statisticsRecord) {
+        personCount = statisticsRecord.personCount;
+        orgUnitCount = statisticsRecord.orgUnitCount;
+        roleCount = statisticsRecord.roleCount;
+        adUserCount = statisticsRecord.adUserCount;
+        adGroupCount = statisticsRecord.adGroupCount;
+        adminGroupCount = statisticsRecord.adminGroupCount;
+        passwordNeverExpiresCount = statisticsRecord.passwordNeverExpiresCount;
+    }
+}
@@ -19,6 +19,10 @@ public class DataGenerator {
         return args -> {
             Logger logger = LoggerFactory.getLogger(getClass());
 
+            // a persistent database contains the user from the last start
+            if (userRepository.existsByLoginName("schmid02")) {
+                return;
+            }
             logger.info("... generating 1 user entity for login ...");
             User user = new User();
             user.setLoginName("schmid02");
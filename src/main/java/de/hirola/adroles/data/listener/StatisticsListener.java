@@ -0,0 +1,36 @@
+package de.hirola.adroles.data.listener;
+
+import de.hirola.adroles.service.StatisticsService;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Invalidates the statistics of the {@link StatisticsService}, if a counted entity is saved or deleted.
+ * The listener is created by Spring for Hibernate.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public class StatisticsListener {
+    private final ObjectProvider<StatisticsService> statisticsServiceProvider;
+
+    public StatisticsListener(ObjectProvider<StatisticsService> statisticsServiceProvider) {
+        this.statisticsServiceProvider = statisticsServiceProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void afterChange(Object entity) {
+        StatisticsService statisticsService = statisticsServiceProvider.getIfAvailable();
+        if (statisticsService != null) {
+            statisticsService.invalidate();
+        }
+    }
+}
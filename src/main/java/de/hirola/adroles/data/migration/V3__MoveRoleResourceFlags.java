@@ -0,0 +1,63 @@
+package de.hirola.adroles.data.migration;
+
+import de.hirola.adroles.Global;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Older versions saved the type of a role resource in four flags. The flags are moved
+ * to the type column and dropped, because the entity no longer writes them.
+ * The migration is a bean, Spring passes it to Flyway.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+@Component
+public class V3__MoveRoleResourceFlags extends BaseJavaMigration {
+    // the legacy flag columns and the types they stand for
+    private static final Map<String, Integer> TYPES_BY_FLAG_COLUMN = Map.of(
+            "is_org_resource", Global.ROLE_RESOURCE.ORG_ROLE,
+            "is_project_resource", Global.ROLE_RESOURCE.PROJECT_ROLE,
+            "is_file_share_resource", Global.ROLE_RESOURCE.FILE_SHARE_ROLE,
+            "is_email_resource", Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        List<String> flagColumns = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select column_name from information_schema.columns "
+                     + "where lower(table_name) = 'role_resource' and lower(column_name) like 'is%resource'")) {
+            while (resultSet.next()) {
+                flagColumns.add(resultSet.getString(1).toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String flagColumn : flagColumns) {
+            Integer type = TYPES_BY_FLAG_COLUMN.get(flagColumn);
+            if (type == null) {
+                continue;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("update role_resource "
+                    + "set resource_type = ? where " + flagColumn + " = true")) {
+                statement.setInt(1, type);
+                statement.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("alter table role_resource drop column " + flagColumn);
+            }
+        }
+    }
+}
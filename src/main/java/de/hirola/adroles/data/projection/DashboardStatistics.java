@@ -0,0 +1,15 @@
+package de.hirola.adroles.data.projection;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Immutable snapshot of the numbers shown on the dashboard, loaded with one query.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public record DashboardStatistics(long personCount, long orgUnitCount, long roleCount,
+                                  long adUserCount, long adGroupCount, long adminGroupCount,
+                                  long passwordNeverExpiresCount) {
+}
@@ -0,0 +1,17 @@
+package de.hirola.adroles.data.projection;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Projection to the id and the name of an entity, e.g. to resolve names without loading the relations.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public interface EntityName {
+
+    Integer getId();
+
+    String getName();
+}
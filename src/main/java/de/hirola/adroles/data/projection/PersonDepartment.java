@@ -0,0 +1,17 @@
+package de.hirola.adroles.data.projection;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Projection to the id and the department of a person, used to derive the organisation roles.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public interface PersonDepartment {
+
+    Integer getId();
+
+    String getDepartmentName();
+}
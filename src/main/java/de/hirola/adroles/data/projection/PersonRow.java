@@ -0,0 +1,15 @@
+package de.hirola.adroles.data.projection;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Read-only row of the person grids with the displayed columns and the count of assigned roles.
+ * The person entity is loaded only to edit the person.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public record PersonRow(Integer id, String lastName, String firstName, String centralAccountName,
+                        String departmentName, String description, boolean isEmployee, int roleCount) {
+}
@@ -0,0 +1,15 @@
+package de.hirola.adroles.data.projection;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Read-only row of the role grids with the displayed columns and the count of assigned persons.
+ * The role entity is loaded only to edit the role.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public record RoleRow(Integer id, String name, String description, boolean isAdminRole,
+                      Integer roleResourceId, int personCount) {
+}
@@ -1,6 +1,8 @@
 package de.hirola.adroles.data.repository;
 
 import de.hirola.adroles.data.entity.ADGroup;
+import de.hirola.adroles.data.projection.EntityName;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,17 +12,32 @@ import java.util.Optional;
 
 public interface ADGroupRepository extends JpaRepository<ADGroup, Integer> {
 
+    @Query("select g from ADGroup g where g.searchText like :searchPattern")
+    List<ADGroup> findByFilter(@Param("searchPattern") String searchPattern, Pageable pageable);
+
+    @Query("select count(g) from ADGroup g where g.searchText like :searchPattern")
+    long countByFilter(@Param("searchPattern") String searchPattern);
+
     @Query("select g from ADGroup g " +
-            "where lower(g.name) like lower(concat('%', :searchTerm, '%')) " +"" +
-            "or lower(g.description) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(g.distinguishedName) like lower(concat('%', :searchTerm, '%')) " +
-            "order by g.name")
-    List<ADGroup> search(@Param("searchTerm") String searchTerm);
+            "where g.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'adgroup' and t.token like :tokenPattern) " +
+            "and g.searchText like :searchPattern")
+    List<ADGroup> findByToken(@Param("searchPattern") String searchPattern,
+                              @Param("tokenPattern") String tokenPattern,
+                              Pageable pageable);
+
+    @Query("select count(g) from ADGroup g " +
+            "where g.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'adgroup' and t.token like :tokenPattern) " +
+            "and g.searchText like :searchPattern")
+    long countByToken(@Param("searchPattern") String searchPattern, @Param("tokenPattern") String tokenPattern);
 
     Optional<ADGroup> findFirstByObjectSID(String objectSID);
 
     Optional<ADGroup> findFirstByName(String name);
 
+    List<EntityName> findAllProjectedBy();
+
     long countByIsAdminGroupTrue();
 
 }
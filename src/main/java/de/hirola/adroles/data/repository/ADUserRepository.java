@@ -1,25 +1,72 @@
 package de.hirola.adroles.data.repository;
 
 import de.hirola.adroles.data.entity.ADUser;
+import de.hirola.adroles.data.entity.Person;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ADUserRepository extends JpaRepository<ADUser, Integer> {
+
+    @EntityGraph(attributePaths = "person")
+    @Override
+    List<ADUser> findAll(Sort sort);
+
+    @EntityGraph(attributePaths = "person")
+    @Query("select a from ADUser a where a.searchText like :searchPattern")
+    List<ADUser> findByFilter(@Param("searchPattern") String searchPattern, Pageable pageable);
+
+    @Query("select count(a) from ADUser a where a.searchText like :searchPattern")
+    long countByFilter(@Param("searchPattern") String searchPattern);
+
+    @EntityGraph(attributePaths = "person")
     @Query("select a from ADUser a " +
-            "where lower(a.logonName) like lower(concat('%', :searchTerm, '%')) " +"" +
-            "or lower(a.distinguishedName) like lower(concat('%', :searchTerm, '%')) " +
-            "order by a.logonName")
-    List<ADUser> search(@Param("searchTerm") String searchTerm);
+            "where a.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'aduser' and t.token like :tokenPattern) " +
+            "and a.searchText like :searchPattern")
+    List<ADUser> findByToken(@Param("searchPattern") String searchPattern,
+                             @Param("tokenPattern") String tokenPattern,
+                             Pageable pageable);
+
+    @Query("select count(a) from ADUser a " +
+            "where a.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'aduser' and t.token like :tokenPattern) " +
+            "and a.searchText like :searchPattern")
+    long countByToken(@Param("searchPattern") String searchPattern, @Param("tokenPattern") String tokenPattern);
 
     Optional<ADUser> findFirstByObjectSID(String objectSID);
 
+    @EntityGraph(attributePaths = "person")
     List<ADUser> findByIsRoleManagedTrueOrderByLogonNameAsc();
 
     List<ADUser> findByPerson_IdAndIsRoleManagedTrue(Integer id);
 
+    @EntityGraph(attributePaths = "person")
+    List<ADUser> findByPerson_IdInAndIsRoleManagedTrue(Collection<Integer> ids);
+
+    List<ADUser> findByPerson_IdIn(Collection<Integer> ids);
+
+    @Modifying
+    @Query("update ADUser a set a.isRoleManaged = true, a.version = a.version + 1 " +
+            "where a.person.id in :personIds and a.isRoleManaged = false")
+    int updateRoleManagedTrueByPersonIds(@Param("personIds") Collection<Integer> personIds);
+
+    @Modifying
+    @Query("update ADUser a set a.person = null, a.version = a.version + 1 where a.person.id in :personIds")
+    int removePersonByPersonIds(@Param("personIds") Collection<Integer> personIds);
+
+    @Modifying
+    @Query("update ADUser a set a.person = :person, a.version = a.version + 1 " +
+            "where a.id = :id and (a.person is null or a.person <> :person)")
+    int updatePerson(@Param("id") Integer id, @Param("person") Person person);
+
     long countByPasswordExpiresFalse();
 }
@@ -1,8 +1,18 @@
 package de.hirola.adroles.data.repository;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.ActiveDirectory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 
 public interface ActiveDirectoryRepository extends JpaRepository<ActiveDirectory, Integer> {
 
+    @QueryHints({@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+                    value = Global.CACHE_REGION.REFERENCE_DATA_QUERIES)})
+    @Override
+    List<ActiveDirectory> findAll();
 }
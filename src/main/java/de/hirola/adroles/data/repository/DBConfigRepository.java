@@ -1,10 +1,23 @@
 package de.hirola.adroles.data.repository;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.DBConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 public interface DBConfigRepository extends JpaRepository<DBConfig, Integer> {
+    @QueryHints({@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+                    value = Global.CACHE_REGION.REFERENCE_DATA_QUERIES)})
     Optional<DBConfig> findByName(String name);
+
+    @QueryHints({@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+                    value = Global.CACHE_REGION.REFERENCE_DATA_QUERIES)})
+    @Override
+    List<DBConfig> findAll();
 }
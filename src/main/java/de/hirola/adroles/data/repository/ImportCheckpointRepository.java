@@ -0,0 +1,11 @@
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.data.entity.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, Integer> {
+
+    Optional<ImportCheckpoint> findFirstByImportType(int importType);
+}
@@ -0,0 +1,16 @@
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.data.entity.JobRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface JobRecordRepository extends JpaRepository<JobRecord, Integer> {
+
+    List<JobRecord> findTop100ByOrderByIdDesc();
+
+    List<JobRecord> findByJobTypeOrderByIdDesc(int jobType);
+
+    List<JobRecord> findByStateIn(Collection<Integer> states);
+}
@@ -1,45 +1,75 @@
 package de.hirola.adroles.data.repository;
 
 import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.projection.PersonDepartment;
+import de.hirola.adroles.data.projection.PersonRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PersonRepository extends JpaRepository<Person, Integer> {
 
-    @Query("select p from Person p " +
-        "where lower(p.firstName) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(p.lastName) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.departmentName) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.description) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.emailAddress) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.centralAccountName) like lower(concat('%', :searchTerm, '%')) " +
-            "order by p.lastName")
-    List<Person> search(@Param("searchTerm") String searchTerm);
-
-    @Query("select p from Person p " +
-            "where p.isEmployee = true and " +
-            "(lower(p.firstName) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(p.lastName) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.departmentName) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.description) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.emailAddress) like lower(concat('%', :searchTerm, '%'))" +
-            "or lower(p.centralAccountName) like lower(concat('%', :searchTerm, '%'))) " +
-            "order by p.lastName")
-    List<Person> searchEmployees(@Param("searchTerm") String searchTerm);
+    @Query("select new de.hirola.adroles.data.projection.PersonRow(" +
+            "p.id, p.lastName, p.firstName, p.centralAccountName, p.departmentName, " +
+            "p.description, p.isEmployee, size(p.roles)) " +
+            "from Person p " +
+            "where (:employeesOnly = false or p.isEmployee = true) " +
+            "and p.searchText like :searchPattern")
+    List<PersonRow> findByFilter(@Param("searchPattern") String searchPattern,
+                                 @Param("employeesOnly") boolean employeesOnly,
+                                 Pageable pageable);
+
+    @Query("select count(p) from Person p " +
+            "where (:employeesOnly = false or p.isEmployee = true) " +
+            "and p.searchText like :searchPattern")
+    long countByFilter(@Param("searchPattern") String searchPattern, @Param("employeesOnly") boolean employeesOnly);
+
+    @Query("select new de.hirola.adroles.data.projection.PersonRow(" +
+            "p.id, p.lastName, p.firstName, p.centralAccountName, p.departmentName, " +
+            "p.description, p.isEmployee, size(p.roles)) " +
+            "from Person p " +
+            "where (:employeesOnly = false or p.isEmployee = true) " +
+            "and p.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'person' and t.token like :tokenPattern) " +
+            "and p.searchText like :searchPattern")
+    List<PersonRow> findByToken(@Param("searchPattern") String searchPattern,
+                                @Param("tokenPattern") String tokenPattern,
+                                @Param("employeesOnly") boolean employeesOnly,
+                                Pageable pageable);
+
+    @Query("select count(p) from Person p " +
+            "where (:employeesOnly = false or p.isEmployee = true) " +
+            "and p.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'person' and t.token like :tokenPattern) " +
+            "and p.searchText like :searchPattern")
+    long countByToken(@Param("searchPattern") String searchPattern,
+                      @Param("tokenPattern") String tokenPattern,
+                      @Param("employeesOnly") boolean employeesOnly);
 
     Optional<Person> findByAdUsers_LogonName(@NonNull String logonName);
 
-    List<Person> findByIsEmployeeTrueOrderByLastNameAscFirstNameAsc();
+    @EntityGraph("Person.relations")
+    Optional<Person> findWithRelationsById(Integer id);
 
     @Query("select distinct departmentName from Person where departmentName <> ''")
     List<String> getUniqueDepartmentNames();
 
     List<Person> findByDepartmentNameOrderByLastNameAsc(String departmentName);
 
+    @Query("select p.id as id, p.departmentName as departmentName from Person p where p.departmentName <> ''")
+    List<PersonDepartment> findAllDepartments();
+
+    @Modifying
+    @Query("update Person p set p.isEmployee = :isEmployee, p.version = p.version + 1 " +
+            "where p.id in :ids and p.isEmployee <> :isEmployee")
+    int updateEmployee(@Param("isEmployee") boolean isEmployee, @Param("ids") Collection<Integer> ids);
 
 }
@@ -0,0 +1,132 @@
+package de.hirola.adroles.data.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Reads and writes the join rows of the roles in bulk, without loading the entities.
+ * Used by the automatic assignment, which creates many join rows at once, and by the saves
+ * of the entities, which write only the changed join rows.
+ * <p>The inserts skip the rows which exist, e.g. if a role was saved in the meantime.</p>
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+@Repository
+public class RoleMembershipRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * A join row of a role, the member is a person, an AD user or an AD group.
+     */
+    public record RoleMember(int roleId, int memberId) {
+    }
+
+    public RoleMembershipRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<RoleMember> findRolePersons(Collection<Integer> personIds) {
+        return find("select role_id, person_id from role_person where person_id in (:ids)", personIds);
+    }
+
+    public Set<RoleMember> findRoleADUsers(Collection<Integer> adUserIds) {
+        return find("select role_id, aduser_id from role_aduser where aduser_id in (:ids)", adUserIds);
+    }
+
+    public Set<RoleMember> findRoleADGroups(Collection<Integer> adGroupIds) {
+        return find("select role_id, adgroup_id from role_adgroup where adgroup_id in (:ids)", adGroupIds);
+    }
+
+    public Set<RoleMember> findPersonsOfRole(int roleId) {
+        return find("select role_id, person_id from role_person where role_id in (:ids)", List.of(roleId));
+    }
+
+    public Set<RoleMember> findADUsersOfRole(int roleId) {
+        return find("select role_id, aduser_id from role_aduser where role_id in (:ids)", List.of(roleId));
+    }
+
+    public Set<RoleMember> findADGroupsOfRole(int roleId) {
+        return find("select role_id, adgroup_id from role_adgroup where role_id in (:ids)", List.of(roleId));
+    }
+
+    public void insertRolePersons(Collection<RoleMember> rolePersons) {
+        insert("role_person", "person_id", rolePersons);
+    }
+
+    public void insertRoleADGroups(Collection<RoleMember> roleADGroups) {
+        insert("role_adgroup", "adgroup_id", roleADGroups);
+    }
+
+    public void insertRoleADUsers(Collection<RoleMember> roleADUsers) {
+        insert("role_aduser", "aduser_id", roleADUsers);
+    }
+
+    public void deleteRolePersons(Collection<RoleMember> rolePersons) {
+        update("delete from role_person where role_id = :roleId and person_id = :memberId", rolePersons);
+    }
+
+    public void deleteRoleADUsers(Collection<RoleMember> roleADUsers) {
+        update("delete from role_aduser where role_id = :roleId and aduser_id = :memberId", roleADUsers);
+    }
+
+    public void deleteRoleADGroups(Collection<RoleMember> roleADGroups) {
+        update("delete from role_adgroup where role_id = :roleId and adgroup_id = :memberId", roleADGroups);
+    }
+
+    public void deleteAllOfRoles(Collection<Integer> roleIds) {
+        deleteByIds("delete from role_person where role_id in (:ids)", roleIds);
+        deleteByIds("delete from role_aduser where role_id in (:ids)", roleIds);
+        deleteByIds("delete from role_adgroup where role_id in (:ids)", roleIds);
+    }
+
+    public void deleteRolePersonsByPersonIds(Collection<Integer> personIds) {
+        deleteByIds("delete from role_person where person_id in (:ids)", personIds);
+    }
+
+    public void deleteRoleADUsersByADUserIds(Collection<Integer> adUserIds) {
+        deleteByIds("delete from role_aduser where aduser_id in (:ids)", adUserIds);
+    }
+
+    public void deleteRoleADGroupsByADGroupIds(Collection<Integer> adGroupIds) {
+        deleteByIds("delete from role_adgroup where adgroup_id in (:ids)", adGroupIds);
+    }
+
+    private void insert(String table, String memberColumn, Collection<RoleMember> roleMembers) {
+        update("insert into " + table + " (role_id, " + memberColumn + ") select :roleId, :memberId"
+                + " where not exists (select 1 from " + table
+                + " where role_id = :roleId and " + memberColumn + " = :memberId)", roleMembers);
+    }
+
+    private Set<RoleMember> find(String sql, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.query(sql, new MapSqlParameterSource("ids", ids),
+                (resultSet, rowNumber) -> new RoleMember(resultSet.getInt(1), resultSet.getInt(2))));
+    }
+
+    private void deleteByIds(String sql, Collection<Integer> ids) {
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(sql, new MapSqlParameterSource("ids", ids));
+        }
+    }
+
+    private void update(String sql, Collection<RoleMember> roleMembers) {
+        if (roleMembers.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batchValues = roleMembers.stream()
+                .map(roleMember -> new MapSqlParameterSource()
+                        .addValue("roleId", roleMember.roleId())
+                        .addValue("memberId", roleMember.memberId()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(sql, batchValues);
+    }
+}
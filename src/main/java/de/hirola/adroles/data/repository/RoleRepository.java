@@ -1,66 +1,99 @@
 package de.hirola.adroles.data.repository;
 
 import de.hirola.adroles.data.entity.Role;
+import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.data.projection.EntityName;
+import de.hirola.adroles.data.projection.RoleRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Integer> {
 
-    @Query("select r from Role r " +
-            "where lower(r.name) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(r.description) like lower(concat('%', :searchTerm, '%')) " +
-            "order by r.name")
-    List<Role> search(@Param("searchTerm") String searchTerm);
-
-    @Query("select r from Role r " +
-            "where lower(r.name) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(r.description) like lower(concat('%', :searchTerm, '%')) " +
-            "order by r.name")
-    List<Role> searchOrg(@Param("searchTerm") String searchTerm);
-
-    @Query("select r from Role r, RoleResource rr " +
-            "where rr.isProjectResource = true " +
-            "and (lower(r.name) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(r.description) like lower(concat('%', :searchTerm, '%'))) " +
-            "order by r.name")
-    List<Role> searchProject(@Param("searchTerm") String searchTerm);
-
-    @Query("select r from Role r, RoleResource rr " +
-            "where rr.isFileShareResource = true " +
-            "and (lower(r.name) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(r.description) like lower(concat('%', :searchTerm, '%'))) " +
-            "order by r.name")
-    List<Role> searchFileShare(@Param("searchTerm") String searchTerm);
-
-    @Query("select r from Role r, RoleResource rr " +
-            "where rr.isEmailResource = true " +
-            "and (lower(r.name) like lower(concat('%', :searchTerm, '%')) " +
-            "or lower(r.description) like lower(concat('%', :searchTerm, '%'))) " +
-            "order by r.name")
-    List<Role> searchMailResource(@Param("searchTerm") String searchTerm);
-
-    List<Role> findByRoleResource_IsOrgResourceTrueOrderByNameAsc();
-
-    List<Role> findByRoleResource_IsProjectResourceTrueOrderByNameAsc();
-
-    List<Role> findByRoleResource_IsFileShareResourceTrueOrderByNameAsc();
-
-    List<Role> findByRoleResource_IsEmailResourceTrueOrderByNameAsc();
+    @EntityGraph("Role.row")
+    @Override
+    List<Role> findAll(Sort sort);
+
+    @Query("select new de.hirola.adroles.data.projection.RoleRow(" +
+            "r.id, r.name, r.description, r.isAdminRole, rr.id, size(r.persons)) " +
+            "from Role r left join r.roleResource rr " +
+            "where (:roleResourceId is null or rr.id = :roleResourceId) " +
+            "and r.searchText like :searchPattern")
+    List<RoleRow> findByFilter(@Param("searchPattern") String searchPattern,
+                               @Param("roleResourceId") Integer roleResourceId,
+                               Pageable pageable);
+
+    @Query("select count(r) from Role r " +
+            "where (:roleResourceId is null or r.roleResource.id = :roleResourceId) " +
+            "and r.searchText like :searchPattern")
+    long countByFilter(@Param("searchPattern") String searchPattern, @Param("roleResourceId") Integer roleResourceId);
+
+    @Query("select new de.hirola.adroles.data.projection.RoleRow(" +
+            "r.id, r.name, r.description, r.isAdminRole, rr.id, size(r.persons)) " +
+            "from Role r left join r.roleResource rr " +
+            "where (:roleResourceId is null or rr.id = :roleResourceId) " +
+            "and r.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'role' and t.token like :tokenPattern) " +
+            "and r.searchText like :searchPattern")
+    List<RoleRow> findByToken(@Param("searchPattern") String searchPattern,
+                              @Param("tokenPattern") String tokenPattern,
+                              @Param("roleResourceId") Integer roleResourceId,
+                              Pageable pageable);
+
+    @Query("select count(r) from Role r " +
+            "where (:roleResourceId is null or r.roleResource.id = :roleResourceId) " +
+            "and r.id in (select t.entityId from SearchToken t " +
+            "where t.entityType = 'role' and t.token like :tokenPattern) " +
+            "and r.searchText like :searchPattern")
+    long countByToken(@Param("searchPattern") String searchPattern,
+                      @Param("tokenPattern") String tokenPattern,
+                      @Param("roleResourceId") Integer roleResourceId);
+
+    @EntityGraph("Role.relations")
+    Optional<Role> findWithRelationsById(Integer id);
+
+    // the version is also incremented, if only the join rows of the role are changed
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<Role> findForUpdateById(Integer id);
+
+    @EntityGraph("Role.row")
+    List<Role> findByRoleResource_ResourceTypeOrderByNameAsc(int resourceType);
 
     List<Role> findByPersons_Id(Integer id);
 
     Optional<Role> findFirstByName(String name);
 
-    long countByRoleResource_IsOrgResourceTrue();
+    List<EntityName> findAllProjectedBy();
+
+    List<EntityName> findProjectedByRoleResource_ResourceType(int resourceType);
+
+    @Modifying
+    @Query("update Role r set r.roleResource = :roleResource, r.version = r.version + 1 " +
+            "where r.id in :ids and (r.roleResource is null or r.roleResource <> :roleResource)")
+    int updateRoleResource(@Param("roleResource") RoleResource roleResource, @Param("ids") Collection<Integer> ids);
 
-    long countByRoleResource_IsProjectResourceTrue();
+    @Modifying
+    @Query("update Role r set r.version = r.version + 1 where r.id in :ids")
+    int incrementVersion(@Param("ids") Collection<Integer> ids);
 
-    long countByRoleResource_IsFileShareResourceTrue();
+    @Modifying
+    @Query("update Role r set r.responsible = null, r.version = r.version + 1 where r.responsible.id in :personIds")
+    int removeResponsibleByPersonIds(@Param("personIds") Collection<Integer> personIds);
 
-    long countByRoleResource_IsEmailResourceTrue();
+    @Modifying
+    @Query("update Role r set r.secondResponsible = null, r.version = r.version + 1 " +
+            "where r.secondResponsible.id in :personIds")
+    int removeSecondResponsibleByPersonIds(@Param("personIds") Collection<Integer> personIds);
 
+    long countByRoleResource_ResourceType(int resourceType);
 }
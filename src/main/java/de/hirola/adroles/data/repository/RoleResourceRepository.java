@@ -1,26 +1,25 @@
 package de.hirola.adroles.data.repository;
 
+import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.RoleResource;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 public interface RoleResourceRepository extends JpaRepository<RoleResource, Integer> {
-    @Query("select r from RoleResource r " +
-            "where r.isOrgResource = false " +
-            "and r.isProjectResource = false and r.isFileShareResource = false and r.isEmailResource = false")
-    Optional<RoleResource> getDefaultResource();
 
-    @Query("select r from RoleResource r where r.isOrgResource = true")
-    Optional<RoleResource> getOrgResource();
+    // the role resources are cached, the views get them on each construction
+    @QueryHints({@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+                    value = Global.CACHE_REGION.REFERENCE_DATA_QUERIES)})
+    Optional<RoleResource> findFirstByResourceTypeOrderByIdAsc(int resourceType);
 
-    @Query("select r from RoleResource r where r.isProjectResource = true")
-    Optional<RoleResource> getProjResource();
-
-    @Query("select r from RoleResource r where r.isFileShareResource = true")
-    Optional<RoleResource> getFileShareResource();
-
-    @Query("select r from RoleResource r where r.isEmailResource = true")
-    Optional<RoleResource> getEmailResource();
+    @QueryHints({@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+                    value = Global.CACHE_REGION.REFERENCE_DATA_QUERIES)})
+    @Override
+    List<RoleResource> findAll();
 }
@@ -0,0 +1,19 @@
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.data.entity.StatisticsRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StatisticsRecordRepository extends JpaRepository<StatisticsRecord, Integer> {
+
+    Optional<StatisticsRecord> findFirstByResolutionAndRecordedAt(int resolution, LocalDateTime recordedAt);
+
+    List<StatisticsRecord> findByResolutionAndRecordedAtBeforeOrderByRecordedAtAsc(int resolution,
+                                                                                 LocalDateTime recordedAt);
+
+    List<StatisticsRecord> findByResolutionOrderByRecordedAtDesc(int resolution, Pageable pageable);
+}
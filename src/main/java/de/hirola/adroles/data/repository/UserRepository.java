@@ -4,5 +4,6 @@ import de.hirola.adroles.data.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
+    boolean existsByLoginName(String loginName);
 
 }
@@ -0,0 +1,87 @@
+package de.hirola.adroles.data.search;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Keeps the tokens of the search text current on H2. The trigger is called for each changed row
+ * of an entity table, also for bulk updates and imports which bypass the entity manager.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public class H2SearchTrigger implements Trigger {
+    private String entityType;
+    private int idIndex = -1;
+    private int searchTextIndex = -1;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        entityType = tableName.toLowerCase(Locale.ROOT);
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                String columnName = columns.getString("COLUMN_NAME");
+                int index = columns.getInt("ORDINAL_POSITION") - 1;
+                if ("ID".equalsIgnoreCase(columnName)) {
+                    idIndex = index;
+                } else if ("SEARCH_TEXT".equalsIgnoreCase(columnName)) {
+                    searchTextIndex = index;
+                }
+            }
+        }
+        if (idIndex < 0 || searchTextIndex < 0) {
+            throw new SQLException("The table " + tableName + " has no search text.");
+        }
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow != null && newRow != null
+                && Objects.equals(oldRow[searchTextIndex], newRow[searchTextIndex])
+                && Objects.equals(oldRow[idIndex], newRow[idIndex])) {
+            return;
+        }
+        if (oldRow != null) {
+            deleteTokens(connection, entityType, ((Number) oldRow[idIndex]).intValue());
+        }
+        if (newRow != null) {
+            insertTokens(connection, entityType, ((Number) newRow[idIndex]).intValue(),
+                    (String) newRow[searchTextIndex]);
+        }
+    }
+
+    static void deleteTokens(Connection connection, String entityType, int entityId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "delete from search_token where entity_type = ? and entity_id = ?")) {
+            statement.setString(1, entityType);
+            statement.setInt(2, entityId);
+            statement.executeUpdate();
+        }
+    }
+
+    static void insertTokens(Connection connection, String entityType, int entityId, String searchText)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into search_token (entity_type, entity_id, token) values (?, ?, ?)")) {
+            for (String token : SearchText.getTokens(searchText)) {
+                statement.setString(1, entityType);
+                statement.setInt(2, entityId);
+                statement.setString(3, token);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.hirola.adroles.data.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Searches the entities in the assign forms, which filter all entities in memory on each keystroke.
+ * <p>The {@link TrigramIndex} of an entity type is built from the search texts in the database,
+ * when it is searched the first time. After that, {@link MemorySearchIndexListener} patches
+ * the index with the saved and deleted entities.
+ * Changes bypassing the entities, e.g. bulk deletes, must {@link #invalidate} the index.</p>
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+@Component
+public class MemorySearchIndex {
+    private final Logger logger = LoggerFactory.getLogger(MemorySearchIndex.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Class<? extends Searchable>, IndexHolder> indexHolders = new ConcurrentHashMap<>();
+
+    private static final class IndexHolder {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TrigramIndex index = new TrigramIndex();
+        private volatile boolean isBuilt;
+    }
+
+    public MemorySearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Search the ids of the entities containing the term in their search text.
+     *
+     * @param entityClass of the searched entities
+     * @param searchTerm entered in the filter
+     * @return the ids of the matching entities or null, if the term is empty and all entities match
+     */
+    @Nullable
+    public Set<Integer> findIds(Class<? extends Searchable> entityClass, @Nullable String searchTerm) {
+        String normalizedTerm = SearchText.normalize(searchTerm);
+        if (normalizedTerm.isEmpty()) {
+            return null;
+        }
+        IndexHolder indexHolder = indexHolders.computeIfAbsent(entityClass, key -> new IndexHolder());
+        build(entityClass, indexHolder);
+        indexHolder.lock.readLock().lock();
+        try {
+            return indexHolder.index.find(normalizedTerm);
+        } finally {
+            indexHolder.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the index of the entity type, it is built again on the next search.
+     *
+     * @param entityClass of the changed entities
+     */
+    public void invalidate(Class<? extends Searchable> entityClass) {
+        indexHolders.remove(entityClass);
+    }
+
+    void put(Class<? extends Searchable> entityClass, int id, @Nullable String searchText) {
+        IndexHolder indexHolder = indexHolders.get(entityClass);
+        if (indexHolder == null) {
+            // not searched yet, the index is built with the saved search text
+            return;
+        }
+        indexHolder.lock.writeLock().lock();
+        try {
+            if (indexHolder.isBuilt) {
+                if (searchText == null || searchText.isEmpty()) {
+                    indexHolder.index.remove(id);
+                } else {
+                    indexHolder.index.put(id, searchText);
+                }
+            }
+        } finally {
+            indexHolder.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Class<? extends Searchable> entityClass, int id) {
+        IndexHolder indexHolder = indexHolders.get(entityClass);
+        if (indexHolder == null) {
+            return;
+        }
+        indexHolder.lock.writeLock().lock();
+        try {
+            indexHolder.index.remove(id);
+        } finally {
+            indexHolder.lock.writeLock().unlock();
+        }
+    }
+
+    private void build(Class<? extends Searchable> entityClass, IndexHolder indexHolder) {
+        if (indexHolder.isBuilt) {
+            return;
+        }
+        indexHolder.lock.writeLock().lock();
+        try {
+            if (indexHolder.isBuilt) {
+                return;
+            }
+            String tableName = entityClass.getSimpleName().toLowerCase(Locale.ROOT);
+            jdbcTemplate.query("select id, search_text from " + tableName + " where search_text <> ''",
+                    (RowCallbackHandler) resultSet ->
+                            indexHolder.index.put(resultSet.getInt(1), resultSet.getString(2)));
+            indexHolder.isBuilt = true;
+            logger.debug("Search index of " + tableName + " built with " + indexHolder.index.size() + " entries.");
+        } finally {
+            indexHolder.lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.hirola.adroles.data.search;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.function.Consumer;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Patches the {@link MemorySearchIndex} with the saved and deleted entities,
+ * after the transaction is committed. The listener is created by Spring for Hibernate.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public class MemorySearchIndexListener {
+    private final ObjectProvider<MemorySearchIndex> searchIndexProvider;
+
+    public MemorySearchIndexListener(ObjectProvider<MemorySearchIndex> searchIndexProvider) {
+        this.searchIndexProvider = searchIndexProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void afterSave(Searchable entity) {
+        Class<? extends Searchable> entityClass = getEntityClass(entity);
+        int id = entity.getId();
+        String searchText = entity.getSearchText();
+        afterCommit(searchIndex -> searchIndex.put(entityClass, id, searchText));
+    }
+
+    @PostRemove
+    void afterRemove(Searchable entity) {
+        Class<? extends Searchable> entityClass = getEntityClass(entity);
+        int id = entity.getId();
+        afterCommit(searchIndex -> searchIndex.remove(entityClass, id));
+    }
+
+    private void afterCommit(Consumer<MemorySearchIndex> change) {
+        MemorySearchIndex searchIndex = searchIndexProvider.getIfAvailable();
+        if (searchIndex == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.accept(searchIndex);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.accept(searchIndex);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Searchable> getEntityClass(Searchable entity) {
+        return (Class<? extends Searchable>) Hibernate.getClass(entity);
+    }
+}
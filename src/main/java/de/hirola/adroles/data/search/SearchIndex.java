@@ -0,0 +1,147 @@
+package de.hirola.adroles.data.search;
+
+import de.hirola.adroles.data.entity.ADGroup;
+import de.hirola.adroles.data.entity.ADUser;
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Completes the index of the search texts, which is created by the migrations.
+ * <p>On Postgres the search texts are indexed by trigram indexes of the extension pg_trgm,
+ * a like search with wildcards at both ends can use them. On H2 the triggers of
+ * {@link H2SearchTrigger} write the tokens of the search texts, which are searched by prefix.
+ * Other databases search without index.</p>
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+@Component
+public class SearchIndex {
+    // the tables of the searchable entities
+    private static final List<String> TABLE_NAMES = List.of("person", "role", "aduser", "adgroup");
+    private static final List<Class<? extends Searchable>> ENTITY_CLASSES =
+            List.of(Person.class, Role.class, ADUser.class, ADGroup.class);
+    private static final int BATCH_SIZE = 500;
+    // above this count of matching tokens a scan of the search texts is faster
+    private static final int MAX_TOKEN_MATCHES = 1000;
+    private final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    private boolean usesTokens;
+
+    public SearchIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void createIndex() {
+        // the indexes and triggers are created by the migrations
+        usesTokens = hasTokenTriggers();
+        // entities saved by an older version have no search text
+        for (Class<? extends Searchable> entityClass : ENTITY_CLASSES) {
+            updateMissingSearchTexts(entityClass);
+        }
+        if (usesTokens) {
+            for (String tableName : TABLE_NAMES) {
+                Integer tokenCount = jdbcTemplate.queryForObject("select count(*) from search_token "
+                        + "where entity_type = ?", Integer.class, tableName);
+                if (Objects.requireNonNullElse(tokenCount, 0) == 0) {
+                    createTokens(tableName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the pattern to search the term in the tokens of the entities.
+     * The tokens are only used, if the term is selective. A term matching most of the entities,
+     * e.g. a common department name, is searched faster in the search texts.
+     *
+     * @param entityClass of the searched entities
+     * @param searchTerm entered in the filter
+     * @return the pattern or null, if the tokens are not used or the term is too short or too common
+     */
+    @Nullable
+    public String getTokenPattern(Class<? extends Searchable> entityClass, @Nullable String searchTerm) {
+        if (!usesTokens) {
+            return null;
+        }
+        String tokenPattern = SearchText.getTokenPattern(searchTerm);
+        if (tokenPattern == null) {
+            return null;
+        }
+        Integer matchCount = jdbcTemplate.queryForObject("select count(*) from (select 1 from search_token "
+                        + "where entity_type = ? and token like ? limit " + (MAX_TOKEN_MATCHES + 1) + ") t",
+                Integer.class, entityClass.getSimpleName().toLowerCase(Locale.ROOT), tokenPattern);
+        return Objects.requireNonNullElse(matchCount, 0) > MAX_TOKEN_MATCHES ? null : tokenPattern;
+    }
+
+    private boolean hasTokenTriggers() {
+        try {
+            List<String> triggerNames = jdbcTemplate.queryForList("select lower(trigger_name) "
+                    + "from information_schema.triggers", String.class);
+            return TABLE_NAMES.stream().allMatch(tableName -> triggerNames.contains(tableName + "_search_token"));
+        } catch (DataAccessException exception) {
+            logger.debug("Could not read the search triggers, searching without index.", exception);
+            return false;
+        }
+    }
+
+    private void updateMissingSearchTexts(Class<? extends Searchable> entityClass) {
+        int count;
+        do {
+            count = Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                List<? extends Searchable> entities = entityManager.createQuery("select e from "
+                                + entityClass.getSimpleName() + " e where e.searchText is null", entityClass)
+                        .setMaxResults(BATCH_SIZE)
+                        .getResultList();
+                entities.forEach(Searchable::updateSearchText);
+                return entities.size();
+            }), 0);
+        } while (count == BATCH_SIZE);
+    }
+
+    // the tokens are created in batches of entities, each batch in its own transaction
+    private void createTokens(String tableName) {
+        int lastId = Integer.MIN_VALUE;
+        List<Object[]> rows;
+        do {
+            rows = jdbcTemplate.query("select id, search_text from " + tableName
+                            + " where id > ? and search_text <> '' order by id limit " + BATCH_SIZE,
+                    (resultSet, rowNum) -> new Object[] {resultSet.getInt(1), resultSet.getString(2)}, lastId);
+            List<Object[]> batch = rows;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(
+                    (ConnectionCallback<Void>) connection -> {
+                        for (Object[] row : batch) {
+                            H2SearchTrigger.insertTokens(connection, tableName, (Integer) row[0], (String) row[1]);
+                        }
+                        return null;
+                    }));
+            if (!rows.isEmpty()) {
+                lastId = (Integer) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == BATCH_SIZE);
+    }
+}
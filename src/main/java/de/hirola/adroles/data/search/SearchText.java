@@ -0,0 +1,99 @@
+package de.hirola.adroles.data.search;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * Builds the search text of the entities and the patterns to search in it.
+ * The search text contains the searchable attributes in lower case, separated by spaces.
+ * On H2 the search text is split into tokens, the suffixes of the words.
+ * A word of the search term is found as prefix of a token, also inside a word.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public final class SearchText {
+    public static final int MIN_TOKEN_LENGTH = 3;
+    public static final int MAX_TOKEN_LENGTH = 64;
+    public static final int MAX_TEXT_LENGTH = 2048;
+
+    private SearchText() {
+    }
+
+    public static String of(String... values) {
+        String searchText = Arrays.stream(values)
+                .map(SearchText::normalize)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.joining(" "));
+        return searchText.length() > MAX_TEXT_LENGTH ? searchText.substring(0, MAX_TEXT_LENGTH) : searchText;
+    }
+
+    public static String normalize(@Nullable String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Get the like pattern to search the term in the search text.
+     *
+     * @param searchTerm entered in the filter, all entities match an empty term
+     * @return the pattern with escaped wildcards
+     */
+    public static String getSearchPattern(@Nullable String searchTerm) {
+        return "%" + escape(normalize(searchTerm)) + "%";
+    }
+
+    /**
+     * Get the like pattern to search the longest word of the term in the tokens.
+     *
+     * @param searchTerm entered in the filter
+     * @return the pattern or null, if the words are too short to use the tokens
+     */
+    @Nullable
+    public static String getTokenPattern(@Nullable String searchTerm) {
+        String longestWord = Arrays.stream(normalize(searchTerm).split(" "))
+                .reduce("", (word1, word2) -> word2.length() > word1.length() ? word2 : word1);
+        if (longestWord.length() < MIN_TOKEN_LENGTH) {
+            return null;
+        }
+        return escape(truncate(longestWord)) + "%";
+    }
+
+    /**
+     * Split the search text into tokens. The tokens are the suffixes of all words,
+     * so that a word of the search term is found at the start of a token.
+     *
+     * @param searchText of an entity
+     * @return the unique tokens
+     */
+    public static Set<String> getTokens(@Nullable String searchText) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : normalize(searchText).split(" ")) {
+            for (int beginIndex = 0; word.length() - beginIndex >= MIN_TOKEN_LENGTH; beginIndex++) {
+                tokens.add(truncate(word.substring(beginIndex)));
+            }
+        }
+        return tokens;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_TOKEN_LENGTH ? value.substring(0, MAX_TOKEN_LENGTH) : value;
+    }
+
+    private static String escape(String value) {
+        return Objects.requireNonNull(value)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package de.hirola.adroles.data.search;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * An entity with a search text, which is updated before the entity is saved.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+public interface Searchable {
+
+    Integer getId();
+
+    String getSearchText();
+
+    void updateSearchText();
+}
@@ -0,0 +1,145 @@
+package de.hirola.adroles.data.search;
+
+import java.util.*;
+
+/**
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ * <p>
+ * An in-memory index of the search texts of one entity type.
+ * <p>For each trigram of the search texts the index holds the sorted ids of the entities
+ * containing it. A term is searched by intersecting the id lists of its trigrams,
+ * the candidates are verified in their search texts. Terms shorter than a trigram
+ * are searched in the search texts.</p>
+ * <p>The index is not thread safe.</p>
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+final class TrigramIndex {
+    private static final int TRIGRAM_LENGTH = 3;
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+    private final Map<Integer, String> searchTexts = new HashMap<>();
+
+    void put(int id, String searchText) {
+        remove(id);
+        searchTexts.put(id, searchText);
+        for (long trigram : getTrigrams(searchText)) {
+            postingsByTrigram.computeIfAbsent(trigram, key -> new Postings()).add(id);
+        }
+    }
+
+    void remove(int id) {
+        String searchText = searchTexts.remove(id);
+        if (searchText == null) {
+            return;
+        }
+        for (long trigram : getTrigrams(searchText)) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                postingsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    int size() {
+        return searchTexts.size();
+    }
+
+    /**
+     * Search the ids of the entities containing the term.
+     *
+     * @param searchTerm normalized like the search texts
+     * @return the ids of the matching entities
+     */
+    Set<Integer> find(String searchTerm) {
+        Set<Integer> ids = new HashSet<>();
+        if (searchTerm.length() < TRIGRAM_LENGTH) {
+            searchTexts.forEach((id, searchText) -> {
+                if (searchText.contains(searchTerm)) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+        List<Postings> termPostings = new ArrayList<>();
+        for (long trigram : getTrigrams(searchTerm)) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings == null) {
+                return ids;
+            }
+            termPostings.add(postings);
+        }
+        // start with the shortest list, the candidates only get fewer
+        termPostings.sort(Comparator.comparingInt(postings -> postings.size));
+        Postings shortest = termPostings.get(0);
+        for (int index = 0; index < shortest.size; index++) {
+            int id = shortest.ids[index];
+            if (containsAll(termPostings, id) && searchTexts.get(id).contains(searchTerm)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static boolean containsAll(List<Postings> termPostings, int id) {
+        for (int index = 1; index < termPostings.size(); index++) {
+            if (!termPostings.get(index).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Long> getTrigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int index = 0; index + TRIGRAM_LENGTH <= text.length(); index++) {
+            trigrams.add(((long) text.charAt(index) << 32)
+                    | ((long) text.charAt(index + 1) << 16)
+                    | text.charAt(index + 2));
+        }
+        return trigrams;
+    }
+
+    // the sorted ids of the entities containing a trigram
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            // the ids are mostly added in ascending order
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insert(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package de.hirola.adroles.security;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.server.VaadinServletRequest;
+import de.hirola.adroles.Global;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +25,19 @@ public class SecurityService {
         return null;
     }
 
+    /**
+     * Get the name of the user of the current request.
+     *
+     * @return the name or {@link Global.LOGGING_VALUES#UNKNOWN_USER_STRING}, if not authenticated
+     */
+    public String getAuthenticatedUserName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            return Global.LOGGING_VALUES.UNKNOWN_USER_STRING;
+        }
+        return authentication.getName();
+    }
+
     public void logout() {
         UI.getCurrent().getPage().setLocation(LOGOUT_SUCCESS_URL);
         SecurityContextLogoutHandler logoutHandler = new SecurityContextLogoutHandler();
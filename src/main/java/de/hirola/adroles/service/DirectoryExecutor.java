@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs blocking per-object work, e.g. LDAP queries and the following database lookups, in parallel.
+ * <p>On a Java 21 runtime the work runs on virtual threads, on older runtimes on a fixed pool
+ * of platform threads. In both modes a semaphore limits the count of concurrent calls,
+ * so the domain controller and the database pool are not overloaded.</p>
+ * <p>The work is structured: the subtasks of {@link #invokeAll} belong to the call.
+ * If a subtask fails or the caller cancels, the remaining subtasks are cancelled before the call returns.</p>
+ */
+@Service
+public class DirectoryExecutor {
+    private final Logger logger = LoggerFactory.getLogger(DirectoryExecutor.class);
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R call(T item) throws Exception;
+    }
+
+    public DirectoryExecutor(@Value("${adroles.ldap.virtualThreads:true}") boolean useVirtualThreads,
+                             @Value("${adroles.ldap.maxConcurrency:8}") int maxConcurrency) {
+        int concurrency = Math.max(1, maxConcurrency);
+        permits = new Semaphore(concurrency);
+        ExecutorService virtualThreadExecutor = useVirtualThreads ? createVirtualThreadExecutor() : null;
+        if (virtualThreadExecutor != null) {
+            executor = virtualThreadExecutor;
+            virtualThreads = true;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "adroles-ldap-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            virtualThreads = false;
+        }
+        logger.debug("Directory calls run on " + (virtualThreads ? "virtual" : "platform")
+                + " threads with a maximum of " + concurrency + " concurrent calls.");
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Run the task for all items in parallel and wait for the results.
+     *
+     * @param items to process
+     * @param task to run for each item
+     * @param cancelled checked while waiting, e.g. {@link JobContext#isCancelled()}
+     * @return the results in the order of the items or null, if cancelled
+     * @throws ExecutionException if a task failed, the remaining tasks are cancelled
+     */
+    @Nullable
+    public <T, R> List<R> invokeAll(List<T> items, Task<T, R> task, BooleanSupplier cancelled)
+            throws ExecutionException, InterruptedException {
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return task.call(item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : futures) {
+                while (true) {
+                    if (cancelled.getAsBoolean()) {
+                        return null;
+                    }
+                    try {
+                        results.add(future.get(1, TimeUnit.SECONDS));
+                        break;
+                    } catch (TimeoutException exception) {
+                        // check the cancellation again
+                    }
+                }
+            }
+            return results;
+        } finally {
+            // no subtask outlives the scope
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            // available since Java 21, the app is compiled for older versions
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exception) {
+            logger.debug("Virtual threads are not available on this Java runtime, using platform threads.");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.shared.Registration;
+import de.hirola.adroles.util.ServiceEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the events of the services to the listeners of a UI (browser tab).
+ * <p>The events are delivered asynchronously on a bounded executor, so the publisher
+ * (e.g. an import) is never blocked by a slow session. If the executor is overloaded,
+ * the event is dropped.</p>
+ */
+@Service
+public class EventService {
+    private final Logger logger = LoggerFactory.getLogger(EventService.class);
+    private final Map<UI, List<ServiceEventListener>> listeners = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public EventService(@Value("${adroles.events.threads:2}") int threads,
+                        @Value("${adroles.events.queueCapacity:1000}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "adroles-event-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Register a listener for the events of the UI.
+     *
+     * @param ui of the session
+     * @param listener for the events
+     * @return the registration to remove the listener, e.g. if the view is detached
+     */
+    public Registration register(UI ui, ServiceEventListener listener) {
+        listeners.compute(ui, (key, uiListeners) -> {
+            if (uiListeners == null) {
+                uiListeners = new CopyOnWriteArrayList<>();
+            }
+            uiListeners.add(listener);
+            return uiListeners;
+        });
+        return () -> unregister(ui, listener);
+    }
+
+    /**
+     * Publish the event to the listeners of the UI only.
+     *
+     * @param ui the target of the event
+     * @param event to publish
+     */
+    public void publish(UI ui, ServiceEvent event) {
+        List<ServiceEventListener> uiListeners = listeners.get(ui);
+        if (uiListeners != null) {
+            deliver(ui, uiListeners, event);
+        }
+    }
+
+    /**
+     * Publish the event to the listeners of all UIs.
+     *
+     * @param event to publish
+     */
+    public void publishToAll(ServiceEvent event) {
+        listeners.forEach((ui, uiListeners) -> deliver(ui, uiListeners, event));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void unregister(UI ui, ServiceEventListener listener) {
+        listeners.computeIfPresent(ui, (key, uiListeners) -> {
+            uiListeners.remove(listener);
+            return uiListeners.isEmpty() ? null : uiListeners;
+        });
+    }
+
+    private void deliver(UI ui, List<ServiceEventListener> uiListeners, ServiceEvent event) {
+        try {
+            executor.execute(() -> {
+                try {
+                    // the command is queued, if the session is locked by another thread
+                    ui.access(() -> uiListeners.forEach(listener -> listener.onServiceEvent(event)));
+                } catch (UIDetachedException exception) {
+                    listeners.remove(ui);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            logger.debug("Too many pending events, event dropped: " + event.getServiceResult().resultMessage);
+        }
+    }
+}
@@ -8,26 +8,43 @@
 
 package de.hirola.adroles.service;
 
-import com.google.common.eventbus.EventBus;
 import com.imperva.ddc.core.Connector;
 import com.imperva.ddc.core.language.PhraseOperator;
 import com.imperva.ddc.core.language.QueryAssembler;
 import com.imperva.ddc.core.language.SentenceOperator;
 import com.imperva.ddc.core.query.*;
 import com.imperva.ddc.service.DirectoryConnectorService;
-import com.vaadin.flow.component.Component;
 import de.hirola.adroles.Global;
+import de.hirola.adroles.data.AbstractEntity;
+import de.hirola.adroles.data.AbstractVersionedEntity;
+import de.hirola.adroles.data.ReadWriteRoutingDataSource;
+import de.hirola.adroles.data.ReferenceDataCache;
 import de.hirola.adroles.data.entity.*;
+import de.hirola.adroles.data.projection.PersonDepartment;
+import de.hirola.adroles.data.projection.PersonRow;
+import de.hirola.adroles.data.projection.RoleRow;
+import de.hirola.adroles.data.search.MemorySearchIndex;
+import de.hirola.adroles.data.search.SearchIndex;
+import de.hirola.adroles.data.search.SearchText;
+import de.hirola.adroles.data.search.Searchable;
 import de.hirola.adroles.data.repository.*;
+import de.hirola.adroles.security.SecurityService;
 import de.hirola.adroles.util.ServiceResult;
-import de.hirola.adroles.util.ServiceEvent;
 import org.apache.directory.api.util.DateUtils;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
@@ -37,172 +54,108 @@ import java.nio.ByteOrder;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class IdentityService {
+    // the ids of a batch are bound to an in list of the delete statements
+    private static final int DELETE_BATCH_SIZE = 1000;
     private final Logger logger = LoggerFactory.getLogger(IdentityService.class);
-    private final EventBus eventBus = new EventBus();
-    private String sessionUserName;
-    private final Endpoint endpoint = new Endpoint();
-    private boolean isConnected;
-    private ActiveDirectory activeDirectory;
+    private final AtomicReference<DirectoryConnection> directoryConnection;
+    private final SecurityService securityService;
+    private final DirectoryExecutor directoryExecutor;
+    private final RoleMembershipRepository roleMembershipRepository;
+    private final SearchIndex searchIndex;
+    private final MemorySearchIndex memorySearchIndex;
+    private final StatisticsService statisticsService;
+    private final ReferenceDataCache referenceDataCache;
     private final ActiveDirectoryRepository activeDirectoryRepository;
     private  final PersonRepository personRepository;
     private  final RoleRepository roleRepository;
     private final RoleResourceRepository roleResourceRepository;
     private final ADUserRepository adUserRepository;
     private final ADGroupRepository adGroupRepository;
+    private final ImportCheckpointRepository importCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int importChunkSize;
 
     public IdentityService(ActiveDirectoryRepository activeDirectoryRepository,
                            PersonRepository personRepository,
                            RoleRepository roleRepository,
                            RoleResourceRepository roleResourceRepository,
                            ADUserRepository adUserRepository,
-                           ADGroupRepository adGroupRepository) {
+                           ADGroupRepository adGroupRepository,
+                           ImportCheckpointRepository importCheckpointRepository,
+                           PlatformTransactionManager transactionManager,
+                           SecurityService securityService,
+                           DirectoryExecutor directoryExecutor,
+                           RoleMembershipRepository roleMembershipRepository,
+                           SearchIndex searchIndex,
+                           MemorySearchIndex memorySearchIndex,
+                           StatisticsService statisticsService,
+                           ReferenceDataCache referenceDataCache,
+                           @Value("${adroles.import.chunkSize:100}") int importChunkSize) {
         this.activeDirectoryRepository = activeDirectoryRepository;
         this.personRepository = personRepository;
         this.roleRepository = roleRepository;
         this.roleResourceRepository = roleResourceRepository;
         this.adUserRepository = adUserRepository;
         this.adGroupRepository = adGroupRepository;
-        sessionUserName = Global.LOGGING_VALUES.UNKNOWN_USER_STRING;
+        this.importCheckpointRepository = importCheckpointRepository;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        this.importChunkSize = Math.max(1, importChunkSize);
+        this.securityService = securityService;
+        this.directoryExecutor = directoryExecutor;
+        this.roleMembershipRepository = roleMembershipRepository;
+        this.searchIndex = searchIndex;
+        this.memorySearchIndex = memorySearchIndex;
+        this.statisticsService = statisticsService;
+        this.referenceDataCache = referenceDataCache;
         // we manage only one AD
-        if (activeDirectoryRepository.count() == 1) {
-            activeDirectory = activeDirectoryRepository.findAll().get(0);
-            connect();
-        } else {
-            activeDirectory = new ActiveDirectory();
-        }
-    }
-
-    public void register(Component listener, String sessionUserName) {
-        eventBus.register(listener);
-        if (sessionUserName == null) {
-            return;
-        }
-        this.sessionUserName = sessionUserName;
-    }
-
-    public void unregister(Component listener) {
-        eventBus.unregister(listener);
+        directoryConnection = new AtomicReference<>(connect(loadActiveDirectory()));
     }
 
     public @Nullable RoleResource getRoleResource(int type) {
-        switch (type) {
-            case Global.ROLE_RESOURCE.ORG_ROLE -> {
-                Optional<RoleResource> optionalOrgResource = roleResourceRepository.getOrgResource();
-                if (optionalOrgResource.isPresent()) {
-                    return optionalOrgResource.get();
-                }
-                // createQueryRequest resource for org units
-                RoleResource orgRoleResource = new RoleResource();
-                orgRoleResource.setName(Global.ROLE_RESOURCE.ORG_RESOURCE_STRING);
-                orgRoleResource.setDescription(Global.ROLE_RESOURCE.ORG_RESOURCE_STRING);
-                orgRoleResource.setViewClassName("org-view");
-                orgRoleResource.setAddResourceTranslationKey("addOrg");
-                orgRoleResource.setDeleteResourcesTranslationKey("deleteOrg");
-                orgRoleResource.setOrgResource(true);
-                try {
-                    roleResourceRepository.save(orgRoleResource);
-                    logger.debug("Role resource for orgs created.");
-                    return orgRoleResource;
-                } catch (Exception exception) {
-                    logger.debug("Error while creating resource for orgs.", exception);
-                    return null;
-                }
-            }
-            case Global.ROLE_RESOURCE.PROJECT_ROLE -> {
-                Optional<RoleResource> optionalProjectResource = roleResourceRepository.getProjResource();
-                if (optionalProjectResource.isPresent()) {
-                    return optionalProjectResource.get();
-                }
-                // createQueryRequest resource for org units
-                RoleResource projRoleResource = new RoleResource();
-                projRoleResource.setName(Global.ROLE_RESOURCE.PROJECT_RESOURCE_STRING);
-                projRoleResource.setDescription(Global.ROLE_RESOURCE.PROJECT_RESOURCE_STRING);
-                projRoleResource.setViewClassName("project-view");
-                projRoleResource.setAddResourceTranslationKey("addProject");
-                projRoleResource.setDeleteResourcesTranslationKey("deleteProjects");
-                projRoleResource.setProjectResource(true);
-                try {
-                    roleResourceRepository.save(projRoleResource);
-                    logger.debug("Role resource for projects created.");
-                    return projRoleResource;
-                } catch (Exception exception) {
-                    logger.debug("Error while creating resource for projects.", exception);
-                    return null;
-                }
-            }
-            case Global.ROLE_RESOURCE.FILE_SHARE_ROLE -> {
-                Optional<RoleResource> optionalShareResource = roleResourceRepository.getFileShareResource();
-                if (optionalShareResource.isPresent()) {
-                    return optionalShareResource.get();
-                }
-                // createQueryRequest resource for file shares
-                RoleResource shareRoleResource = new RoleResource();
-                shareRoleResource.setName(Global.ROLE_RESOURCE.FILE_RESOURCE_STRING);
-                shareRoleResource.setDescription(Global.ROLE_RESOURCE.FILE_RESOURCE_STRING);
-                shareRoleResource.setViewClassName("fileShare-view");
-                shareRoleResource.setAddResourceTranslationKey("addFileShare");
-                shareRoleResource.setDeleteResourcesTranslationKey("deleteFileShares");
-                shareRoleResource.setFileShareResource(true);
-                try {
-                    roleResourceRepository.save(shareRoleResource);
-                    logger.debug("Role resource for file shares created.");
-                    return shareRoleResource;
-                } catch (Exception exception) {
-                    logger.debug("Error while creating resource for file shares.", exception);
-                    return null;
-                }
-            }
-            case Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE -> {
-                Optional<RoleResource> optionalEmailResource = roleResourceRepository.getEmailResource();
-                if (optionalEmailResource.isPresent()) {
-                    return optionalEmailResource.get();
-                }
-                // createQueryRequest resource for email resources
-                RoleResource emailRoleResource = new RoleResource();
-                emailRoleResource.setName(Global.ROLE_RESOURCE.EMAIL_RESOURCE_STRING);
-                emailRoleResource.setDescription(Global.ROLE_RESOURCE.EMAIL_RESOURCE_STRING);
-                emailRoleResource.setViewClassName("email-view");
-                emailRoleResource.setAddResourceTranslationKey("addEmailRole");
-                emailRoleResource.setDeleteResourcesTranslationKey("deleteEmailRoles");
-                emailRoleResource.setEmailResource(true);
-                try {
-                    roleResourceRepository.save(emailRoleResource);
-                    logger.debug("Role resource for file shares created.");
-                    return emailRoleResource;
-                } catch (Exception exception) {
-                    logger.debug("Error while creating resource for e-mail.", exception);
-                    return null;
-                }
-            }
-            default -> {
-                Optional<RoleResource> optionalResource = roleResourceRepository.getDefaultResource();
-                if (optionalResource.isPresent()) {
-                    return optionalResource.get();
-                }
-                // createQueryRequest resource for org units
-                RoleResource defaultRoleResource = new RoleResource();
-                defaultRoleResource.setName(Global.ROLE_RESOURCE.ROLE_RESOURCE_STRING);
-                defaultRoleResource.setDescription(Global.ROLE_RESOURCE.ROLE_RESOURCE_STRING);
-                defaultRoleResource.setViewClassName("role-view");
-                defaultRoleResource.setAddResourceTranslationKey("addRole");
-                defaultRoleResource.setDeleteResourcesTranslationKey("deleteRole");
-                defaultRoleResource.setDefaultResource();
-                try {
-                    roleResourceRepository.save(defaultRoleResource);
-                    logger.debug("Standard role resource created.");
-                    return defaultRoleResource;
-                } catch (Exception exception) {
-                    logger.debug("Error while creating default resource for roles.", exception);
-                    return null;
-                }
-            }
+        Optional<RoleResource> optionalRoleResource = roleResourceRepository.findFirstByResourceTypeOrderByIdAsc(type);
+        if (optionalRoleResource.isPresent()) {
+            return optionalRoleResource.get();
+        }
+        // create the predefined resources
+        RoleResource roleResource = switch (type) {
+            case Global.ROLE_RESOURCE.ORG_ROLE -> createRoleResource(type,
+                    Global.ROLE_RESOURCE.ORG_RESOURCE_STRING, "org-view", "addOrg", "deleteOrg");
+            case Global.ROLE_RESOURCE.PROJECT_ROLE -> createRoleResource(type,
+                    Global.ROLE_RESOURCE.PROJECT_RESOURCE_STRING, "project-view", "addProject", "deleteProjects");
+            case Global.ROLE_RESOURCE.FILE_SHARE_ROLE -> createRoleResource(type,
+                    Global.ROLE_RESOURCE.FILE_RESOURCE_STRING, "fileShare-view", "addFileShare", "deleteFileShares");
+            case Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE -> createRoleResource(type,
+                    Global.ROLE_RESOURCE.EMAIL_RESOURCE_STRING, "email-view", "addEmailRole", "deleteEmailRoles");
+            case Global.ROLE_RESOURCE.DEFAULT_ROLE -> createRoleResource(type,
+                    Global.ROLE_RESOURCE.ROLE_RESOURCE_STRING, "role-view", "addRole", "deleteRole");
+            default -> null;
+        };
+        if (roleResource == null) {
+            // a type defined by the user without resource shows all roles
+            return getRoleResource(Global.ROLE_RESOURCE.DEFAULT_ROLE);
+        }
+        try {
+            roleResourceRepository.save(roleResource);
+            logger.debug("Role resource \"" + roleResource.getName() + "\" created.");
+            return roleResource;
+        } catch (Exception exception) {
+            logger.debug("Error while creating role resource \"" + roleResource.getName() + "\".", exception);
+            return null;
         }
     }
 
@@ -210,31 +163,37 @@ public class IdentityService {
         return roleResourceRepository.findAll();
     }
 
+    /**
+     * Get the configuration of the Active Directory.
+     * Every call returns a new object, changes are applied with {@link #saveActiveDirectory(ActiveDirectory)}.
+     *
+     * @return the configuration or a new object, if no Active Directory is configured
+     */
     public ActiveDirectory getActiveDirectory() {
-        return activeDirectory;
+        ActiveDirectory activeDirectory = loadActiveDirectory();
+        return activeDirectory == null ? new ActiveDirectory() : activeDirectory;
     }
 
     public void saveActiveDirectory(ActiveDirectory activeDirectory) {
         // if there is no configuration for AD
         if (activeDirectoryRepository.count() == 0) {
-            this.activeDirectory = activeDirectory;
             activeDirectoryRepository.save(activeDirectory);
-            return;
-        }
-        // we manage only one AD
-        Optional<ActiveDirectory> activeDirectoryOptional = activeDirectoryRepository.findById(activeDirectory.getId());
-        if (activeDirectoryOptional.isPresent()) {
+        } else {
+            // we manage only one AD
+            Optional<ActiveDirectory> activeDirectoryOptional = activeDirectoryRepository.findById(activeDirectory.getId());
+            if (activeDirectoryOptional.isEmpty()) {
+                return;
+            }
             activeDirectoryRepository.save(activeDirectory);
         }
+        // the settings are cached, all views get the saved settings
+        referenceDataCache.evictAll();
+        // the next request connects with the changed configuration
+        directoryConnection.set(new DirectoryConnection(createEndpoint(activeDirectory), false));
     }
 
     public ServiceResult verifyConnection(@NotNull ActiveDirectory activeDirectory) {
-        endpoint.setSecuredConnection(activeDirectory.useSecureConnection());
-        endpoint.setPort((int) activeDirectory.getPort());
-        endpoint.setHost(activeDirectory.getIPAddress());
-        endpoint.setUserAccountName(activeDirectory.getConnectionUserName());
-        // decrypt password
-        endpoint.setPassword(activeDirectory.getEncryptedConnectionPassword());
+        Endpoint endpoint = createEndpoint(activeDirectory);
         final ConnectionResponse connectionResponse = DirectoryConnectorService.authenticate(endpoint);
         Map<String, Status> statuses = connectionResponse.getStatuses();
         StringBuilder resultMessage = new StringBuilder();
@@ -251,27 +210,25 @@ public class IdentityService {
     }
 
     public boolean isConnected() {
-        if (!isConnected) {
-            isConnected = connect();
-        }
-        return isConnected;
+        return getConnectedEndpoint() != null;
     }
 
-    public List<Person> findAllPersons(@Nullable String stringFilter) {
-        if (stringFilter == null || stringFilter.isEmpty()) {
-            Sort.Order order = new Sort.Order(Sort.Direction.ASC, "lastName").ignoreCase();
-            return personRepository.findAll(Sort.by(order));
-        } else {
-            return personRepository.search(stringFilter);
-        }
+    public List<Person> findAllPersons() {
+        Sort.Order order = new Sort.Order(Sort.Direction.ASC, "lastName").ignoreCase();
+        return personRepository.findAll(Sort.by(order));
     }
 
-    public List<Person> findAllEmployees(@Nullable String stringFilter) {
-        if (stringFilter == null || stringFilter.isEmpty()) {
-            return personRepository.findByIsEmployeeTrueOrderByLastNameAscFirstNameAsc();
-        } else {
-            return personRepository.searchEmployees(stringFilter);
-        }
+    /**
+     * Load the person with the AD users and the roles, e.g. for the edit and assign forms.
+     * The grids show only rows of the persons. The person is loaded from the primary database,
+     * so the form edits the last saved version and not an older one of the replica.
+     *
+     * @param personId of the person to load
+     * @return the person with the relations or null, if the person not exists
+     */
+    @Nullable
+    public Person findPersonWithRelations(Integer personId) {
+        return findOnPrimary(() -> personRepository.findWithRelationsById(personId).orElse(null));
     }
 
     public List<Person> findAllPersonsWithDepartmentName(String departmentName) {
@@ -283,55 +240,176 @@ public class IdentityService {
         }
     }
 
-    public List<Role> findAllRoles(@Nullable String stringFilter, @Nullable RoleResource roleResource) {
-        if ((stringFilter != null && !stringFilter.isEmpty()) && roleResource != null) {
-            if (roleResource.isOrgResource()) {
-                return roleRepository.searchOrg(stringFilter);
-            } else if (roleResource.isProjectResource()) {
-                return roleRepository.searchProject(stringFilter);
-            } else if (roleResource.isFileShareResource()) {
-                return roleRepository.searchFileShare(stringFilter);
-            } else if (roleResource.isEmailResource()) {
-                return roleRepository.searchMailResource(stringFilter);
-            }
-            return roleRepository.search(stringFilter);
-        }
-        if ((stringFilter == null || stringFilter.isEmpty()) && roleResource != null) {
-            if (roleResource.isOrgResource()) {
-                return roleRepository.findByRoleResource_IsOrgResourceTrueOrderByNameAsc();
-            } else if (roleResource.isProjectResource()) {
-                return roleRepository.findByRoleResource_IsProjectResourceTrueOrderByNameAsc();
-            } else if (roleResource.isFileShareResource()) {
-                return roleRepository.findByRoleResource_IsFileShareResourceTrueOrderByNameAsc();
-            } else if (roleResource.isEmailResource()) {
-                return roleRepository.findByRoleResource_IsEmailResourceTrueOrderByNameAsc();
-            }
-        }
-        if (stringFilter != null && !stringFilter.isEmpty()) {
-            return roleRepository.search(stringFilter);
-        }
+    public List<Role> findAllRoles() {
         Sort.Order order = new Sort.Order(Sort.Direction.ASC, "name").ignoreCase();
         return roleRepository.findAll(Sort.by(order));
     }
 
-    public List<ADUser> findAllADUsers(@Nullable String value) {
-        if (value == null || value.isEmpty()) {
-            return adUserRepository.findAll(Sort.by(Sort.Direction.ASC, "logonName"));
-        } else {
-            return adUserRepository.search(value);
+    /**
+     * Load the role with the persons, AD users and AD groups, e.g. for the edit and assign forms.
+     * The collections are loaded with separate queries in one transaction,
+     * so the rows are not multiplied by a join over all relations.
+     * The role is loaded from the primary database like the persons.
+     *
+     * @param roleId of the role to load
+     * @return the role with the relations or null, if the role not exists
+     */
+    @Nullable
+    public Role findRoleWithRelations(Integer roleId) {
+        return findOnPrimary(() -> {
+            Optional<Role> optionalRole = roleRepository.findWithRelationsById(roleId);
+            if (optionalRole.isEmpty()) {
+                return null;
+            }
+            Role roleWithRelations = optionalRole.get();
+            Hibernate.initialize(roleWithRelations.getADUsers());
+            Hibernate.initialize(roleWithRelations.getADGroups());
+            return roleWithRelations;
+        });
+    }
+
+    // the routing must be set before the transaction gets its connection
+    @Nullable
+    private <T> T findOnPrimary(Supplier<T> loader) {
+        try {
+            return ReadWriteRoutingDataSource.onPrimary(() -> readOnlyTransactionTemplate.execute(status ->
+                    loader.get()));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
         }
     }
 
+    public List<ADUser> findAllADUsers() {
+        return adUserRepository.findAll(Sort.by(Sort.Direction.ASC, "logonName"));
+    }
+
     public List<ADUser> findAllManageableADUsers() {
         return adUserRepository.findByIsRoleManagedTrueOrderByLogonNameAsc();
     }
 
-    public List<ADGroup> findAllADGroups(@Nullable String value) {
-        if (value == null || value.isEmpty()) {
-            return adGroupRepository.findAll(Sort.by(Sort.Direction.ASC, "name"));
-        } else {
-            return adGroupRepository.search(value);
-        }
+    public List<ADGroup> findAllADGroups() {
+        return adGroupRepository.findAll(Sort.by(Sort.Direction.ASC, "name"));
+    }
+
+    /**
+     * Load a page of person rows for a grid. Filter and sort order are applied by the database,
+     * the filter is searched with the search index.
+     * <p>The rows are read from the replica, if one is configured. A grid refreshed right after
+     * a save may show the row before the change, until the replica has caught up.
+     * The forms load the entities from the primary database.</p>
+     *
+     * @param stringFilter to search in names, department, description and email address
+     * @param employeesOnly true, if only employees should be loaded
+     * @param pageable with page, size and sort order of the grid
+     * @return the rows of the page
+     */
+    @Transactional(readOnly = true)
+    public List<PersonRow> findPersons(@Nullable String stringFilter, boolean employeesOnly, Pageable pageable) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(Person.class, stringFilter);
+        pageable = withDefaultSort(pageable, "lastName", "firstName");
+        if (tokenPattern == null) {
+            return personRepository.findByFilter(searchPattern, employeesOnly, pageable);
+        }
+        return personRepository.findByToken(searchPattern, tokenPattern, employeesOnly, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPersons(@Nullable String stringFilter, boolean employeesOnly) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(Person.class, stringFilter);
+        if (tokenPattern == null) {
+            return personRepository.countByFilter(searchPattern, employeesOnly);
+        }
+        return personRepository.countByToken(searchPattern, tokenPattern, employeesOnly);
+    }
+
+    /**
+     * Load a page of role rows for a grid. Filter and sort order are applied by the database,
+     * the filter is searched with the search index.
+     * <p>The rows are read from the replica like the person rows.</p>
+     *
+     * @param stringFilter to search in name and description
+     * @param roleResource of the roles, all roles are loaded for null or the default resource
+     * @param pageable with page, size and sort order of the grid
+     * @return the rows of the page
+     */
+    @Transactional(readOnly = true)
+    public List<RoleRow> findRoles(@Nullable String stringFilter, @Nullable RoleResource roleResource,
+                                   Pageable pageable) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(Role.class, stringFilter);
+        Integer roleResourceId = getRoleResourceId(roleResource);
+        pageable = withDefaultSort(pageable, "name");
+        if (tokenPattern == null) {
+            return roleRepository.findByFilter(searchPattern, roleResourceId, pageable);
+        }
+        return roleRepository.findByToken(searchPattern, tokenPattern, roleResourceId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countRoles(@Nullable String stringFilter, @Nullable RoleResource roleResource) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(Role.class, stringFilter);
+        Integer roleResourceId = getRoleResourceId(roleResource);
+        if (tokenPattern == null) {
+            return roleRepository.countByFilter(searchPattern, roleResourceId);
+        }
+        return roleRepository.countByToken(searchPattern, tokenPattern, roleResourceId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ADUser> findADUsers(@Nullable String stringFilter, Pageable pageable) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(ADUser.class, stringFilter);
+        pageable = withDefaultSort(pageable, "logonName");
+        if (tokenPattern == null) {
+            return adUserRepository.findByFilter(searchPattern, pageable);
+        }
+        return adUserRepository.findByToken(searchPattern, tokenPattern, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countADUsers(@Nullable String stringFilter) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(ADUser.class, stringFilter);
+        if (tokenPattern == null) {
+            return adUserRepository.countByFilter(searchPattern);
+        }
+        return adUserRepository.countByToken(searchPattern, tokenPattern);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ADGroup> findADGroups(@Nullable String stringFilter, Pageable pageable) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(ADGroup.class, stringFilter);
+        pageable = withDefaultSort(pageable, "name");
+        if (tokenPattern == null) {
+            return adGroupRepository.findByFilter(searchPattern, pageable);
+        }
+        return adGroupRepository.findByToken(searchPattern, tokenPattern, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countADGroups(@Nullable String stringFilter) {
+        String searchPattern = SearchText.getSearchPattern(stringFilter);
+        String tokenPattern = searchIndex.getTokenPattern(ADGroup.class, stringFilter);
+        if (tokenPattern == null) {
+            return adGroupRepository.countByFilter(searchPattern);
+        }
+        return adGroupRepository.countByToken(searchPattern, tokenPattern);
+    }
+
+    /**
+     * Search the entities in memory, e.g. for the assign forms filtering on each keystroke.
+     *
+     * @param entityClass of the searched entities
+     * @param stringFilter to search in the search texts of the entities
+     * @return the ids of the matching entities or null, if the filter is empty and all entities match
+     */
+    @Nullable
+    public Set<Integer> findMatchingIds(Class<? extends Searchable> entityClass, @Nullable String stringFilter) {
+        return memorySearchIndex.findIds(entityClass, stringFilter);
     }
 
     public List<ADGroup> findAllADGroupsForPersons(Set<Person> persons) {
@@ -339,15 +417,16 @@ public class IdentityService {
         if (persons == null) {
             return assignedADGroups;
         }
-        for (Person person: persons) {
-            // get the assigned ad users
-            Set<ADUser> personAccountList = person.getADUsers();
-            for (ADUser adUser: personAccountList) {
-                // get the assigned ad groups
-                List<ADGroup> adGroups = getADGroupsForUser(adUser);
-                // add as possible ad group for the role
-                assignedADGroups.addAll(adGroups);
-            }
+        // get the assigned ad users
+        List<Integer> personIds = persons.stream().map(Person::getId).filter(Objects::nonNull).toList();
+        if (personIds.isEmpty()) {
+            return assignedADGroups;
+        }
+        for (ADUser adUser: adUserRepository.findByPerson_IdIn(personIds)) {
+            // get the assigned ad groups
+            List<ADGroup> adGroups = getADGroupsForUser(adUser);
+            // add as possible ad group for the role
+            assignedADGroups.addAll(adGroups);
         }
         return assignedADGroups;
     }
@@ -357,19 +436,10 @@ public class IdentityService {
     }
 
     public long countRoles(@Nullable RoleResource roleResource) {
-        if (roleResource == null) {
+        if (roleResource == null || roleResource.getResourceType() == Global.ROLE_RESOURCE.DEFAULT_ROLE) {
             return roleRepository.count();
         }
-        if (roleResource.isOrgResource()) {
-            return roleRepository.countByRoleResource_IsOrgResourceTrue();
-        }
-        if (roleResource.isProjectResource()) {
-            return roleRepository.countByRoleResource_IsProjectResourceTrue();
-        }
-        if (roleResource.isFileShareResource()) {
-            return roleRepository.countByRoleResource_IsFileShareResourceTrue();
-        }
-        return roleRepository.count();
+        return roleRepository.countByRoleResource_ResourceType(roleResource.getResourceType());
     }
 
     public long countPersons() {
@@ -392,269 +462,392 @@ public class IdentityService {
         return adUserRepository.countByPasswordExpiresFalse();
     }
 
-    public boolean updatePersonsFromAD() {
+    public ServiceResult updatePersonsFromAD(JobContext context) {
+        String actor = context.getStartedBy();
         try {
-            int added = 0, updated = 0;
             // load accounts from AD
             List<EntityResponse> responses = getADUserEntities();
+            if (responses == null) {
+                return new ServiceResult(false, "Update persons from AD failed. The users could not be loaded.");
+            }
+            ImportCheckpoint checkpoint = loadCheckpoint(Global.JOB_TYPE.UPDATE_PERSONS);
             // createQueryRequest / update AD user from response
             // we need the accounts first to link with persons
-            for (EntityResponse response : responses) {
-                boolean[] returnValues = createOrUpdateADUser(response);
-                if (returnValues[0]) {
-                    added++;
-                }
-                if (returnValues[1]) {
-                    updated++;
-                }
+            int[] counts = processInChunks(context, checkpoint, Global.IMPORT_PHASE.AD_USERS,
+                    responses, this::getObjectSID, response -> createOrUpdateADUser(response, actor));
+            if (counts == null) {
+                return new ServiceResult(false, "Update persons from AD cancelled.");
             }
-            added = 0;
-            updated = 0;
-            addLogEntry(added + " users added, " + updated + " users updated from AD");
+            addLogEntry(actor, counts[0] + " users added, " + counts[1] + " users updated from AD");
             // createQueryRequest / update persons from response
-            for (EntityResponse response : responses) {
-                boolean[] returnValues = createOrUpdatePerson(response);
-                if (returnValues[0]) {
-                    added++;
-                }
-                if (returnValues[1]) {
-                    updated++;
-                }
+            counts = processInChunks(context, checkpoint, Global.IMPORT_PHASE.PERSONS,
+                    responses, this::getObjectSID, response -> createOrUpdatePerson(response, actor));
+            if (counts == null) {
+                return new ServiceResult(false, "Update persons from AD cancelled.");
             }
-            // TODO: Logging
-            addLogEntry(added + " persons added, " + updated + " persons updated");
+            String resultMessage = counts[0] + " persons added, " + counts[1] + " persons updated";
+            addLogEntry(actor, resultMessage);
             // link AD accounts with persons
-            List<Person> persons = findAllPersons(null);
-            List<ADUser> adUsers = findAllADUsers(null);
-            for (Person person: persons) {
-                String accountName = person.getCentralAccountName();
-                // search in AD accounts for login name
-                for (ADUser adUser:adUsers) {
-                    if (adUser.getLogonName().equalsIgnoreCase(accountName)) {
-                        person.addADUser(adUser);
-                        personRepository.save(person);
-                    }
-                }
+            if (linkADUsersWithPersons(context, checkpoint) == null) {
+                return new ServiceResult(false, "Update persons from AD cancelled.");
             }
-            return true;
+            deleteCheckpoint(checkpoint);
+            return new ServiceResult(true, withFailedCount(resultMessage, context));
         } catch (Exception exception) {
             logger.debug("Update persons from AD failed: " + exception.getMessage());
-            return false;
+            return new ServiceResult(false, "Update persons from AD failed: " + exception.getMessage());
         }
     }
 
-    public boolean updateUserFromAD() {
+    /**
+     * Link the persons with the AD users with their central account name as logon name.
+     * The links are written with bulk updates, the persons and AD users are loaded
+     * outside the transactions of the chunks. Persons without central account name,
+     * e.g. created in the form, are skipped.
+     *
+     * @return the count of added and updated entries or null, if the import was cancelled
+     */
+    @Nullable
+    int[] linkADUsersWithPersons(JobContext context, ImportCheckpoint checkpoint) {
+        List<Person> persons = findAllPersons().stream()
+                .filter(person -> person.getCentralAccountName() != null && !person.getCentralAccountName().isEmpty())
+                .toList();
+        Map<String, ADUser> adUsersByLogonName = new HashMap<>();
+        for (ADUser adUser : findAllADUsers()) {
+            if (adUser.getLogonName() != null) {
+                adUsersByLogonName.putIfAbsent(adUser.getLogonName().toLowerCase(Locale.ROOT), adUser);
+            }
+        }
+        return processInChunks(context, checkpoint, Global.IMPORT_PHASE.LINK_AD_USERS,
+                persons, this::getCheckpointKey, person -> {
+                    // search in AD accounts for login name
+                    ADUser adUser = adUsersByLogonName.get(person.getCentralAccountName().toLowerCase(Locale.ROOT));
+                    if (adUser != null) {
+                        // the version of the AD user changes only, if it was linked with another person
+                        adUserRepository.updatePerson(adUser.getId(), personRepository.getById(person.getId()));
+                    }
+                    return new boolean[2];
+                });
+    }
+
+    public ServiceResult updateUserFromAD(JobContext context) {
+        String actor = context.getStartedBy();
         try {
-            int added = 0, updated = 0;
             // load accounts from AD
             List<EntityResponse> responses = getADUserEntities();
+            if (responses == null) {
+                return new ServiceResult(false, "Update users from AD failed. The users could not be loaded.");
+            }
+            ImportCheckpoint checkpoint = loadCheckpoint(Global.JOB_TYPE.UPDATE_AD_USERS);
             // createQueryRequest / update AD accounts from response
             // we need the accounts first to link with persons and ad groups
-            for (EntityResponse response : responses) {
-                boolean[] returnValues = createOrUpdateADUser(response);
-                if (returnValues[0]) {
-                    added++;
-                }
-                if (returnValues[1]) {
-                    updated++;
-                }
+            int[] counts = processInChunks(context, checkpoint, Global.IMPORT_PHASE.AD_USERS,
+                    responses, this::getObjectSID, response -> createOrUpdateADUser(response, actor));
+            if (counts == null) {
+                return new ServiceResult(false, "Update users from AD cancelled.");
             }
-            addLogEntry(added + " users added, " + updated + " users updated from AD");
-            return true;
+            deleteCheckpoint(checkpoint);
+            String resultMessage = counts[0] + " users added, " + counts[1] + " users updated from AD";
+            addLogEntry(actor, resultMessage);
+            return new ServiceResult(true, withFailedCount(resultMessage, context));
         } catch (Exception exception) {
             logger.debug("Update users from AD failed.", exception);
-            return false;
+            return new ServiceResult(false, "Update users from AD failed: " + exception.getMessage());
         }
     }
 
-    public boolean updateGroupsFromAD() {
+    public ServiceResult updateGroupsFromAD(JobContext context) {
+        String actor = context.getStartedBy();
         try {
-            int added = 0, updated = 0;
             // load groups from AD
             List<EntityResponse> responses = getADGroupEntities();
+            if (responses == null) {
+                return new ServiceResult(false, "Update groups from AD failed. The groups could not be loaded.");
+            }
+            ImportCheckpoint checkpoint = loadCheckpoint(Global.JOB_TYPE.UPDATE_AD_GROUPS);
             // createQueryRequest / update AD groups from response
             // if AD users available - link by membership
-            for (EntityResponse response : responses) {
-                boolean[] returnValues = createOrUpdateADGroup(response);
-                if (returnValues[0]) {
-                    added++;
-                }
-                if (returnValues[1]) {
-                    updated++;
-                }
+            int[] counts = processInChunks(context, checkpoint, Global.IMPORT_PHASE.AD_GROUPS,
+                    responses, this::getObjectSID, response -> createOrUpdateADGroup(response, actor));
+            if (counts == null) {
+                return new ServiceResult(false, "Update groups from AD cancelled.");
             }
-            addLogEntry(added + " groups added, " + updated + " groups updated from AD");
-            return true;
+            deleteCheckpoint(checkpoint);
+            String resultMessage = counts[0] + " groups added, " + counts[1] + " groups updated from AD";
+            addLogEntry(actor, resultMessage);
+            return new ServiceResult(true, withFailedCount(resultMessage, context));
         } catch (Exception exception) {
             logger.debug("Updateing groups from AD failed.", exception);
-            return false;
+            return new ServiceResult(false, "Update groups from AD failed: " + exception.getMessage());
         }
     }
 
-    @Transactional
-    public boolean updateOrgRolesFromPersons() {
-        Optional<RoleResource> optionalResource = roleResourceRepository.getOrgResource();
-        RoleResource orgRoleRoleResource;
-        if (optionalResource.isPresent()) {
-            orgRoleRoleResource = optionalResource.get();
-        } else {
-            // try to createQueryRequest the role resource for org
-            if ((orgRoleRoleResource = getRoleResource(Global.ROLE_RESOURCE.ORG_ROLE)) == null){
-                logger.debug("Update organisations from persons failed. There are no organisations resource.");
-                return false;
-            }
+    public ServiceResult updateOrgRolesFromPersons(JobContext context) {
+        String actor = context.getStartedBy();
+        // the role resource for org is created, if not exists
+        RoleResource orgRoleRoleResource = getRoleResource(Global.ROLE_RESOURCE.ORG_ROLE);
+        if (orgRoleRoleResource == null) {
+            String resultMessage = "Update organisations from persons failed. There are no organisations resource.";
+            logger.debug(resultMessage);
+            return new ServiceResult(false, resultMessage);
         }
         try {
-            // try to createQueryRequest org units from person attribute department
-            int updatedOrgRolesCount = 0;
-            List<String> departmentNames = getUniqueDepartmentNames();
-            List<Role> allRoles = findAllRoles(null, null);
-            for (Role role: allRoles) {
-                String departmentName = role.getName();
-                if (departmentNames.contains(departmentName)) {
-                    // set as organisation role
-                    role.setRoleResource(orgRoleRoleResource);
-                    roleRepository.save(role);
-                    departmentNames.remove(departmentName); // remove from list
-                    addLogEntry("Existing Role \"" + role.getName() + "\" updated as organisation role.");
+            ImportCheckpoint checkpoint = loadCheckpoint(Global.JOB_TYPE.UPDATE_ORG_ROLES);
+            // try to create org units from person attribute department,
+            // the names of departments and roles are compared case-insensitive
+            Map<String, String> departmentNames = new HashMap<>();
+            for (String departmentName : getUniqueDepartmentNames()) {
+                if (departmentName != null && !departmentName.isEmpty()) {
+                    departmentNames.putIfAbsent(departmentName.toLowerCase(Locale.ROOT), departmentName);
                 }
             }
-            // add roles for remaining department names
-            for (String departmentName: departmentNames) {
-                Role orgRole = new Role();
-                orgRole.setRoleResource(orgRoleRoleResource);
-                orgRole.setName(departmentName);
-                orgRole.setDescription(Global.IMPORT_SETTINGS.DEFAULT_IMPORT_TEXT);
-                roleRepository.save(orgRole);
-                addLogEntry("Role \"" + orgRole.getName() + "\" added as organisation role.");
-                updatedOrgRolesCount++;
+            Map<String, Integer> roleIdsByName = new HashMap<>();
+            roleRepository.findAllProjectedBy().forEach(role ->
+                    roleIdsByName.putIfAbsent(role.getName().toLowerCase(Locale.ROOT), role.getId()));
+            Set<Integer> orgRoleIds = new HashSet<>();
+            roleRepository.findProjectedByRoleResource_ResourceType(Global.ROLE_RESOURCE.ORG_ROLE)
+                    .forEach(orgRole -> orgRoleIds.add(orgRole.getId()));
+            int[] counts = processChunks(context, checkpoint, Global.IMPORT_PHASE.ORG_ROLES,
+                    new ArrayList<>(departmentNames.entrySet()), Map.Entry::getKey, departments -> {
+                        List<Integer> existingRoleIds = new ArrayList<>();
+                        List<Role> orgRoles = new ArrayList<>();
+                        for (Map.Entry<String, String> department : departments) {
+                            Integer roleId = roleIdsByName.get(department.getKey());
+                            if (roleId != null) {
+                                if (orgRoleIds.contains(roleId)) {
+                                    continue; // already an organisation role
+                                }
+                                // set as organisation role
+                                existingRoleIds.add(roleId);
+                                addLogEntry(actor, "Existing Role \"" + department.getValue()
+                                        + "\" updated as organisation role.");
+                            } else {
+                                // add role for the department name
+                                Role orgRole = new Role();
+                                orgRole.setRoleResource(orgRoleRoleResource);
+                                orgRole.setName(department.getValue());
+                                orgRole.setDescription(Global.IMPORT_SETTINGS.DEFAULT_IMPORT_TEXT);
+                                orgRoles.add(orgRole);
+                                addLogEntry(actor, "Role \"" + orgRole.getName() + "\" added as organisation role.");
+                            }
+                        }
+                        // only the roles which are no organisation role yet are updated
+                        int updatedCount = existingRoleIds.isEmpty() ? 0
+                                : roleRepository.updateRoleResource(orgRoleRoleResource, existingRoleIds);
+                        roleRepository.saveAll(orgRoles);
+                        return new int[] {orgRoles.size(), updatedCount};
+                    });
+            if (counts == null) {
+                return new ServiceResult(false, "Update organisations from persons cancelled.");
             }
+            int updatedOrgRolesCount = counts[0] + counts[1];
             logger.debug(updatedOrgRolesCount + " organizations added or updated from persons");
 
             // set employee flag for persons with equal name of department
             // set managed flag for AD user of this persons
-            List<Person> possibleEmployees = personRepository.findAll();
-            List<Role> orgRoles = roleRepository.findByRoleResource_IsOrgResourceTrueOrderByNameAsc();
-            for (Person employee: possibleEmployees) {
-                String departmentName = employee.getDepartmentName();
-                for (Role orgRole: orgRoles) {
-                    if (orgRole.getName().equalsIgnoreCase(departmentName)) {
-
-                        // set the assigner AD users as managed
-                        Set<ADUser> adUsers = employee.getADUsers();
-                        for (ADUser adUser: adUsers) {
-                            adUser.setRoleManaged(true);
-                            adUserRepository.save(adUser);
+            Map<String, Integer> orgRoleIdsByName = new HashMap<>();
+            roleRepository.findProjectedByRoleResource_ResourceType(Global.ROLE_RESOURCE.ORG_ROLE)
+                    .forEach(orgRole -> orgRoleIdsByName.putIfAbsent(
+                            orgRole.getName().toLowerCase(Locale.ROOT), orgRole.getId()));
+            List<PersonDepartment> employees = personRepository.findAllDepartments().stream()
+                    .filter(person -> orgRoleIdsByName.containsKey(
+                            person.getDepartmentName().toLowerCase(Locale.ROOT)))
+                    .toList();
+            counts = processChunks(context, checkpoint, Global.IMPORT_PHASE.EMPLOYEES,
+                    employees, employee -> getCheckpointKey(employee.getId()), chunk -> {
+                        List<Integer> employeeIds = chunk.stream().map(PersonDepartment::getId).toList();
+                        // the versions of unchanged rows stay, so open forms can still be saved
+                        int updatedCount = personRepository.updateEmployee(true, employeeIds);
+                        adUserRepository.updateRoleManagedTrueByPersonIds(employeeIds);
+                        // add persons as employee to the org role
+                        Set<RoleMembershipRepository.RoleMember> rolePersons =
+                                roleMembershipRepository.findRolePersons(employeeIds);
+                        List<RoleMembershipRepository.RoleMember> newRolePersons = new ArrayList<>();
+                        for (PersonDepartment employee : chunk) {
+                            String departmentName = employee.getDepartmentName();
+                            RoleMembershipRepository.RoleMember rolePerson = new RoleMembershipRepository.RoleMember(
+                                    orgRoleIdsByName.get(departmentName.toLowerCase(Locale.ROOT)), employee.getId());
+                            if (rolePersons.add(rolePerson)) {
+                                newRolePersons.add(rolePerson);
+                                addLogEntry(actor, "Person with id " + employee.getId()
+                                        + " added as employee to the department with name " + departmentName);
+                            }
                         }
-
-                        // add person as employee to the org role
-                        employee.addRole(orgRole);
-                        employee.setEmployee(true);
-                        personRepository.save(employee);
-
-                        orgRole.addPerson(employee);
-                        roleRepository.save(orgRole);
-
-                        addLogEntry("Person \"" + employee.getCentralAccountName() +
-                                "\" added as employee to the department with name " + departmentName);
-                    }
-                }
+                        roleMembershipRepository.insertRolePersons(newRolePersons);
+                        return new int[] {0, updatedCount};
+                    });
+            if (counts == null) {
+                return new ServiceResult(false, "Update organisations from persons cancelled.");
             }
-            return true;
+            deleteCheckpoint(checkpoint);
+            return new ServiceResult(true, withFailedCount(
+                    updatedOrgRolesCount + " organizations added or updated from persons", context));
         } catch (Exception exception) {
             logger.debug("Updating organisations from persons failed.", exception);
-            return false;
+            return new ServiceResult(false, "Updating organisations from persons failed: " + exception.getMessage());
         }
     }
 
-    public void assignPersonsToRoles(@NotNull List<Person> persons) {
+    /**
+     * Assign the persons to the roles with the names of the AD groups of their managed AD users.
+     * <p>The memberships are queried from AD in parallel, the names are resolved to groups and roles in memory.
+     * Only join rows which not exist are inserted, in batches for each chunk of persons.</p>
+     */
+    public ServiceResult assignPersonsToRoles(@NotNull List<Integer> personIds, JobContext context) {
+        String actor = context.getStartedBy();
         try {
+            Endpoint endpoint = getConnectedEndpoint();
+            if (endpoint == null) {
+                return new ServiceResult(false, "Assign persons to roles failed. Not connected to the AD.");
+            }
+            // the role for an AD group has the name of the group
+            Map<String, Integer> adGroupIdsByName = new HashMap<>();
+            adGroupRepository.findAllProjectedBy().forEach(adGroup ->
+                    adGroupIdsByName.putIfAbsent(adGroup.getName(), adGroup.getId()));
+            Map<String, Integer> roleIdsByName = new HashMap<>();
+            roleRepository.findAllProjectedBy().forEach(role ->
+                    roleIdsByName.putIfAbsent(role.getName(), role.getId()));
             int assignedPersonsCount = 0;
             int assignedRolesCount = 0;
-            for (Person person : persons) {
-                // get managed AD users of person
-                List<ADUser> assignedADUsers = adUserRepository.findByPerson_IdAndIsRoleManagedTrue(person.getId());
-                for (ADUser assignedADUser : assignedADUsers) {
-                    // get the AD groups of AD user from AD
-                    List<ADGroup> adGroupsOfAssignedADUser = getADGroupsForUser(assignedADUser);
-                    for (ADGroup adGroup : adGroupsOfAssignedADUser) {
-                        // get the role with the name of the AD group
-                        Optional<Role> optionalRole = roleRepository.findFirstByName(adGroup.getName());
-                        if (optionalRole.isPresent()) {
-                            // add the person and the AD group to the role
-                            Role role = optionalRole.get();
-                            role.addPerson(person);
-                            role.addADGroup(adGroup);
-                            roleRepository.save(role);
-                            person.addRole(role);
-                            personRepository.save(person);
-                            assignedRolesCount++;
-                            addLogEntry("Person \"" + person.getCentralAccountName() + "\" and \"" +
-                                    adGroup.getName() + "\" added to the role \"" + role.getName() + "\"");
-                        }
-                    }
-                    assignedPersonsCount++;
+            context.startPhase(Global.IMPORT_PHASE.ASSIGN_ROLES, personIds.size());
+            for (int fromIndex = 0; fromIndex < personIds.size(); fromIndex += importChunkSize) {
+                if (context.isCancelled()) {
+                    return new ServiceResult(false, "Assign persons to roles cancelled.");
                 }
+                List<Integer> chunk = personIds.subList(fromIndex,
+                        Math.min(fromIndex + importChunkSize, personIds.size()));
+                List<ADUser> managedADUsers = adUserRepository.findByPerson_IdInAndIsRoleManagedTrue(chunk);
+                // get the AD groups of the managed AD users from AD, the directory calls are blocking
+                List<List<RoleAssignment>> assignmentsOfADUsers = directoryExecutor.invokeAll(managedADUsers,
+                        adUser -> {
+                            List<RoleAssignment> assignments = new ArrayList<>();
+                            for (String adGroupName : getADGroupNamesForUser(adUser, endpoint)) {
+                                Integer adGroupId = adGroupIdsByName.get(adGroupName);
+                                Integer roleId = roleIdsByName.get(adGroupName);
+                                if (adGroupId != null && roleId != null) {
+                                    assignments.add(new RoleAssignment(adUser.getPerson().getId(), roleId,
+                                            adGroupId, adGroupName));
+                                }
+                            }
+                            return assignments;
+                        }, context::isCancelled);
+                if (assignmentsOfADUsers == null) {
+                    return new ServiceResult(false, "Assign persons to roles cancelled.");
+                }
+                List<RoleAssignment> assignments = assignmentsOfADUsers.stream().flatMap(List::stream).toList();
+                List<RoleMembershipRepository.RoleMember> newRolePersons =
+                        saveRoleAssignments(chunk, assignments, actor);
+                assignedPersonsCount += (int) newRolePersons.stream()
+                        .map(RoleMembershipRepository.RoleMember::memberId).distinct().count();
+                assignedRolesCount += newRolePersons.size();
+                newRolePersons.forEach(rolePerson -> context.updated());
+                context.processed(chunk.size());
             }
-            String resultMessage = assignedPersonsCount + " from " + persons.size() + " persons assigned to "
+            String resultMessage = assignedPersonsCount + " from " + personIds.size() + " persons assigned to "
                     + assignedRolesCount + " roles";
             logger.debug(resultMessage);
-            eventBus.post(new ServiceEvent(this,
-                    new ServiceResult(true, resultMessage)));
+            return new ServiceResult(true, resultMessage);
         } catch (Exception exception) {
             String resultMessage = "Error while assign persons to roles automatically: " + exception.getMessage();
             logger.debug(resultMessage, exception);
-            eventBus.post(new ServiceEvent(this,
-                    new ServiceResult(false, resultMessage)));
-        }
+            return new ServiceResult(false, resultMessage);
+        }
+    }
+
+    /**
+     * Insert the missing join rows of the assignments. The existing rows are read in the transaction
+     * of the inserts, the inserts skip the rows of roles saved in the meantime.
+     *
+     * @param personIds of the chunk
+     * @param assignments of the persons in the chunk
+     * @param actor for the log entries
+     * @return the inserted join rows of the persons
+     */
+    List<RoleMembershipRepository.RoleMember> saveRoleAssignments(List<Integer> personIds,
+                                                                  List<RoleAssignment> assignments,
+                                                                  String actor) {
+        Set<Integer> adGroupIds = new HashSet<>();
+        assignments.forEach(assignment -> adGroupIds.add(assignment.adGroupId()));
+        List<RoleMembershipRepository.RoleMember> newRolePersons = transactionTemplate.execute(status -> {
+            Set<RoleMembershipRepository.RoleMember> rolePersons =
+                    roleMembershipRepository.findRolePersons(personIds);
+            Set<RoleMembershipRepository.RoleMember> roleADGroups =
+                    roleMembershipRepository.findRoleADGroups(adGroupIds);
+            List<RoleMembershipRepository.RoleMember> addedRolePersons = new ArrayList<>();
+            List<RoleMembershipRepository.RoleMember> addedRoleADGroups = new ArrayList<>();
+            for (RoleAssignment assignment : assignments) {
+                RoleMembershipRepository.RoleMember rolePerson =
+                        new RoleMembershipRepository.RoleMember(assignment.roleId(), assignment.personId());
+                if (rolePersons.add(rolePerson)) {
+                    addedRolePersons.add(rolePerson);
+                    addLogEntry(actor, "Person with id " + assignment.personId() + " added to the role \""
+                            + assignment.adGroupName() + "\"");
+                }
+                RoleMembershipRepository.RoleMember roleADGroup =
+                        new RoleMembershipRepository.RoleMember(assignment.roleId(), assignment.adGroupId());
+                if (roleADGroups.add(roleADGroup)) {
+                    addedRoleADGroups.add(roleADGroup);
+                    addLogEntry(actor, "AD group \"" + assignment.adGroupName()
+                            + "\" added to the role with the same name");
+                }
+            }
+            roleMembershipRepository.insertRolePersons(addedRolePersons);
+            roleMembershipRepository.insertRoleADGroups(addedRoleADGroups);
+            return addedRolePersons;
+        });
+        return newRolePersons == null ? List.of() : newRolePersons;
     }
 
-    @Transactional
-    public void updateRolesFromGroups() {
+    public ServiceResult updateRolesFromGroups(JobContext context) {
+        String actor = context.getStartedBy();
         try {
             if (adGroupRepository.count() == 0) {
                 String resultMessage = "Update roles from AD groups failed. " +
-                        "There are AD groups in database. Please import from AD first.";
+                        "There are no AD groups in database. Please import from AD first.";
                 logger.debug(resultMessage);
-                eventBus.post(new ServiceEvent(this,
-                        new ServiceResult(false, resultMessage)));
+                return new ServiceResult(false, resultMessage);
             }
-            int added = 0, updated = 0;
+            ImportCheckpoint checkpoint = loadCheckpoint(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS);
             List<ADGroup> adGroups = adGroupRepository.findAll();
-            for (ADGroup adGroup: adGroups) {
-                String name = adGroup.getName();
-                Optional<Role> optionalRole = roleRepository.findFirstByName(name);
-                Role role;
-                if (optionalRole.isPresent()) {
-                    // update
-                    role = optionalRole.get();
-                    updated++;
-                } else {
-                    // add new role from AD group
-                    role = new Role();
-                    role.setName(adGroup.getName());
-                    added++;
-                }
-                role.setDescription(adGroup.getDescription());
-                role.setAdminRole(isAdminByName(name));
-                RoleResource roleResource = getRoleResourceByADGroup(adGroup);
-                if (roleResource != null) {
-                    role.setRoleResource(roleResource);
-                }
-                role.addADGroup(adGroup);
-                roleRepository.save(role);
-                adGroup.addRole(role); // many-to-many relationship
-                adGroupRepository.save(adGroup);
+            int[] counts = processInChunks(context, checkpoint, Global.IMPORT_PHASE.ROLES_FROM_GROUPS,
+                    adGroups, this::getCheckpointKey, adGroup -> {
+                        boolean[] returnValues = new boolean[2]; // {added, updated}
+                        String name = adGroup.getName();
+                        Optional<Role> optionalRole = roleRepository.findFirstByName(name);
+                        Role role;
+                        if (optionalRole.isPresent()) {
+                            // update
+                            role = optionalRole.get();
+                            returnValues[1] = true;
+                        } else {
+                            // add new role from AD group
+                            role = new Role();
+                            role.setName(adGroup.getName());
+                            returnValues[0] = true;
+                        }
+                        role.setDescription(adGroup.getDescription());
+                        role.setAdminRole(isAdminByName(name));
+                        RoleResource roleResource = getRoleResourceByADGroup(adGroup);
+                        if (roleResource != null) {
+                            role.setRoleResource(roleResource);
+                        }
+                        // the role owns the many-to-many relationship, the groups were loaded
+                        // outside the transaction of the chunk and must be attached to it
+                        role.addADGroup(adGroupRepository.getById(adGroup.getId()));
+                        roleRepository.save(role);
+                        return returnValues;
+                    });
+            if (counts == null) {
+                return new ServiceResult(false, "Update roles from AD groups cancelled.");
             }
-            String resultMessage = added + " roles added and " + updated + " roles updated from AD groups";
-            addLogEntry(resultMessage);
-            eventBus.post(new ServiceEvent(this,
-                    new ServiceResult(true, resultMessage)));
+            deleteCheckpoint(checkpoint);
+            String resultMessage = counts[0] + " roles added and " + counts[1] + " roles updated from AD groups";
+            addLogEntry(actor, resultMessage);
+            return new ServiceResult(true, withFailedCount(resultMessage, context));
         } catch (Exception exception) {
             String resultMessage = "Update roles from AD groups failed.";
             logger.debug(resultMessage, exception);
-            eventBus.post(new ServiceEvent(this,
-                    new ServiceResult(false, resultMessage)));
+            return new ServiceResult(false, resultMessage);
         }
     }
 
@@ -662,299 +855,472 @@ public class IdentityService {
         return false;
     }
 
-    @Transactional
-    public boolean savePerson(Person person) {
+    /**
+     * Save the person and its relations. The saved version is set in the person,
+     * so that the caller can save it again.
+     * <p>Only the changed assignments to the roles are written, they change the version of the roles.</p>
+     *
+     * @param person to save, e.g. edited in a form
+     * @return the result, with a conflict, if the person was changed in the meantime
+     */
+    public ServiceResult savePerson(Person person) {
         if (person == null) {
             logger.debug("Can not saved a zero person.");
-            return false;
+            return new ServiceResult(false, "Can not save a zero person.");
         }
 
-        // in bidirectional relation the mapping infos not automatically saved?
-        // https://stackoverflow.com/questions/47903876
         try {
-            // roles
-            Set<Role> roles = person.getRoles();
-            for (Role role: roles) {
-                role.addPerson(person);
-                roleRepository.save(role);
-            }
-            // AD users
-            Set<ADUser> adUsers = person.getADUsers();
-            for (ADUser adUser: adUsers) {
-                adUser.setPerson(person);
-                adUserRepository.save(adUser);
-            }
-
-            personRepository.save(person);
-            return true;
+            // the version is checked on commit, the transaction must end before the exceptions are handled
+            Person savedPerson = transactionTemplate.execute(status -> {
+                // the person must exist in the database for the join rows
+                Person managedPerson = personRepository.saveAndFlush(person);
+                // AD users
+                Set<ADUser> adUsers = managedPerson.getADUsers();
+                for (ADUser adUser: adUsers) {
+                    adUser.setPerson(managedPerson);
+                }
+                // roles
+                if (Hibernate.isInitialized(person.getRoles())) {
+                    int personId = managedPerson.getId();
+                    Set<RoleMembershipRepository.RoleMember> rolePersons = new HashSet<>();
+                    for (Role role: person.getRoles()) {
+                        rolePersons.add(new RoleMembershipRepository.RoleMember(role.getId(), personId));
+                    }
+                    incrementRoleVersions(saveRoleMembers(
+                            roleMembershipRepository.findRolePersons(List.of(personId)), rolePersons,
+                            roleMembershipRepository::insertRolePersons, roleMembershipRepository::deleteRolePersons));
+                }
+                return managedPerson;
+            });
+            updateVersion(person, savedPerson);
+            return new ServiceResult(true, "Person saved.");
+        } catch (OptimisticLockingFailureException exception) {
+            logger.debug("The person \"" + person.getCentralAccountName() + "\" was changed in the meantime.");
+            return new ServiceResult(false, "The person was changed in the meantime.", true);
         } catch (Exception exception) {
             logger.debug("Error while saving person \"" + person.getCentralAccountName() + "\"", exception);
-            return false;
+            return new ServiceResult(false, "Error while saving the person.");
         }
     }
 
-    @Transactional
-    public boolean saveRole(Role role) {
+    /**
+     * Save the role and its relations. The saved version is set in the role,
+     * so that the caller can save it again.
+     * <p>The members of an existing role are compared with the join rows in the database,
+     * only the added and removed join rows are written. The members are not loaded.</p>
+     *
+     * @param role to save, e.g. edited in a form
+     * @return the result, with a conflict, if the role was changed in the meantime
+     */
+    public ServiceResult saveRole(Role role) {
         if (role == null) {
             logger.debug("Can not saved a zero role.");
-            return false;
+            return new ServiceResult(false, "Can not save a zero role.");
         }
 
-        // in bidirectional relation the mapping infos not automatically saved?
-        // https://stackoverflow.com/questions/47903876
         try {
-            // persons
-            Set<Person> persons = role.getPersons();
-            for (Person person: persons) {
-                person.addRole(role);
-                roleRepository.save(role);
-            }
-            // AD users
-            Set<ADUser> adUsers = role.getADUsers();
-            for (ADUser adUser: adUsers) {
-                adUser.addRole(role);
-                adUserRepository.save(adUser);
-            }
-            // AD users
-            Set<ADGroup> adGroups = role.getADGroups();
-            for (ADGroup adGroup: adGroups) {
-                adGroup.addRole(role);
-                adGroupRepository.save(adGroup);
-            }
-
-            roleRepository.save(role);
-            return true;
+            Role savedRole = transactionTemplate.execute(status -> {
+                if (role.getId() == null) {
+                    // a new role has no join rows yet
+                    return roleRepository.save(role);
+                }
+                // the version of the locked role is incremented on commit
+                Role managedRole = roleRepository.findForUpdateById(role.getId())
+                        .filter(storedRole -> Objects.equals(storedRole.getVersion(), role.getVersion()))
+                        .orElseThrow(() -> new ObjectOptimisticLockingFailureException(Role.class, role.getId()));
+                managedRole.setName(role.getName());
+                managedRole.setDescription(role.getDescription());
+                managedRole.setAdminRole(role.isAdminRole());
+                RoleResource roleResource = role.getRoleResource();
+                managedRole.setRoleResource(roleResource == null || roleResource.getId() == null ?
+                        roleResource : roleResourceRepository.getById(roleResource.getId()));
+                // the responsible persons are not edited in the forms, the managed role keeps them
+                int roleId = role.getId();
+                // persons
+                if (Hibernate.isInitialized(role.getPersons())) {
+                    Set<RoleMembershipRepository.RoleMember> rolePersons = new HashSet<>();
+                    for (Person person: role.getPersons()) {
+                        rolePersons.add(new RoleMembershipRepository.RoleMember(roleId, person.getId()));
+                    }
+                    saveRoleMembers(roleMembershipRepository.findPersonsOfRole(roleId), rolePersons,
+                            roleMembershipRepository::insertRolePersons, roleMembershipRepository::deleteRolePersons);
+                }
+                // AD users
+                if (Hibernate.isInitialized(role.getADUsers())) {
+                    Set<RoleMembershipRepository.RoleMember> roleADUsers = new HashSet<>();
+                    for (ADUser adUser: role.getADUsers()) {
+                        roleADUsers.add(new RoleMembershipRepository.RoleMember(roleId, adUser.getId()));
+                    }
+                    saveRoleMembers(roleMembershipRepository.findADUsersOfRole(roleId), roleADUsers,
+                            roleMembershipRepository::insertRoleADUsers, roleMembershipRepository::deleteRoleADUsers);
+                }
+                // AD groups
+                if (Hibernate.isInitialized(role.getADGroups())) {
+                    Set<RoleMembershipRepository.RoleMember> roleADGroups = new HashSet<>();
+                    for (ADGroup adGroup: role.getADGroups()) {
+                        roleADGroups.add(new RoleMembershipRepository.RoleMember(roleId, adGroup.getId()));
+                    }
+                    saveRoleMembers(roleMembershipRepository.findADGroupsOfRole(roleId), roleADGroups,
+                            roleMembershipRepository::insertRoleADGroups, roleMembershipRepository::deleteRoleADGroups);
+                }
+                return managedRole;
+            });
+            updateVersion(role, savedRole);
+            return new ServiceResult(true, "Role saved.");
+        } catch (OptimisticLockingFailureException exception) {
+            logger.debug("The role " + role.getName() + " was changed in the meantime.");
+            return new ServiceResult(false, "The role was changed in the meantime.", true);
         } catch (Exception exception) {
             logger.debug("Error while saving role " + role.getName() + " .", exception);
-            return false;
+            return new ServiceResult(false, "Error while saving the role.");
         }
     }
 
-    @Transactional
-    public boolean saveADUser(ADUser adUser) {
+    /**
+     * Save the AD user and its roles. The saved version is set in the AD user,
+     * so that the caller can save it again.
+     * <p>Only the changed assignments to the roles are written, they change the version of the roles.</p>
+     *
+     * @param adUser to save, e.g. edited in a form
+     * @return the result, with a conflict, if the AD user was changed in the meantime
+     */
+    public ServiceResult saveADUser(ADUser adUser) {
         if (adUser == null) {
             logger.debug("Can not saved a zero AD user.");
-            return false;
+            return new ServiceResult(false, "Can not save a zero AD user.");
         }
 
-        // in bidirectional relation the mapping infos not automatically saved?
-        // https://stackoverflow.com/questions/47903876
         try {
-            // roles
-            Set<Role> roles = adUser.getRoles();
-            for (Role role: roles) {
-                role.addADUser(adUser);
-                roleRepository.save(role);
-            }
-
-            adUserRepository.save(adUser);
-            return true;
+            ADUser savedADUser = transactionTemplate.execute(status -> {
+                // the AD user must exist in the database for the join rows
+                ADUser managedADUser = adUserRepository.saveAndFlush(adUser);
+                // roles
+                if (Hibernate.isInitialized(adUser.getRoles())) {
+                    int adUserId = managedADUser.getId();
+                    Set<RoleMembershipRepository.RoleMember> roleADUsers = new HashSet<>();
+                    for (Role role: adUser.getRoles()) {
+                        roleADUsers.add(new RoleMembershipRepository.RoleMember(role.getId(), adUserId));
+                    }
+                    incrementRoleVersions(saveRoleMembers(
+                            roleMembershipRepository.findRoleADUsers(List.of(adUserId)), roleADUsers,
+                            roleMembershipRepository::insertRoleADUsers, roleMembershipRepository::deleteRoleADUsers));
+                }
+                return managedADUser;
+            });
+            updateVersion(adUser, savedADUser);
+            return new ServiceResult(true, "AD user saved.");
+        } catch (OptimisticLockingFailureException exception) {
+            logger.debug("The AD user " + adUser.getDistinguishedName() + " was changed in the meantime.");
+            return new ServiceResult(false, "The AD user was changed in the meantime.", true);
         } catch (Exception exception) {
             logger.debug("Error while saving AD user " + adUser.getDistinguishedName() + " .", exception);
-            return false;
+            return new ServiceResult(false, "Error while saving the AD user.");
         }
     }
 
-    @Transactional
-    public boolean saveADGroup(ADGroup adGroup) {
+    /**
+     * Save the AD group and its roles. The saved version is set in the AD group,
+     * so that the caller can save it again.
+     * <p>Only the changed assignments to the roles are written, they change the version of the roles.</p>
+     *
+     * @param adGroup to save, e.g. edited in a form
+     * @return the result, with a conflict, if the AD group was changed in the meantime
+     */
+    public ServiceResult saveADGroup(ADGroup adGroup) {
         if (adGroup == null) {
             logger.debug("Can not saved a zero AD group.");
-            return false;
+            return new ServiceResult(false, "Can not save a zero AD group.");
         }
 
-        // in bidirectional relation the mapping infos not automatically saved?
-        // https://stackoverflow.com/questions/47903876
         try {
-            // roles
-            Set<Role> roles = adGroup.getRoles();
-            for (Role role: roles) {
-                role.addADGroup(adGroup);
-                roleRepository.save(role);
-            }
+            ADGroup savedADGroup = transactionTemplate.execute(status -> {
+                // the AD group must exist in the database for the join rows
+                ADGroup managedADGroup = adGroupRepository.saveAndFlush(adGroup);
+                // roles
+                if (Hibernate.isInitialized(adGroup.getRoles())) {
+                    int adGroupId = managedADGroup.getId();
+                    Set<RoleMembershipRepository.RoleMember> roleADGroups = new HashSet<>();
+                    for (Role role: adGroup.getRoles()) {
+                        roleADGroups.add(new RoleMembershipRepository.RoleMember(role.getId(), adGroupId));
+                    }
+                    incrementRoleVersions(saveRoleMembers(
+                            roleMembershipRepository.findRoleADGroups(List.of(adGroupId)), roleADGroups,
+                            roleMembershipRepository::insertRoleADGroups, roleMembershipRepository::deleteRoleADGroups));
+                }
+                return managedADGroup;
+            });
+            updateVersion(adGroup, savedADGroup);
+            return new ServiceResult(true, "AD group saved.");
+        } catch (OptimisticLockingFailureException exception) {
+            logger.debug("The AD group \"" + adGroup.getName() + "\" was changed in the meantime.");
+            return new ServiceResult(false, "The AD group was changed in the meantime.", true);
+        } catch (Exception exception) {
+            logger.debug("Error while saving AD group \"" + adGroup.getName() + "\"", exception);
+            return new ServiceResult(false, "Error while saving the AD group.");
+        }
+    }
 
-            adGroupRepository.save(adGroup);
+    /**
+     * Set the employee status of the persons with one update, the persons are not loaded.
+     *
+     * @param personIds of the persons, e.g. selected in a grid
+     * @param isEmployee the new status
+     * @return true, if the status was updated
+     */
+    @Transactional
+    public boolean updateEmployeeStatus(Collection<Integer> personIds, boolean isEmployee) {
+        try {
+            if (!personIds.isEmpty()) {
+                personRepository.updateEmployee(isEmployee, personIds);
+            }
             return true;
         } catch (Exception exception) {
-            logger.debug("Error while saving AD group \"" + adGroup.getName() + "\"", exception);
+            logger.debug("Error while updating the employee status of the persons.", exception);
             return false;
         }
     }
 
+    /**
+     * Change the resource of the roles with one update, the roles are not loaded.
+     *
+     * @param roleIds of the roles, e.g. selected in a grid
+     * @param roleResource the new resource
+     * @return true, if the resource was changed
+     */
     @Transactional
+    public boolean updateRoleResource(Collection<Integer> roleIds, RoleResource roleResource) {
+        try {
+            if (!roleIds.isEmpty()) {
+                roleRepository.updateRoleResource(roleResource, roleIds);
+                statisticsService.invalidate();
+            }
+            return true;
+        } catch (Exception exception) {
+            logger.debug("Error while changing the resource of the roles.", exception);
+            return false;
+        }
+    }
+
     public void deletePerson(Person person) {
-        if (person == null) {
+        if (person == null || person.getId() == null) {
             return;
         }
-        deletePersonComplete(person);
+        deletePersons(List.of(person.getId()));
     }
 
     public void deleteRole(Role role) {
-        if (role == null) {
+        if (role == null || role.getId() == null) {
             return;
         }
-        deleteRoleComplete(role);
+        deleteRoles(List.of(role.getId()));
     }
 
     public void deleteADUser(ADUser adUser) {
-        if (adUser == null) {
+        if (adUser == null || adUser.getId() == null) {
             return;
         }
-        deleteADUserComplete(adUser);
+        deleteADUsers(List.of(adUser));
     }
 
     public void deleteADGroup(ADGroup adGroup) {
-        if (adGroup == null) {
+        if (adGroup == null || adGroup.getId() == null) {
             return;
         }
-        deleteADGroupComplete(adGroup);
+        deleteADGroups(List.of(adGroup));
     }
 
-    @Transactional
-    public void deletePersons(List<Person> persons) {
-        if (persons == null) {
+    /**
+     * Delete the persons and their relations with a few statements for each batch of ids.
+     * The persons are removed from their roles and AD users, the persons are not loaded.
+     *
+     * @param personIds of the persons, e.g. selected in a grid
+     */
+    public void deletePersons(Collection<Integer> personIds) {
+        if (personIds == null || personIds.isEmpty()) {
             return;
         }
-        for (Person person: persons) {
-            deletePersonComplete(person);
+        try {
+            deleteInBatches(personIds, batchIds -> {
+                incrementRoleVersions(getRoleIds(roleMembershipRepository.findRolePersons(batchIds)));
+                roleMembershipRepository.deleteRolePersonsByPersonIds(batchIds);
+                roleRepository.removeResponsibleByPersonIds(batchIds);
+                roleRepository.removeSecondResponsibleByPersonIds(batchIds);
+                adUserRepository.removePersonByPersonIds(batchIds);
+                personRepository.deleteAllByIdInBatch(batchIds);
+            });
+            // the bulk deletes bypass the entity listeners
+            memorySearchIndex.invalidate(Person.class);
+            statisticsService.invalidate();
+            addLogEntry(securityService.getAuthenticatedUserName(), personIds.size() + " persons deleted.");
+        } catch (Exception exception) {
+            logger.debug("Error while deleting the persons.", exception);
         }
     }
 
-    @Transactional
-    public void deleteRoles(List<Role> roles) {
-        if (roles == null) {
+    /**
+     * Delete the roles and their relations with a few statements for each batch of ids.
+     * The members of the roles are not loaded.
+     *
+     * @param roleIds of the roles, e.g. selected in a grid
+     */
+    public void deleteRoles(Collection<Integer> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
             return;
         }
-        for (Role role: roles) {
-            deleteRoleComplete(role);
+        try {
+            deleteInBatches(roleIds, batchIds -> {
+                roleMembershipRepository.deleteAllOfRoles(batchIds);
+                roleRepository.deleteAllByIdInBatch(batchIds);
+            });
+            memorySearchIndex.invalidate(Role.class);
+            statisticsService.invalidate();
+            addLogEntry(securityService.getAuthenticatedUserName(), roleIds.size() + " roles deleted.");
+        } catch (Exception exception) {
+            logger.debug("Error while deleting the roles.", exception);
         }
     }
 
-    @Transactional
+    /**
+     * Delete the AD users and their assignments to roles with a few statements for each batch of ids.
+     *
+     * @param adUsers to delete, e.g. selected in a grid
+     */
     public void deleteADUsers(List<ADUser> adUsers) {
-        if (adUsers == null) {
+        if (adUsers == null || adUsers.isEmpty()) {
             return;
         }
-        for (ADUser adUser: adUsers) {
-            deleteADUserComplete(adUser);
+        List<Integer> adUserIds = adUsers.stream().map(ADUser::getId).filter(Objects::nonNull).toList();
+        try {
+            deleteInBatches(adUserIds, batchIds -> {
+                incrementRoleVersions(getRoleIds(roleMembershipRepository.findRoleADUsers(batchIds)));
+                roleMembershipRepository.deleteRoleADUsersByADUserIds(batchIds);
+                adUserRepository.deleteAllByIdInBatch(batchIds);
+            });
+            memorySearchIndex.invalidate(ADUser.class);
+            statisticsService.invalidate();
+            addLogEntry(securityService.getAuthenticatedUserName(), adUserIds.size() + " AD users deleted.");
+        } catch (Exception exception) {
+            logger.debug("Error while deleting the AD users.", exception);
         }
     }
 
-    @Transactional
+    /**
+     * Delete the AD groups and their assignments to roles with a few statements for each batch of ids.
+     *
+     * @param adGroups to delete, e.g. selected in a grid
+     */
     public void deleteADGroups(List<ADGroup> adGroups) {
-        if (adGroups == null) {
+        if (adGroups == null || adGroups.isEmpty()) {
             return;
         }
-        for (ADGroup adGroup: adGroups) {
-            deleteADGroupComplete(adGroup);
-        }
-    }
-
-    @PostConstruct
-    void setGlobalSecurityContext() {
-        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_INHERITABLETHREADLOCAL);
-    }
-
-    @Transactional
-    private void deleteRoleComplete(Role role) {
+        List<Integer> adGroupIds = adGroups.stream().map(ADGroup::getId).filter(Objects::nonNull).toList();
         try {
-            Set<Person> persons = role.getPersons();
-            for (Person person: persons) {
-                person.removeRole(role);
-                personRepository.save(person);
-            }
-
-            Set<ADUser> adUsers = role.getADUsers();
-            for (ADUser adUser: adUsers) {
-                adUser.removeRole(role);
-                adUserRepository.save(adUser);
-            }
-
-            Set<ADGroup> adGroups = role.getADGroups();
-            for (ADGroup adGroup: adGroups) {
-                adGroup.removeRole(role);
-                adGroupRepository.save(adGroup);
-            }
-
-            roleRepository.delete(role);
-            addLogEntry("Role \"" + role.getName() + "\" deleted.");
+            deleteInBatches(adGroupIds, batchIds -> {
+                incrementRoleVersions(getRoleIds(roleMembershipRepository.findRoleADGroups(batchIds)));
+                roleMembershipRepository.deleteRoleADGroupsByADGroupIds(batchIds);
+                adGroupRepository.deleteAllByIdInBatch(batchIds);
+            });
+            memorySearchIndex.invalidate(ADGroup.class);
+            statisticsService.invalidate();
+            addLogEntry(securityService.getAuthenticatedUserName(), adGroupIds.size() + " AD groups deleted.");
         } catch (Exception exception) {
-            logger.debug("Error while deleting role \"" + role.getName() + "\"", exception);
+            logger.debug("Error while deleting the AD groups.", exception);
         }
     }
 
-    // delete all relations with this object
-    @Transactional
-    private void deletePersonComplete(Person person) {
-        try {
-            Set<Role> roles = person.getRoles();
-            for (Role role: roles) {
-                role.removePerson(person);
-                roleRepository.save(role);
+    // all batches are deleted in one transaction, the referencing rows are deleted before the entities
+    private void deleteInBatches(Collection<Integer> ids, Consumer<List<Integer>> deleteBatch) {
+        List<Integer> idList = new ArrayList<>(ids);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int fromIndex = 0; fromIndex < idList.size(); fromIndex += DELETE_BATCH_SIZE) {
+                deleteBatch.accept(idList.subList(fromIndex, Math.min(fromIndex + DELETE_BATCH_SIZE, idList.size())));
             }
+        });
+    }
 
-            personRepository.delete(person);
-            addLogEntry("Person \"" + person.getCentralAccountName() + " \"deleted.");
-        } catch (Exception exception) {
-            logger.debug("Error while deleting person \"" + person.getCentralAccountName() + "\"", exception);
-        }
+    private static Set<Integer> getRoleIds(Set<RoleMembershipRepository.RoleMember> roleMembers) {
+        Set<Integer> roleIds = new HashSet<>();
+        roleMembers.forEach(roleMember -> roleIds.add(roleMember.roleId()));
+        return roleIds;
     }
 
-    @Transactional
-    private void deleteADUserComplete(ADUser adUser) {
-        try {
-            Set<Role> roles = adUser.getRoles();
-            for (Role role: roles) {
-                role.removeADUser(adUser);
-                roleRepository.save(role);
-            }
-            adUserRepository.delete(adUser);
-            addLogEntry("AD user \"" + adUser.getDistinguishedName() + "\" deleted.");
-        } catch (Exception exception) {
-            logger.debug("Error while deleting AD user \"" + adUser.getDistinguishedName() + "\"", exception);
-        }
+    @Nullable
+    private ActiveDirectory loadActiveDirectory() {
+        List<ActiveDirectory> activeDirectories = activeDirectoryRepository.findAll();
+        return activeDirectories.isEmpty() ? null : activeDirectories.get(0);
     }
 
-    @Transactional
-    private void deleteADGroupComplete(ADGroup adGroup) {
-        try {
-            adGroupRepository.delete(adGroup);
-            addLogEntry("AD group \"" + adGroup.getDistinguishedName() + "\" deleted.");
-        } catch (Exception exception) {
-            logger.debug("Error while deleting AD group \"" + adGroup.getDistinguishedName() + "\"", exception);
+    private Endpoint createEndpoint(ActiveDirectory activeDirectory) {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setSecuredConnection(activeDirectory.useSecureConnection());
+        endpoint.setPort((int) activeDirectory.getPort());
+        endpoint.setHost(activeDirectory.getIPAddress());
+        endpoint.setUserAccountName(activeDirectory.getConnectionUserName());
+        endpoint.setPassword(activeDirectory.getEncryptedConnectionPassword());
+        return endpoint;
+    }
+
+    private DirectoryConnection connect(@Nullable ActiveDirectory activeDirectory) {
+        if (activeDirectory == null) {
+            logger.debug("Can not connect to the AD - AD is not configured.");
+            return new DirectoryConnection(null, false);
         }
+        return connect(new DirectoryConnection(createEndpoint(activeDirectory), false));
     }
 
-    private boolean connect() {
+    private DirectoryConnection connect(DirectoryConnection connection) {
         try {
-            if (isConnected) {
-                return true;
+            if (connection.connected()) {
+                return connection;
             }
-            if (activeDirectory == null) {
-                logger.debug("Can not connect to the AD - AD is not configured.");
-                isConnected = false;
-                return false;
+            if (connection.endpoint() == null) {
+                // maybe the AD was configured in the meantime
+                ActiveDirectory activeDirectory = loadActiveDirectory();
+                if (activeDirectory == null) {
+                    logger.debug("Can not connect to the AD - AD is not configured.");
+                    return connection;
+                }
+                connection = new DirectoryConnection(createEndpoint(activeDirectory), false);
             }
             // try to connect
-            endpoint.setSecuredConnection(activeDirectory.useSecureConnection());
-            endpoint.setPort((int) activeDirectory.getPort());
-            endpoint.setHost(activeDirectory.getIPAddress());
-            endpoint.setUserAccountName(activeDirectory.getConnectionUserName());
-            endpoint.setPassword(activeDirectory.getEncryptedConnectionPassword());
-            final ConnectionResponse connectionResponse = DirectoryConnectorService.authenticate(endpoint);
+            final ConnectionResponse connectionResponse = DirectoryConnectorService.authenticate(connection.endpoint());
             if (connectionResponse.isError()) {
                 logger.debug("The connection to the Active Directory failed.");
+                return connection;
             }
             logger.debug("The connection to the Active Directory was successfully established.");
-            return true;
+            return new DirectoryConnection(connection.endpoint(), true);
         } catch (Exception exception) {
             logger.debug("The connection to the Active Directory failed.", exception);
-            return false;
+            return connection;
+        }
+    }
+
+    /**
+     * Get the endpoint of the connected Active Directory. If not connected, try to connect.
+     * Concurrent calls may connect in parallel, the first successful connection is kept.
+     *
+     * @return the endpoint or null, if the connection failed
+     */
+    @Nullable
+    private Endpoint getConnectedEndpoint() {
+        DirectoryConnection connection = directoryConnection.get();
+        if (!connection.connected()) {
+            DirectoryConnection newConnection = connect(connection);
+            if (!directoryConnection.compareAndSet(connection, newConnection)) {
+                // changed by another thread, e.g. the configuration was saved
+                connection = directoryConnection.get();
+            } else {
+                connection = newConnection;
+            }
         }
+        return connection.connected() ? connection.endpoint() : null;
     }
 
     @Nullable
     private QueryRequest createQueryRequest() {
-        if (isConnected()) {
+        Endpoint endpoint = getConnectedEndpoint();
+        if (endpoint != null) {
             QueryRequest queryRequest = new QueryRequest();
             queryRequest.setDirectoryType(DirectoryType.MS_ACTIVE_DIRECTORY);
             queryRequest.setSizeLimit(1000); //TODO: read from config
@@ -965,102 +1331,107 @@ public class IdentityService {
         return null;
     }
 
+    @Nullable
     private List<EntityResponse> getADUserEntities() {
-        if (isConnected()) {
-            QueryRequest queryRequest = createQueryRequest();
-            if (queryRequest != null) {
-                try {
-                    queryRequest.setObjectType(ObjectType.USER);
-                    //TODO: set filter by config, e.g. load only enabled accounts
-                    queryRequest.addSearchSentence(new QueryAssembler()
-                            .addPhrase("userAccountControl", PhraseOperator.EQUAL, "512")
-                            .addPhrase("userAccountControl", PhraseOperator.EQUAL, "66048")
-                            .closeSentence(SentenceOperator.OR));
-
-                    // get all fields needed for entities person and ad account
-                    queryRequest.addRequestedField(Global.ADAttributes.DISPLAY_NAME);
-                    queryRequest.addRequestedField(Global.ADAttributes.DESCRIPTION);
-                    queryRequest.addRequestedField(Global.ADAttributes.ACCOUNT_EXPIRES);
-                    queryRequest.addRequestedField(Global.ADAttributes.SID);
-                    queryRequest.addRequestedField(FieldType.LOGON_NAME);
-                    queryRequest.addRequestedField(FieldType.DISTINGUISHED_NAME);
-                    queryRequest.addRequestedField(FieldType.FIRST_NAME);
-                    queryRequest.addRequestedField(FieldType.LAST_NAME);
-                    queryRequest.addRequestedField(FieldType.DEPARTMENT);
-                    queryRequest.addRequestedField(FieldType.EMAIL);
-                    queryRequest.addRequestedField(FieldType.PHONE_NUMBER);
-                    queryRequest.addRequestedField(FieldType.MOBILE_PHONE);
-                    queryRequest.addRequestedField(FieldType.USER_ACCOUNT_CONTROL);
-                    queryRequest.addRequestedField(FieldType.CREATION_TIME); // possible employee entry date
-                    Connector connector = new Connector(queryRequest);
-                    QueryResponse queryResponse = connector.execute();
-                    logger.debug(queryResponse.getAll().size() + " user objects queried from AD.");
-                    return queryResponse.getAll();
-                } catch (Exception exception) {
-                    logger.debug("Error occurred while loading users from AD.", exception);
-                }
+        QueryRequest queryRequest = createQueryRequest();
+        if (queryRequest != null) {
+            try {
+                queryRequest.setObjectType(ObjectType.USER);
+                //TODO: set filter by config, e.g. load only enabled accounts
+                queryRequest.addSearchSentence(new QueryAssembler()
+                        .addPhrase("userAccountControl", PhraseOperator.EQUAL, "512")
+                        .addPhrase("userAccountControl", PhraseOperator.EQUAL, "66048")
+                        .closeSentence(SentenceOperator.OR));
+
+                // get all fields needed for entities person and ad account
+                queryRequest.addRequestedField(Global.ADAttributes.DISPLAY_NAME);
+                queryRequest.addRequestedField(Global.ADAttributes.DESCRIPTION);
+                queryRequest.addRequestedField(Global.ADAttributes.ACCOUNT_EXPIRES);
+                queryRequest.addRequestedField(Global.ADAttributes.SID);
+                queryRequest.addRequestedField(FieldType.LOGON_NAME);
+                queryRequest.addRequestedField(FieldType.DISTINGUISHED_NAME);
+                queryRequest.addRequestedField(FieldType.FIRST_NAME);
+                queryRequest.addRequestedField(FieldType.LAST_NAME);
+                queryRequest.addRequestedField(FieldType.DEPARTMENT);
+                queryRequest.addRequestedField(FieldType.EMAIL);
+                queryRequest.addRequestedField(FieldType.PHONE_NUMBER);
+                queryRequest.addRequestedField(FieldType.MOBILE_PHONE);
+                queryRequest.addRequestedField(FieldType.USER_ACCOUNT_CONTROL);
+                queryRequest.addRequestedField(FieldType.CREATION_TIME); // possible employee entry date
+                Connector connector = new Connector(queryRequest);
+                QueryResponse queryResponse = connector.execute();
+                logger.debug(queryResponse.getAll().size() + " user objects queried from AD.");
+                return queryResponse.getAll();
+            } catch (Exception exception) {
+                logger.debug("Error occurred while loading users from AD.", exception);
             }
         }
-        return new ArrayList<>();
+        return null;
     }
 
+    @Nullable
     private List<EntityResponse> getADGroupEntities() {
-        if (isConnected) {
-            QueryRequest queryRequest = createQueryRequest();
-            if (queryRequest != null) {
-                try {
-                    queryRequest.setObjectType(ObjectType.GROUP);
-                    // get all fields needed for entity ad group
-                    queryRequest.addRequestedField(Global.ADAttributes.GROUP_TYPE);
-                    queryRequest.addRequestedField(Global.ADAttributes.DESCRIPTION);
-                    queryRequest.addRequestedField(Global.ADAttributes.SID);
-                    queryRequest.addRequestedField(FieldType.COMMON_NAME);
-                    queryRequest.addRequestedField(FieldType.DISTINGUISHED_NAME);
-                    queryRequest.addRequestedField(FieldType.MEMBER);
-                    Connector connector = new Connector(queryRequest);
-                    QueryResponse queryResponse = connector.execute();
-                    logger.debug(queryResponse.getAll().size() + " group objects queried from AD.");
-                    return queryResponse.getAll();
-                } catch (Exception exception) {
-                    logger.debug("Error occurred while loading groups from AD.", exception);
-                }
+        QueryRequest queryRequest = createQueryRequest();
+        if (queryRequest != null) {
+            try {
+                queryRequest.setObjectType(ObjectType.GROUP);
+                // get all fields needed for entity ad group
+                queryRequest.addRequestedField(Global.ADAttributes.GROUP_TYPE);
+                queryRequest.addRequestedField(Global.ADAttributes.DESCRIPTION);
+                queryRequest.addRequestedField(Global.ADAttributes.SID);
+                queryRequest.addRequestedField(FieldType.COMMON_NAME);
+                queryRequest.addRequestedField(FieldType.DISTINGUISHED_NAME);
+                queryRequest.addRequestedField(FieldType.MEMBER);
+                Connector connector = new Connector(queryRequest);
+                QueryResponse queryResponse = connector.execute();
+                logger.debug(queryResponse.getAll().size() + " group objects queried from AD.");
+                return queryResponse.getAll();
+            } catch (Exception exception) {
+                logger.debug("Error occurred while loading groups from AD.", exception);
             }
         }
-        return new ArrayList<>();
+        return null;
     }
 
     private List<ADGroup> getADGroupsForUser(ADUser adUser) {
         List<ADGroup> adGroups = new ArrayList<>();
-        if (isConnected) {
-            try {
-                // get assigned AD groups of the AD user
-                List<String> logonNames = new ArrayList<>(1);
-                logonNames.add(adUser.getLogonName());
-                List<EntityResponse> entityResponses = DirectoryConnectorService.isMemberOf(logonNames, endpoint);
-                for (EntityResponse entityResponse: entityResponses) {
-                    List<Field> fields = entityResponse.getValue();
-                    for (Field field : fields) {
-                        FieldType fieldType = field.getType(); // can be null
-                        if (fieldType != null) {
-                            if (fieldType.equals(FieldType.COMMON_NAME)) {
-                                String adGroupName = (String) field.getValue();
-                                // add AD group with this name to the list
-                                Optional<ADGroup> optionalADGroup = adGroupRepository.findFirstByName(adGroupName);
-                                optionalADGroup.ifPresent(adGroups::add);
-                            }
+        Endpoint endpoint = getConnectedEndpoint();
+        if (endpoint != null) {
+            for (String adGroupName : getADGroupNamesForUser(adUser, endpoint)) {
+                // add AD group with this name to the list
+                Optional<ADGroup> optionalADGroup = adGroupRepository.findFirstByName(adGroupName);
+                optionalADGroup.ifPresent(adGroups::add);
+            }
+        }
+        return adGroups;
+    }
+
+    private List<String> getADGroupNamesForUser(ADUser adUser, Endpoint endpoint) {
+        List<String> adGroupNames = new ArrayList<>();
+        try {
+            // get assigned AD groups of the AD user
+            List<String> logonNames = new ArrayList<>(1);
+            logonNames.add(adUser.getLogonName());
+            List<EntityResponse> entityResponses = DirectoryConnectorService.isMemberOf(logonNames, endpoint);
+            for (EntityResponse entityResponse: entityResponses) {
+                List<Field> fields = entityResponse.getValue();
+                for (Field field : fields) {
+                    FieldType fieldType = field.getType(); // can be null
+                    if (fieldType != null) {
+                        if (fieldType.equals(FieldType.COMMON_NAME)) {
+                            adGroupNames.add((String) field.getValue());
                         }
                     }
                 }
-            } catch (Exception exception) {
-                logger.debug("Error occurred while getting groups for user \""
-                        + adUser.getDistinguishedName() +  " from AD.", exception);
-                return adGroups;
             }
+        } catch (Exception exception) {
+            logger.debug("Error occurred while getting groups for user \""
+                    + adUser.getDistinguishedName() +  " from AD.", exception);
         }
-        return adGroups;
+        return adGroupNames;
     }
 
-    private boolean[] createOrUpdateADUser(EntityResponse response) {
+    private boolean[] createOrUpdateADUser(EntityResponse response, String actor) {
         boolean[] returnValues = new boolean[2]; // {added, updated}
         ADUser updatedADUser = new ADUser();
         try {
@@ -1110,16 +1481,16 @@ public class IdentityService {
                     adUser.setLogonName(updatedADUser.getLogonName());
                     adUser.setAdminAccount(isAdminByName(updatedADUser.getLogonName()));
                     adUserRepository.save(adUser);
-                    addLogEntry("AD user \"" + updatedADUser.getLogonName() + "\" updated.");
+                    addLogEntry(actor, "AD user \"" + updatedADUser.getLogonName() + "\" updated.");
                     returnValues[1] = true; // update
                 } else {
                     adUserRepository.save(updatedADUser);
-                    addLogEntry("AD user \"" + updatedADUser.getLogonName() + "\" added.");
+                    addLogEntry(actor, "AD user \"" + updatedADUser.getLogonName() + "\" added.");
                     returnValues[0] = true; // add
                 }
             } else {
                 adUserRepository.save(updatedADUser);
-                addLogEntry("AD user \"" + updatedADUser.getLogonName() + "\" added.");
+                addLogEntry(actor, "AD user \"" + updatedADUser.getLogonName() + "\" added.");
                 returnValues[0] = true; // add
             }
         } catch (Exception exception) {
@@ -1129,7 +1500,7 @@ public class IdentityService {
         return returnValues;
     }
 
-    private boolean[] createOrUpdateADGroup(EntityResponse response) {
+    private boolean[] createOrUpdateADGroup(EntityResponse response, String actor) {
         boolean[] returnValues = new boolean[2]; // {added, updated}
         ADGroup updatedADGroup = new ADGroup();
         try {
@@ -1193,16 +1564,16 @@ public class IdentityService {
                     adGroup.setDescription(updatedADGroup.getDescription());
                     // save as updated object
                     adGroupRepository.save(adGroup);
-                    addLogEntry("AD group \"" + updatedADGroup.getName() + "\" updated.");
+                    addLogEntry(actor, "AD group \"" + updatedADGroup.getName() + "\" updated.");
                     returnValues[1] = true; // update
                 } else {
                     adGroupRepository.save(updatedADGroup);
-                    addLogEntry("AD group \"" + updatedADGroup.getName() + "\" added.");
+                    addLogEntry(actor, "AD group \"" + updatedADGroup.getName() + "\" added.");
                     returnValues[0] = true; // add
                 }
             } else {
                 adGroupRepository.save(updatedADGroup);
-                addLogEntry("AD group \"" + updatedADGroup.getName() + "\" added.");
+                addLogEntry(actor, "AD group \"" + updatedADGroup.getName() + "\" added.");
                 returnValues[0] = true; // add
             }
         } catch (Exception exception) {
@@ -1211,7 +1582,7 @@ public class IdentityService {
         return returnValues;
     }
 
-    private boolean[] createOrUpdatePerson(EntityResponse response) {
+    private boolean[] createOrUpdatePerson(EntityResponse response, String actor) {
         boolean[] returnValues = new boolean[2]; // {added, updated}
         Person updatedPerson = new Person();
         try {
@@ -1314,16 +1685,16 @@ public class IdentityService {
                     person.setExitDate(updatedPerson.getExitDate());
                     // save as updated object
                     personRepository.save(person);
-                    addLogEntry("Person \"" + updatedPerson.getCentralAccountName() + "\" updated.");
+                    addLogEntry(actor, "Person \"" + updatedPerson.getCentralAccountName() + "\" updated.");
                     returnValues[1] = true; // update
                 } else {
                     personRepository.save(updatedPerson);
-                    addLogEntry("Person \"" + updatedPerson.getCentralAccountName() + "\" added.");
+                    addLogEntry(actor, "Person \"" + updatedPerson.getCentralAccountName() + "\" added.");
                     returnValues[0] = true; // add
                 }
             } else {
                 personRepository.save(updatedPerson);
-                addLogEntry("Person \"" + updatedPerson.getCentralAccountName() + "\" added.");
+                addLogEntry(actor, "Person \"" + updatedPerson.getCentralAccountName() + "\" added.");
                 returnValues[0] = true; // add
             }
         } catch (Exception exception) {
@@ -1333,6 +1704,194 @@ public class IdentityService {
         return returnValues;
     }
 
+    /**
+     * Process the entries of an import in chunks. Each chunk is committed in a short transaction
+     * together with the checkpoint, so an interrupted import continues after the last committed entry.
+     * If a chunk can not be committed, the entries of the chunk are committed one by one.
+     * The entries which can not be committed are skipped and counted as failed in the context.
+     *
+     * @return the count of added and updated entries or null, if the import was cancelled
+     */
+    @Nullable
+    private <T> int[] processInChunks(JobContext context, ImportCheckpoint checkpoint, int phase,
+                                      List<T> entries, Function<T, String> keyFunction,
+                                      Function<T, boolean[]> action) {
+        return processChunks(context, checkpoint, phase, entries, keyFunction, chunk -> processChunk(chunk, action));
+    }
+
+    /**
+     * Like {@link #processInChunks}, but the action processes all entries of a chunk at once,
+     * e.g. with bulk updates. The action must return the counts {added, updated} of the chunk.
+     */
+    private <T> int[] processChunks(JobContext context, ImportCheckpoint checkpoint, int phase,
+                                    List<T> entries, Function<T, String> keyFunction,
+                                    Function<List<T>, int[]> chunkAction) {
+        int[] counts = new int[2]; // {added, updated}
+        if (checkpoint.getPhase() > phase) {
+            return counts; // phase completed by a previous run
+        }
+        // process in the order of the key, skip the entries committed by a previous run
+        String lastKey = checkpoint.getPhase() == phase ? checkpoint.getLastKey() : "";
+        if (!lastKey.isEmpty()) {
+            logger.debug("Resume import " + checkpoint.getImportType() + " in phase " + phase + " after " + lastKey);
+        }
+        Map<String, T> pendingEntries = new TreeMap<>();
+        for (T entry : entries) {
+            String key = keyFunction.apply(entry);
+            if (key.compareTo(lastKey) > 0) {
+                pendingEntries.putIfAbsent(key, entry);
+            }
+        }
+        List<Map.Entry<String, T>> pending = new ArrayList<>(pendingEntries.entrySet());
+        context.startPhase(phase, pending.size());
+        for (int fromIndex = 0; fromIndex < pending.size(); fromIndex += importChunkSize) {
+            if (context.isCancelled()) {
+                return null;
+            }
+            List<Map.Entry<String, T>> chunk = pending.subList(fromIndex,
+                    Math.min(fromIndex + importChunkSize, pending.size()));
+            String chunkLastKey = chunk.get(chunk.size() - 1).getKey();
+            int[] chunkCounts;
+            try {
+                chunkCounts = transactionTemplate.execute(status -> {
+                    int[] values = chunkAction.apply(chunk.stream().map(Map.Entry::getValue).toList());
+                    saveCheckpoint(checkpoint, phase, chunkLastKey);
+                    return values;
+                });
+            } catch (RuntimeException exception) {
+                // e.g. a constraint violation or an unexpected value of an AD attribute
+                logger.debug("Commit of import chunk failed, commit the entries one by one.", exception);
+                chunkCounts = new int[2];
+                for (Map.Entry<String, T> entry : chunk) {
+                    try {
+                        int[] values = transactionTemplate.execute(status ->
+                                chunkAction.apply(List.of(entry.getValue())));
+                        if (values != null) {
+                            chunkCounts[0] += values[0];
+                            chunkCounts[1] += values[1];
+                        }
+                    } catch (RuntimeException entryException) {
+                        // the entry is skipped and counted, the import continues
+                        logger.debug("Import of entry " + entry.getKey() + " failed.", entryException);
+                        context.failed();
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status -> saveCheckpoint(checkpoint, phase, chunkLastKey));
+            }
+            if (chunkCounts != null) {
+                counts[0] += chunkCounts[0];
+                counts[1] += chunkCounts[1];
+                for (int i = 0; i < chunkCounts[0]; i++) {
+                    context.added();
+                }
+                for (int i = 0; i < chunkCounts[1]; i++) {
+                    context.updated();
+                }
+            }
+            context.processed(chunk.size());
+        }
+        return counts;
+    }
+
+    // the entries which could not be saved are counted in the context of the job
+    private static String withFailedCount(String resultMessage, JobContext context) {
+        int failedCount = context.getFailedCount();
+        if (failedCount == 0) {
+            return resultMessage;
+        }
+        return resultMessage + ", " + failedCount + " entries could not be saved";
+    }
+
+    private <T> int[] processChunk(List<T> chunk, Function<T, boolean[]> action) {
+        int[] counts = new int[2]; // {added, updated}
+        for (T entry : chunk) {
+            boolean[] returnValues = action.apply(entry);
+            if (returnValues[0]) {
+                counts[0]++;
+            }
+            if (returnValues[1]) {
+                counts[1]++;
+            }
+        }
+        return counts;
+    }
+
+    private ImportCheckpoint loadCheckpoint(int importType) {
+        Optional<ImportCheckpoint> optionalCheckpoint = importCheckpointRepository.findFirstByImportType(importType);
+        if (optionalCheckpoint.isPresent()) {
+            return optionalCheckpoint.get();
+        }
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setImportType(importType);
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(ImportCheckpoint checkpoint, int phase, String lastKey) {
+        checkpoint.setPhase(phase);
+        checkpoint.setLastKey(lastKey);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        ImportCheckpoint savedCheckpoint = importCheckpointRepository.save(checkpoint);
+        checkpoint.setId(savedCheckpoint.getId());
+    }
+
+    private void updateVersion(AbstractVersionedEntity entity, @Nullable AbstractVersionedEntity savedEntity) {
+        // the caller keeps its copy, e.g. in a form, the saved copy was updated on commit
+        if (savedEntity != null) {
+            entity.setId(savedEntity.getId());
+            entity.setVersion(savedEntity.getVersion());
+        }
+    }
+
+    // writes the difference between the join rows in the database and the edited ones,
+    // returns the ids of the roles with changed join rows
+    private Set<Integer> saveRoleMembers(Set<RoleMembershipRepository.RoleMember> storedRoleMembers,
+                                         Set<RoleMembershipRepository.RoleMember> roleMembers,
+                                         Consumer<Collection<RoleMembershipRepository.RoleMember>> insert,
+                                         Consumer<Collection<RoleMembershipRepository.RoleMember>> delete) {
+        List<RoleMembershipRepository.RoleMember> addedRoleMembers = new ArrayList<>(roleMembers);
+        addedRoleMembers.removeAll(storedRoleMembers);
+        List<RoleMembershipRepository.RoleMember> removedRoleMembers = new ArrayList<>(storedRoleMembers);
+        removedRoleMembers.removeAll(roleMembers);
+        insert.accept(addedRoleMembers);
+        delete.accept(removedRoleMembers);
+        Set<Integer> changedRoleIds = new HashSet<>();
+        addedRoleMembers.forEach(roleMember -> changedRoleIds.add(roleMember.roleId()));
+        removedRoleMembers.forEach(roleMember -> changedRoleIds.add(roleMember.roleId()));
+        return changedRoleIds;
+    }
+
+    private void incrementRoleVersions(Set<Integer> roleIds) {
+        // the assignments are part of the roles, an open form of a role must not overwrite them
+        if (!roleIds.isEmpty()) {
+            roleRepository.incrementVersion(roleIds);
+        }
+    }
+
+    private void deleteCheckpoint(ImportCheckpoint checkpoint) {
+        // the import was completed
+        if (checkpoint.getId() != null) {
+            importCheckpointRepository.deleteById(checkpoint.getId());
+        }
+    }
+
+    private String getObjectSID(EntityResponse response) {
+        for (Field field : response.getValue()) {
+            if (field.getName().equalsIgnoreCase(Global.ADAttributes.SID)) {
+                return convertSidToString((byte[]) field.getValue());
+            }
+        }
+        return "";
+    }
+
+    private String getCheckpointKey(AbstractEntity entity) {
+        return getCheckpointKey(entity.getId());
+    }
+
+    private String getCheckpointKey(Integer id) {
+        // the ids are padded, so the keys can be compared as strings
+        return String.format("%012d", id);
+    }
+
     // @see https://administrator.de/forum/mit-java-sid-des-angemeldeten-benutzers-auslesen-und-in-variable-schreiben-336662.html
     private String convertSidToString(byte[] sid) {
         try {
@@ -1461,7 +2020,50 @@ public class IdentityService {
                 || adGroup.getGroupArea() == Global.ADGroupArea.UNIVERSAL);
     }
 
-    private void addLogEntry(String message) {
-        logger.debug("This action was triggered by \"" + sessionUserName + "\": " + message);
+    @Nullable
+    private Integer getRoleResourceId(@Nullable RoleResource roleResource) {
+        if (roleResource == null || roleResource.getResourceType() == Global.ROLE_RESOURCE.DEFAULT_ROLE) {
+            return null; // the default resource shows all roles
+        }
+        return roleResource.getId();
+    }
+
+    private static RoleResource createRoleResource(int type, String name, String viewClassName,
+                                                   String addResourceTranslationKey,
+                                                   String deleteResourcesTranslationKey) {
+        RoleResource roleResource = new RoleResource();
+        roleResource.setResourceType(type);
+        roleResource.setName(name);
+        roleResource.setDescription(name);
+        roleResource.setViewClassName(viewClassName);
+        roleResource.setAddResourceTranslationKey(addResourceTranslationKey);
+        roleResource.setDeleteResourcesTranslationKey(deleteResourcesTranslationKey);
+        return roleResource;
+    }
+
+    private Pageable withDefaultSort(Pageable pageable, String... properties) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            sort = Sort.by(Arrays.stream(properties).map(property -> Sort.Order.asc(property).ignoreCase()).toList());
+        }
+        // the id makes the order unique, so the pages do not overlap
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by("id")));
+    }
+
+    private void addLogEntry(String actor, String message) {
+        logger.debug("This action was triggered by \"" + actor + "\": " + message);
+    }
+
+    /**
+     * Immutable snapshot of the connection to the Active Directory.
+     * The endpoint is never changed after creation, a changed configuration creates a new snapshot.
+     */
+    private record DirectoryConnection(@Nullable Endpoint endpoint, boolean connected) {
+    }
+
+    /**
+     * The person gets the role, because a managed AD user of the person is a member of the AD group.
+     */
+    record RoleAssignment(int personId, int roleId, int adGroupId, String adGroupName) {
     }
 }
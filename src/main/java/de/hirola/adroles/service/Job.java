@@ -0,0 +1,22 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.util.ServiceResult;
+
+/**
+ * A unit of background work, e.g. an import from the Active Directory.
+ * Jobs are executed by the {@link JobService} and should check
+ * {@link JobContext#isCancelled()} regularly.
+ */
+@FunctionalInterface
+public interface Job {
+
+    ServiceResult run(JobContext context) throws Exception;
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state of a running job: cancellation flag, maximum run time, row counts and progress.
+ * The counts are stored in the job history when the job has finished.
+ * <p>The progress is published to the listener at most once per progress interval,
+ * updates in between are coalesced.</p>
+ */
+public final class JobContext {
+    private final int jobType;
+    private final String startedBy;
+    private volatile boolean cancelled;
+    private final long maxRunTimeNanos;
+    private volatile long deadlineNanos;
+    private final AtomicInteger added = new AtomicInteger();
+    private final AtomicInteger updated = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final JobProgressListener progressListener;
+    private final long progressIntervalNanos;
+    private final AtomicLong lastProgressNanos = new AtomicLong();
+    private final AtomicInteger phaseProcessed = new AtomicInteger();
+    private volatile int phase, phaseTotal;
+    private volatile long phaseStartNanos;
+
+    JobContext(int jobType, String startedBy, @Nullable Duration maxRunTime,
+               @Nullable JobProgressListener progressListener, long progressIntervalMillis) {
+        this.jobType = jobType;
+        this.startedBy = startedBy;
+        maxRunTimeNanos = maxRunTime == null ? 0L : maxRunTime.toNanos();
+        this.progressListener = progressListener;
+        progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis);
+    }
+
+    public int getJobType() {
+        return jobType;
+    }
+
+    public String getStartedBy() {
+        return startedBy;
+    }
+
+    /**
+     * A job should stop as soon as possible if this returns true.
+     *
+     * @return true, if the job was cancelled or the maximum run time is exceeded
+     */
+    public boolean isCancelled() {
+        return cancelled || isTimedOut();
+    }
+
+    public boolean isTimedOut() {
+        long deadline = deadlineNanos;
+        return deadline != 0L && System.nanoTime() - deadline > 0L;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    void started() {
+        if (maxRunTimeNanos > 0L) {
+            // 0 is reserved for "no deadline"
+            deadlineNanos = (System.nanoTime() + maxRunTimeNanos) | 1L;
+        }
+    }
+
+    public void added() {
+        added.incrementAndGet();
+    }
+
+    public void updated() {
+        updated.incrementAndGet();
+    }
+
+    /**
+     * Count an entry which could not be saved, the job continues with the next entry.
+     */
+    public void failed() {
+        failed.incrementAndGet();
+    }
+
+    public void processed() {
+        processed(1);
+    }
+
+    public void processed(int count) {
+        processed.addAndGet(count);
+        int processedInPhase = phaseProcessed.addAndGet(count);
+        if (progressListener == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastProgressNanos.get();
+        if (now - last >= progressIntervalNanos && lastProgressNanos.compareAndSet(last, now)) {
+            publishProgress(processedInPhase, now);
+        }
+    }
+
+    /**
+     * Start a new phase of the job, e.g. the import of the groups after the import of the users.
+     *
+     * @param phase of the job, see {@link de.hirola.adroles.Global.IMPORT_PHASE}
+     * @param total count of entries to process in this phase
+     */
+    public void startPhase(int phase, int total) {
+        this.phase = phase;
+        phaseTotal = total;
+        phaseProcessed.set(0);
+        phaseStartNanos = System.nanoTime();
+        if (progressListener != null) {
+            lastProgressNanos.set(phaseStartNanos);
+            publishProgress(0, phaseStartNanos);
+        }
+    }
+
+    public int getAddedCount() {
+        return added.get();
+    }
+
+    public int getUpdatedCount() {
+        return updated.get();
+    }
+
+    public int getProcessedCount() {
+        return processed.get();
+    }
+
+    public int getFailedCount() {
+        return failed.get();
+    }
+
+    private void publishProgress(int processedInPhase, long now) {
+        double elapsedSeconds = (now - phaseStartNanos) / 1_000_000_000.0;
+        double ratePerSecond = elapsedSeconds > 0 ? processedInPhase / elapsedSeconds : 0.0;
+        long etaSeconds = ratePerSecond > 0 ? (long) (Math.max(0, phaseTotal - processedInPhase) / ratePerSecond) : -1L;
+        progressListener.onProgress(new JobProgress(jobType, phase, processedInPhase, phaseTotal,
+                ratePerSecond, etaSeconds));
+    }
+}
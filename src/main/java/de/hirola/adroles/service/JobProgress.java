@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+/**
+ * A snapshot of the progress of a running job.
+ *
+ * @param jobType of the job, see {@link de.hirola.adroles.Global.JOB_TYPE}
+ * @param phase of the job, see {@link de.hirola.adroles.Global.IMPORT_PHASE}
+ * @param processed count of processed entries in the phase
+ * @param total count of entries in the phase
+ * @param ratePerSecond processed entries per second in the phase
+ * @param etaSeconds estimated remaining time of the phase, -1 if unknown
+ */
+public record JobProgress(int jobType, int phase, int processed, int total, double ratePerSecond, long etaSeconds) {
+
+    /**
+     * @return the progress of the phase between 0 and 1
+     */
+    public double getFraction() {
+        if (total <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, (double) processed / total);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+/**
+ * Receives the progress of a job. The listener is called by the thread of the job
+ * and must not block, e.g. a view should only hand over the progress to its UI.
+ */
+@FunctionalInterface
+public interface JobProgressListener {
+
+    void onProgress(JobProgress progress);
+}
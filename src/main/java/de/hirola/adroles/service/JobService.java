@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import com.vaadin.flow.component.UI;
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.ReadWriteRoutingDataSource;
+import de.hirola.adroles.data.entity.JobRecord;
+import de.hirola.adroles.data.repository.JobRecordRepository;
+import de.hirola.adroles.security.SecurityService;
+import de.hirola.adroles.util.ServiceEvent;
+import de.hirola.adroles.util.ServiceResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long-running jobs like the imports from the Active Directory on a bounded executor.
+ * <p>Only one job of each type can be queued or running at the same time.
+ * Every job is recorded in the job history with duration and row counts.</p>
+ */
+@Service
+public class JobService {
+    private final Logger logger = LoggerFactory.getLogger(JobService.class);
+    private final JobRecordRepository jobRecordRepository;
+    private final EventService eventService;
+    private final SecurityService securityService;
+    private final StatisticsService statisticsService;
+    private final ThreadPoolExecutor executor;
+    private final long progressIntervalMillis;
+    private final Map<Integer, ActiveJob> activeJobs = new ConcurrentHashMap<>();
+
+    public JobService(JobRecordRepository jobRecordRepository,
+                      EventService eventService,
+                      SecurityService securityService,
+                      StatisticsService statisticsService,
+                      @Value("${adroles.jobs.threads:1}") int threads,
+                      @Value("${adroles.jobs.queueCapacity:10}") int queueCapacity,
+                      @Value("${adroles.jobs.progressIntervalMillis:500}") long progressIntervalMillis) {
+        this.jobRecordRepository = jobRecordRepository;
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.eventService = eventService;
+        this.securityService = securityService;
+        this.statisticsService = statisticsService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "adroles-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue a job for execution.
+     *
+     * @param jobType of the job, see {@link Global.JOB_TYPE}
+     * @param job to run
+     * @return false, if a job of this type is already queued or running or the queue is full
+     */
+    public boolean submit(int jobType, Job job) {
+        return submit(jobType, job, null);
+    }
+
+    /**
+     * Queue a job for execution and report the progress to the initiating session.
+     *
+     * @param jobType of the job, see {@link Global.JOB_TYPE}
+     * @param job to run
+     * @param progressListener receives the throttled progress of the job, can be null
+     * @return false, if a job of this type is already queued or running or the queue is full
+     */
+    public boolean submit(int jobType, Job job, @Nullable JobProgressListener progressListener) {
+        return submit(jobType, job, securityService.getAuthenticatedUserName(), null, progressListener);
+    }
+
+    /**
+     * Queue a job for execution.
+     *
+     * @param jobType of the job, see {@link Global.JOB_TYPE}
+     * @param job to run
+     * @param startedBy the name of the user or component which started the job
+     * @param maxRunTime after this time the job will be cancelled, can be null
+     * @param progressListener receives the throttled progress of the job, can be null
+     * @return false, if a job of this type is already queued or running or the queue is full
+     */
+    public boolean submit(int jobType, Job job, String startedBy, @Nullable Duration maxRunTime,
+                          @Nullable JobProgressListener progressListener) {
+        JobContext context = new JobContext(jobType, startedBy, maxRunTime, progressListener, progressIntervalMillis);
+        // the result is published to the session which started the job
+        ActiveJob activeJob = new ActiveJob(context, job, UI.getCurrent());
+        if (activeJobs.putIfAbsent(jobType, activeJob) != null) {
+            logger.debug("A job of type " + jobType + " is already queued or running.");
+            return false;
+        }
+        JobRecord jobRecord = activeJob.jobRecord;
+        jobRecord.setJobType(jobType);
+        jobRecord.setStartedBy(context.getStartedBy());
+        jobRecord.setState(Global.JOB_STATE.QUEUED);
+        jobRecord.setQueuedAt(LocalDateTime.now());
+        saveJobRecord(jobRecord);
+        try {
+            executor.execute(activeJob.task);
+            return true;
+        } catch (RejectedExecutionException exception) {
+            logger.debug("The job queue is full. Job of type " + jobType + " rejected.");
+            activeJobs.remove(jobType, activeJob);
+            jobRecord.setState(Global.JOB_STATE.REJECTED);
+            jobRecord.setResultMessage("The job queue is full.");
+            saveJobRecord(jobRecord);
+            return false;
+        }
+    }
+
+    /**
+     * Request the cancellation of a queued or running job.
+     * A running job stops at the next check of {@link JobContext#isCancelled()}.
+     *
+     * @param jobType of the job, see {@link Global.JOB_TYPE}
+     * @return false, if there is no queued or running job of this type
+     */
+    public boolean cancel(int jobType) {
+        ActiveJob activeJob = activeJobs.get(jobType);
+        if (activeJob == null) {
+            return false;
+        }
+        activeJob.context.cancel();
+        if (activeJob.started.compareAndSet(false, true)) {
+            // the job is still in the queue
+            executor.remove(activeJob.task);
+            finish(activeJob, Global.JOB_STATE.CANCELLED, new ServiceResult(false, "The job was cancelled."));
+        }
+        logger.debug("Cancellation of the job of type " + jobType + " requested by "
+                + securityService.getAuthenticatedUserName());
+        return true;
+    }
+
+    public boolean isActive(int jobType) {
+        return activeJobs.containsKey(jobType);
+    }
+
+    public List<JobRecord> findJobHistory() {
+        return jobRecordRepository.findTop100ByOrderByIdDesc();
+    }
+
+    public List<JobRecord> findJobHistory(int jobType) {
+        return jobRecordRepository.findByJobTypeOrderByIdDesc(jobType);
+    }
+
+    @PostConstruct
+    void closeInterruptedJobRecords() {
+        // jobs from a previous run of the app can not be continued
+        List<JobRecord> interruptedJobRecords = jobRecordRepository.findByStateIn(
+                List.of(Global.JOB_STATE.QUEUED, Global.JOB_STATE.RUNNING));
+        for (JobRecord jobRecord : interruptedJobRecords) {
+            jobRecord.setState(Global.JOB_STATE.FAILED);
+            jobRecord.setResultMessage("The job was interrupted by a restart of the app.");
+            saveJobRecord(jobRecord);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        activeJobs.values().forEach(activeJob -> activeJob.context.cancel());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(ActiveJob activeJob) {
+        if (!activeJob.started.compareAndSet(false, true)) {
+            return; // cancelled while queued
+        }
+        JobContext context = activeJob.context;
+        int state = Global.JOB_STATE.FAILED;
+        ServiceResult serviceResult = new ServiceResult(false, "The job failed.");
+        try {
+            context.started();
+            activeJob.jobRecord.setState(Global.JOB_STATE.RUNNING);
+            activeJob.jobRecord.setStartedAt(LocalDateTime.now());
+            saveJobRecord(activeJob.jobRecord);
+            // the jobs read their own writes, which may not have reached the replica yet
+            serviceResult = ReadWriteRoutingDataSource.onPrimary(() -> activeJob.job.run(context));
+            if (context.isTimedOut()) {
+                state = Global.JOB_STATE.TIMED_OUT;
+                serviceResult = new ServiceResult(false,
+                        "The maximum run time was exceeded. " + serviceResult.resultMessage);
+            } else if (context.isCancelled()) {
+                state = Global.JOB_STATE.CANCELLED;
+            } else if (serviceResult.operationSuccessful) {
+                state = Global.JOB_STATE.FINISHED;
+            } else {
+                state = Global.JOB_STATE.FAILED;
+            }
+        } catch (Exception exception) {
+            logger.debug("The job of type " + context.getJobType() + " failed.", exception);
+            state = Global.JOB_STATE.FAILED;
+            serviceResult = new ServiceResult(false, "The job failed: " + exception.getMessage());
+        } finally {
+            // the job type must be released in any case, otherwise no job of this type can be started again
+            try {
+                refreshStatistics();
+            } finally {
+                finish(activeJob, state, serviceResult);
+            }
+        }
+    }
+
+    private void refreshStatistics() {
+        // the dashboard shows the numbers of the import without loading them,
+        // they are read from the primary database, the replica may not contain the import yet
+        try {
+            ReadWriteRoutingDataSource.onPrimary(() -> {
+                statisticsService.recordHistory(statisticsService.refresh());
+                return null;
+            });
+        } catch (Exception exception) {
+            logger.debug("Error while recording the statistics after the job.", exception);
+        }
+    }
+
+    private void finish(ActiveJob activeJob, int state, ServiceResult serviceResult) {
+        JobContext context = activeJob.context;
+        JobRecord jobRecord = activeJob.jobRecord;
+        jobRecord.setState(state);
+        if (jobRecord.getStartedAt() == null) {
+            jobRecord.setStartedAt(LocalDateTime.now());
+        }
+        jobRecord.setFinishedAt(LocalDateTime.now());
+        jobRecord.setAddedCount(context.getAddedCount());
+        jobRecord.setUpdatedCount(context.getUpdatedCount());
+        jobRecord.setProcessedCount(context.getProcessedCount());
+        jobRecord.setFailedCount(context.getFailedCount());
+        jobRecord.setResultMessage(serviceResult.resultMessage);
+        saveJobRecord(jobRecord);
+        activeJobs.remove(context.getJobType(), activeJob);
+        logger.debug("Job of type " + context.getJobType() + " started by \"" + context.getStartedBy()
+                + "\" finished after " + jobRecord.getDurationMillis() + " ms: " + serviceResult.resultMessage);
+        if (activeJob.ui != null) {
+            eventService.publish(activeJob.ui, new ServiceEvent(this, serviceResult));
+        }
+    }
+
+    private void saveJobRecord(JobRecord jobRecord) {
+        try {
+            jobRecordRepository.save(jobRecord);
+        } catch (Exception exception) {
+            logger.debug("Error while saving the job history.", exception);
+        }
+    }
+
+    private final class ActiveJob {
+        private final JobContext context;
+        private final Job job;
+        private final UI ui;
+        private final JobRecord jobRecord = new JobRecord();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final FutureTask<Void> task;
+
+        private ActiveJob(JobContext context, Job job, @Nullable UI ui) {
+            this.context = context;
+            this.job = job;
+            this.ui = ui;
+            this.task = new FutureTask<>(() -> execute(this), null);
+        }
+    }
+}
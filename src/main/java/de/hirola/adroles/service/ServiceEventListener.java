@@ -0,0 +1,21 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.util.ServiceEvent;
+
+/**
+ * Receives the events of the services, e.g. the result of an import.
+ * The listener is called with the lock of the session, changes of components are allowed.
+ */
+@FunctionalInterface
+public interface ServiceEventListener {
+
+    void onServiceEvent(ServiceEvent event);
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.StatisticsRecord;
+import de.hirola.adroles.data.listener.StatisticsListener;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+import de.hirola.adroles.data.repository.StatisticsRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Provides the numbers of the dashboard as a cached snapshot.
+ * <p>The snapshot is loaded with one query and served until an entity is changed,
+ * {@link StatisticsListener} and the bulk changes {@link #invalidate} it.
+ * After a job, e.g. an import, the snapshot is loaded again at once.</p>
+ * <p>The snapshots after the jobs are recorded in the history, one record per hour.
+ * The hours of the past days are combined to days, the days of the past months to weeks,
+ * so the history stays small also after years. The latest records are cached
+ * and replaced, if a snapshot is recorded.</p>
+ */
+@Service
+public class StatisticsService {
+    private static final String STATISTICS_QUERY = "select "
+            + "(select count(*) from person), "
+            + "(select count(*) from role r join role_resource rr on rr.id = r.role_resource_id "
+            + "where rr.resource_type = ?), "
+            + "(select count(*) from role), "
+            + "(select count(*) from aduser), "
+            + "(select count(*) from adgroup), "
+            + "(select count(*) from adgroup where is_admin_group = true), "
+            + "(select count(*) from aduser where password_expires = false)";
+    private final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final StatisticsRecordRepository statisticsRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int hourlyDays;
+    private final int dailyDays;
+    private final int historySize;
+    // incremented on each change, a snapshot loaded before a change is outdated
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile CachedStatistics cachedStatistics;
+    // the history changes only with a recorded snapshot
+    private volatile List<StatisticsRecord> cachedHistory;
+
+    private record CachedStatistics(DashboardStatistics statistics, long changeCount) {
+    }
+
+    public StatisticsService(JdbcTemplate jdbcTemplate,
+                             StatisticsRecordRepository statisticsRecordRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${adroles.statistics.hourlyDays:7}") int hourlyDays,
+                             @Value("${adroles.statistics.dailyDays:90}") int dailyDays,
+                             @Value("${adroles.statistics.historySize:50}") int historySize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statisticsRecordRepository = statisticsRecordRepository;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        this.hourlyDays = Math.max(1, hourlyDays);
+        this.dailyDays = Math.max(7, dailyDays);
+        this.historySize = Math.max(1, historySize);
+    }
+
+    /**
+     * Get the numbers of the dashboard. The database is only queried,
+     * if the entities were changed since the last snapshot.
+     *
+     * @return the current snapshot
+     */
+    public DashboardStatistics getStatistics() {
+        CachedStatistics currentStatistics = cachedStatistics;
+        if (currentStatistics != null && currentStatistics.changeCount() == changeCount.get()) {
+            return currentStatistics.statistics();
+        }
+        return refresh();
+    }
+
+    /**
+     * Load the numbers of the dashboard with one query and cache them.
+     * The query runs in a read-only transaction, so it is sent to the replica, if one is configured.
+     * The jobs refresh the numbers on the primary database.
+     *
+     * @return the loaded snapshot
+     */
+    public DashboardStatistics refresh() {
+        // a change while loading makes the snapshot outdated
+        long loadedChangeCount = changeCount.get();
+        DashboardStatistics statistics = readOnlyTransactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject(STATISTICS_QUERY,
+                        (resultSet, rowNumber) -> new DashboardStatistics(resultSet.getLong(1), resultSet.getLong(2),
+                                resultSet.getLong(3), resultSet.getLong(4), resultSet.getLong(5),
+                                resultSet.getLong(6), resultSet.getLong(7)),
+                        Global.ROLE_RESOURCE.ORG_ROLE));
+        cachedStatistics = new CachedStatistics(statistics, loadedChangeCount);
+        logger.debug("Statistics of the dashboard loaded.");
+        return statistics;
+    }
+
+    /**
+     * Mark the snapshot as outdated, it is loaded again on the next request.
+     * Within a transaction the snapshot is marked after the commit.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeCount.incrementAndGet();
+            return;
+        }
+        // an import changes many entities in a transaction, the snapshot is marked once
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StatisticsService.this);
+                if (status == STATUS_COMMITTED) {
+                    changeCount.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Record the numbers in the history. A later snapshot in the same hour replaces the numbers of the hour.
+     *
+     * @param statistics to record, e.g. after an import
+     */
+    public void recordHistory(DashboardStatistics statistics) {
+        recordHistory(statistics, LocalDateTime.now());
+    }
+
+    /**
+     * Get the latest records of the history, the latest hours followed by the latest days and weeks.
+     * The count of records per resolution is limited, so the weeks are shown also if there
+     * are many hours and days. The database is only queried for the first request.
+     *
+     * @return the records, the latest first
+     */
+    public List<StatisticsRecord> getHistory() {
+        List<StatisticsRecord> history = cachedHistory;
+        if (history == null) {
+            history = loadHistory();
+        }
+        return history;
+    }
+
+    void recordHistory(DashboardStatistics statistics, LocalDateTime now) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+            StatisticsRecord statisticsRecord = findOrCreateRecord(Global.STATISTICS_RESOLUTION.HOURLY, hour);
+            statisticsRecord.setStatistics(statistics);
+            statisticsRecordRepository.save(statisticsRecord);
+            // the limits are the start of a period, so a period is combined completely
+            downsample(Global.STATISTICS_RESOLUTION.HOURLY, Global.STATISTICS_RESOLUTION.DAILY,
+                    now.truncatedTo(ChronoUnit.DAYS).minusDays(hourlyDays),
+                    recordedAt -> recordedAt.truncatedTo(ChronoUnit.DAYS));
+            downsample(Global.STATISTICS_RESOLUTION.DAILY, Global.STATISTICS_RESOLUTION.WEEKLY,
+                    getStartOfWeek(now.minusDays(dailyDays)), StatisticsService::getStartOfWeek);
+        });
+        loadHistory();
+    }
+
+    private List<StatisticsRecord> loadHistory() {
+        // the hours are later than the days and the days later than the weeks
+        List<StatisticsRecord> history = new ArrayList<>();
+        for (int resolution : List.of(Global.STATISTICS_RESOLUTION.HOURLY, Global.STATISTICS_RESOLUTION.DAILY,
+                Global.STATISTICS_RESOLUTION.WEEKLY)) {
+            history.addAll(statisticsRecordRepository.findByResolutionOrderByRecordedAtDesc(resolution,
+                    PageRequest.of(0, historySize)));
+        }
+        history = List.copyOf(history);
+        cachedHistory = history;
+        return history;
+    }
+
+    // the records before the limit are replaced by one record per period with the last numbers of the period
+    private void downsample(int resolution, int periodResolution, LocalDateTime limit,
+                            UnaryOperator<LocalDateTime> getStartOfPeriod) {
+        List<StatisticsRecord> statisticsRecords = statisticsRecordRepository
+                .findByResolutionAndRecordedAtBeforeOrderByRecordedAtAsc(resolution, limit);
+        if (statisticsRecords.isEmpty()) {
+            return;
+        }
+        Map<LocalDateTime, StatisticsRecord> lastRecords = new LinkedHashMap<>();
+        statisticsRecords.forEach(statisticsRecord ->
+                lastRecords.put(getStartOfPeriod.apply(statisticsRecord.getRecordedAt()), statisticsRecord));
+        lastRecords.forEach((startOfPeriod, lastRecord) -> {
+            StatisticsRecord periodRecord = findOrCreateRecord(periodResolution, startOfPeriod);
+            periodRecord.setStatistics(lastRecord);
+            statisticsRecordRepository.save(periodRecord);
+        });
+        statisticsRecordRepository.deleteAllInBatch(statisticsRecords);
+        logger.debug(statisticsRecords.size() + " statistics records combined to " + lastRecords.size() + ".");
+    }
+
+    private StatisticsRecord findOrCreateRecord(int resolution, LocalDateTime recordedAt) {
+        return statisticsRecordRepository.findFirstByResolutionAndRecordedAt(resolution, recordedAt)
+                .orElseGet(() -> {
+                    StatisticsRecord statisticsRecord = new StatisticsRecord();
+                    statisticsRecord.setResolution(resolution);
+                    statisticsRecord.setRecordedAt(recordedAt);
+                    return statisticsRecord;
+                });
+    }
+
+    private static LocalDateTime getStartOfWeek(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.ActiveDirectory;
+import de.hirola.adroles.data.repository.ActiveDirectoryRepository;
+import de.hirola.adroles.util.ServiceResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synchronizes the data with the Active Directory periodically.
+ * <p>The schedule is configured for each Active Directory. A scheduled run imports users, persons and groups
+ * and regenerates the roles. It is executed as a job of the {@link JobService}, so it does not block a session.
+ * If a synchronisation or an import is still queued or running, the scheduled run is skipped.</p>
+ */
+@Service
+public class SyncService {
+    private static final int[] IMPORT_JOB_TYPES = {
+            Global.JOB_TYPE.UPDATE_AD_USERS,
+            Global.JOB_TYPE.UPDATE_AD_GROUPS,
+            Global.JOB_TYPE.UPDATE_PERSONS,
+            Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS,
+            Global.JOB_TYPE.UPDATE_ORG_ROLES};
+    private final Logger logger = LoggerFactory.getLogger(SyncService.class);
+    private final ActiveDirectoryRepository activeDirectoryRepository;
+    private final IdentityService identityService;
+    private final JobService jobService;
+    private final ThreadPoolTaskScheduler taskScheduler;
+    private final Map<Integer, ScheduledFuture<?>> schedules = new ConcurrentHashMap<>();
+
+    public SyncService(ActiveDirectoryRepository activeDirectoryRepository,
+                       IdentityService identityService,
+                       JobService jobService) {
+        this.activeDirectoryRepository = activeDirectoryRepository;
+        this.identityService = identityService;
+        this.jobService = jobService;
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.setThreadNamePrefix("adroles-sync-");
+        taskScheduler.setDaemon(true);
+    }
+
+    public static boolean isValidCronExpression(String cronExpression) {
+        return cronExpression != null && CronExpression.isValidExpression(cronExpression);
+    }
+
+    /**
+     * Create, update or remove the schedule for the Active Directory.
+     * Must be called after the configuration was changed.
+     *
+     * @param activeDirectory with the configuration of the schedule
+     */
+    public void reschedule(ActiveDirectory activeDirectory) {
+        Integer id = activeDirectory.getId();
+        if (id == null) {
+            return; // not saved
+        }
+        ScheduledFuture<?> schedule = schedules.remove(id);
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+        if (!activeDirectory.isSyncEnabled()) {
+            logger.debug("Periodic synchronisation with " + activeDirectory.getDomainName() + " disabled.");
+            return;
+        }
+        String cronExpression = activeDirectory.getSyncCronExpression();
+        if (!isValidCronExpression(cronExpression)) {
+            logger.debug("Invalid schedule \"" + cronExpression + "\" for " + activeDirectory.getDomainName());
+            return;
+        }
+        int jitterMinutes = Math.max(0, activeDirectory.getSyncJitterMinutes());
+        int maxRunTimeMinutes = Math.max(0, activeDirectory.getSyncMaxRunTimeMinutes());
+        schedule = taskScheduler.schedule(() -> startWithJitter(id, jitterMinutes, maxRunTimeMinutes),
+                new CronTrigger(cronExpression));
+        if (schedule != null) {
+            schedules.put(id, schedule);
+        }
+        logger.debug("Periodic synchronisation with " + activeDirectory.getDomainName()
+                + " scheduled: " + cronExpression);
+    }
+
+    @PostConstruct
+    void scheduleAll() {
+        taskScheduler.initialize();
+        try {
+            List<ActiveDirectory> activeDirectories = activeDirectoryRepository.findAll();
+            activeDirectories.forEach(this::reschedule);
+        } catch (Exception exception) {
+            logger.debug("Error while scheduling the synchronisation with the Active Directory.", exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        taskScheduler.shutdown();
+    }
+
+    private void startWithJitter(int activeDirectoryId, int jitterMinutes, int maxRunTimeMinutes) {
+        if (jitterMinutes == 0) {
+            start(activeDirectoryId, maxRunTimeMinutes);
+            return;
+        }
+        long delaySeconds = ThreadLocalRandom.current().nextLong(jitterMinutes * 60L + 1);
+        taskScheduler.schedule(() -> start(activeDirectoryId, maxRunTimeMinutes),
+                Instant.now().plusSeconds(delaySeconds));
+    }
+
+    void start(int activeDirectoryId, int maxRunTimeMinutes) {
+        for (int jobType : IMPORT_JOB_TYPES) {
+            if (jobService.isActive(jobType)) {
+                logger.debug("Scheduled synchronisation skipped, an import is running.");
+                return;
+            }
+        }
+        Duration maxRunTime = maxRunTimeMinutes > 0 ? Duration.ofMinutes(maxRunTimeMinutes) : null;
+        if (!jobService.submit(Global.JOB_TYPE.SYNC_ACTIVE_DIRECTORY, this::synchronize,
+                Global.LOGGING_VALUES.SCHEDULER_USER_STRING, maxRunTime, null)) {
+            logger.debug("Scheduled synchronisation with the Active Directory (id " + activeDirectoryId
+                    + ") skipped, the previous synchronisation is still running.");
+        }
+    }
+
+    private ServiceResult synchronize(JobContext context) throws Exception {
+        // the persons import updates the accounts first, groups and roles depend on them
+        List<Job> steps = List.of(
+                identityService::updatePersonsFromAD,
+                identityService::updateGroupsFromAD,
+                identityService::updateRolesFromGroups,
+                identityService::updateOrgRolesFromPersons);
+        StringBuilder resultMessage = new StringBuilder();
+        for (Job step : steps) {
+            if (context.isCancelled()) {
+                return new ServiceResult(false, resultMessage.toString());
+            }
+            ServiceResult serviceResult = step.run(context);
+            resultMessage.append(serviceResult.resultMessage).append('\n');
+            if (!serviceResult.operationSuccessful) {
+                return new ServiceResult(false, resultMessage.toString());
+            }
+        }
+        return new ServiceResult(true, resultMessage.toString());
+    }
+}
@@ -12,9 +12,16 @@ public final class ServiceResult {
 
     public final boolean operationSuccessful;
     public final String resultMessage;
+    // the entity was changed by another user or an import in the meantime
+    public final boolean isConflict;
 
     public ServiceResult(boolean operationSuccessful, String resultMessage) {
+        this(operationSuccessful, resultMessage, false);
+    }
+
+    public ServiceResult(boolean operationSuccessful, String resultMessage, boolean isConflict) {
         this.operationSuccessful = operationSuccessful;
         this.resultMessage = resultMessage;
+        this.isConflict = isConflict;
     }
 }
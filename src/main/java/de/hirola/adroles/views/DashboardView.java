@@ -1,61 +1,63 @@
 package de.hirola.adroles.views;
 
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import de.hirola.adroles.Global;
-import de.hirola.adroles.data.entity.RoleResource;
-import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.data.entity.StatisticsRecord;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+import de.hirola.adroles.service.StatisticsService;
 
 import javax.annotation.security.PermitAll;
+import java.time.format.DateTimeFormatter;
 
 @Route(value = "", layout = MainLayout.class) // value = "" -> start page
 @PageTitle("Dashboard | AD-Roles")
 @PermitAll
 public class DashboardView extends VerticalLayout {
-    private final IdentityService identityService;
+    private final StatisticsService statisticsService;
 
-    public DashboardView(IdentityService identityService) {
-        this.identityService = identityService;
+    public DashboardView(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
         addClassName("dashboard-view");
         setSizeFull();
         addComponents();
     }
 
     private void addComponents() {
+        // the numbers are cached, the view is shown without queries
+        DashboardStatistics statistics = statisticsService.getStatistics();
+
         TextField personsCountLabel = new TextField(getTranslation("persons.sum"));
         personsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         personsCountLabel.setReadOnly(true);
-        personsCountLabel.setValue(String.valueOf(identityService.countPersons()));
+        personsCountLabel.setValue(String.valueOf(statistics.personCount()));
 
         TextField orgUnitsCountLabel = new TextField(getTranslation("org.sum"));
         orgUnitsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         orgUnitsCountLabel.setReadOnly(true);
-        RoleResource roleResource = identityService.getRoleResource(Global.ROLE_RESOURCE.ORG_ROLE);
-        if (roleResource != null) {
-            orgUnitsCountLabel.setValue(String.valueOf(identityService.countRoles(roleResource)));
-        } else {
-            orgUnitsCountLabel.setValue(getTranslation("notDetermined"));
-        }
+        orgUnitsCountLabel.setValue(String.valueOf(statistics.orgUnitCount()));
 
         TextField rolesCountLabel = new TextField(getTranslation("role.sum"));
         rolesCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         rolesCountLabel.setReadOnly(true);
-        rolesCountLabel.setValue(String.valueOf(identityService.countRoles(null)));
+        rolesCountLabel.setValue(String.valueOf(statistics.roleCount()));
 
         TextField adUsersCountLabel = new TextField(getTranslation("adUsers.sum"));
         adUsersCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adUsersCountLabel.setReadOnly(true);
-        adUsersCountLabel.setValue(String.valueOf(identityService.countADUsers()));
+        adUsersCountLabel.setValue(String.valueOf(statistics.adUserCount()));
 
         TextField adGroupsCountLabel = new TextField(getTranslation("adGroups.sum"));
         adGroupsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adGroupsCountLabel.setReadOnly(true);
-        adGroupsCountLabel.setValue(String.valueOf(identityService.countADGroups()));
+        adGroupsCountLabel.setValue(String.valueOf(statistics.adGroupCount()));
 
         // administrative groups
-        long countAdminGroups = identityService.countAdminGroups();
+        long countAdminGroups = statistics.adminGroupCount();
         TextField adminGroupCountLabel = new TextField(getTranslation("adAdminGroups.sum"));
         adminGroupCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adminGroupCountLabel.setReadOnly(true);
@@ -66,7 +68,7 @@ public class DashboardView extends VerticalLayout {
         }
 
         // password never expires
-        long countPasswordNeverExpires = identityService.countPasswordNotExpires();
+        long countPasswordNeverExpires = statistics.passwordNeverExpiresCount();
         TextField passwordNeverExpiresCountLabel = new TextField(getTranslation("passwordNeverExpires.sum"));
         passwordNeverExpiresCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         passwordNeverExpiresCountLabel.setReadOnly(true);
@@ -81,6 +83,39 @@ public class DashboardView extends VerticalLayout {
         labelLayout.addClassName("toolbar");
         labelLayout.setPadding(true);
 
-        add(labelLayout);
+        // the trend of the numbers, recorded after each job and combined to days and weeks later
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(getTranslation("dateFormat"));
+        DateTimeFormatter hourFormatter = DateTimeFormatter.ofPattern(getTranslation("dateFormat") + " HH:mm");
+        Grid<StatisticsRecord> historyGrid = new Grid<>();
+        historyGrid.addClassNames("statistics-history-grid");
+        historyGrid.addColumn(statisticsRecord -> getTranslation(getResolutionKey(statisticsRecord.getResolution())))
+                .setHeader(getTranslation("statistics.period"));
+        // the days and weeks start at midnight, only the hours have a time
+        historyGrid.addColumn(statisticsRecord ->
+                        (statisticsRecord.getResolution() == Global.STATISTICS_RESOLUTION.HOURLY
+                                ? hourFormatter : dateFormatter).format(statisticsRecord.getRecordedAt()))
+                .setHeader(getTranslation("statistics.recordedAt"));
+        historyGrid.addColumn(StatisticsRecord::getPersonCount).setHeader(getTranslation("persons.sum"));
+        historyGrid.addColumn(StatisticsRecord::getOrgUnitCount).setHeader(getTranslation("org.sum"));
+        historyGrid.addColumn(StatisticsRecord::getRoleCount).setHeader(getTranslation("role.sum"));
+        historyGrid.addColumn(StatisticsRecord::getADUserCount).setHeader(getTranslation("adUsers.sum"));
+        historyGrid.addColumn(StatisticsRecord::getADGroupCount).setHeader(getTranslation("adGroups.sum"));
+        historyGrid.addColumn(StatisticsRecord::getAdminGroupCount).setHeader(getTranslation("adAdminGroups.sum"));
+        historyGrid.addColumn(StatisticsRecord::getPasswordNeverExpiresCount)
+                .setHeader(getTranslation("passwordNeverExpires.sum"));
+        historyGrid.getColumns().forEach(col -> col.setAutoWidth(true));
+        // the history is cached like the numbers
+        historyGrid.setItems(statisticsService.getHistory());
+        historyGrid.setSizeFull();
+
+        add(labelLayout, new H3(getTranslation("statistics.history")), historyGrid);
+    }
+
+    private static String getResolutionKey(int resolution) {
+        return switch (resolution) {
+            case Global.STATISTICS_RESOLUTION.DAILY -> "statistics.daily";
+            case Global.STATISTICS_RESOLUTION.WEEKLY -> "statistics.weekly";
+            default -> "statistics.hourly";
+        };
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,8 @@ import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import de.hirola.adroles.Global;
-import de.hirola.adroles.data.entity.RoleResource;
-import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+import de.hirola.adroles.service.StatisticsService;
 
 import javax.annotation.security.PermitAll;
 
@@ -14,48 +14,46 @@ import javax.annotation.security.PermitAll;
 @PageTitle("First steps | AD-Roles")
 @PermitAll
 public class FirstStepsView extends VerticalLayout {
-    private final IdentityService identityService;
+    private final StatisticsService statisticsService;
 
-    public FirstStepsView(IdentityService identityService) {
-        this.identityService = identityService;
+    public FirstStepsView(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
         addClassName("first-steps-view");
         setSizeFull();
         addComponents();
     }
 
     private void addComponents() {
+        // the numbers are cached, the view is shown without queries
+        DashboardStatistics statistics = statisticsService.getStatistics();
+
         TextField personsCountLabel = new TextField(getTranslation("persons.sum"));
         personsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         personsCountLabel.setReadOnly(true);
-        personsCountLabel.setValue(String.valueOf(identityService.countPersons()));
+        personsCountLabel.setValue(String.valueOf(statistics.personCount()));
 
         TextField orgUnitsCountLabel = new TextField(getTranslation("org.sum"));
         orgUnitsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         orgUnitsCountLabel.setReadOnly(true);
-        RoleResource roleResource = identityService.getRoleResource(Global.ROLE_RESOURCE.ORG_ROLE);
-        if (roleResource != null) {
-            orgUnitsCountLabel.setValue(String.valueOf(identityService.countRoles(roleResource)));
-        } else {
-            orgUnitsCountLabel.setValue(getTranslation("notDetermined"));
-        }
+        orgUnitsCountLabel.setValue(String.valueOf(statistics.orgUnitCount()));
 
         TextField rolesCountLabel = new TextField(getTranslation("role.sum"));
         rolesCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         rolesCountLabel.setReadOnly(true);
-        rolesCountLabel.setValue(String.valueOf(identityService.countRoles(null)));
+        rolesCountLabel.setValue(String.valueOf(statistics.roleCount()));
 
         TextField adUsersCountLabel = new TextField(getTranslation("adUsers.sum"));
         adUsersCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adUsersCountLabel.setReadOnly(true);
-        adUsersCountLabel.setValue(String.valueOf(identityService.countADUsers()));
+        adUsersCountLabel.setValue(String.valueOf(statistics.adUserCount()));
 
         TextField adGroupsCountLabel = new TextField(getTranslation("adGroups.sum"));
         adGroupsCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adGroupsCountLabel.setReadOnly(true);
-        adGroupsCountLabel.setValue(String.valueOf(identityService.countADGroups()));
+        adGroupsCountLabel.setValue(String.valueOf(statistics.adGroupCount()));
 
         // administrative groups
-        long countAdminGroups = identityService.countAdminGroups();
+        long countAdminGroups = statistics.adminGroupCount();
         TextField adminGroupCountLabel = new TextField(getTranslation("adAdminGroups.sum"));
         adminGroupCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         adminGroupCountLabel.setReadOnly(true);
@@ -66,7 +64,7 @@ public class FirstStepsView extends VerticalLayout {
         }
 
         // password never expires
-        long countPasswordNeverExpires = identityService.countPasswordNotExpires();
+        long countPasswordNeverExpires = statistics.passwordNeverExpiresCount();
         TextField passwordNeverExpiresCountLabel = new TextField(getTranslation("passwordNeverExpires.sum"));
         passwordNeverExpiresCountLabel.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
         passwordNeverExpiresCountLabel.setReadOnly(true);
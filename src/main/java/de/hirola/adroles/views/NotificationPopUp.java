@@ -19,6 +19,7 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import de.hirola.adroles.Global;
+import de.hirola.adroles.util.ServiceResult;
 
 public enum NotificationPopUp {
     ;
@@ -51,6 +52,17 @@ public enum NotificationPopUp {
         notification.open();
     }
 
+    /**
+     * Show the error of a failed save. If the entity was changed by someone else in the meantime,
+     * the user is asked to reload it.
+     *
+     * @param serviceResult of the save
+     */
+    public static void showSaveError(ServiceResult serviceResult) {
+        String key = serviceResult.isConflict ? "error.save.conflict" : "error.save";
+        show(ERROR, UI.getCurrent().getTranslation(key));
+    }
+
     public static void show(int mode, String message, String subMessage) {
         final Notification notification = new Notification();
 
@@ -9,37 +9,109 @@
 package de.hirola.adroles.views;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.dialog.DialogVariant;
 import com.vaadin.flow.component.html.Div;
-import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.UIDetachedException;
 import de.hirola.adroles.Global;
+import de.hirola.adroles.service.JobProgress;
+import de.hirola.adroles.service.JobProgressListener;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 public final class ProgressModalDialog {
     private final Dialog dialog;
     private final ProgressBar progressBar;
     private final Div progressBarLabel, progressBarSubLabel;
+    private final Button cancelButton;
+    private Runnable cancelAction;
 
     public ProgressModalDialog(){
         dialog = new Dialog();
         progressBar = new ProgressBar();
         progressBarLabel = new Div();
         progressBarSubLabel = new Div();
+        cancelButton = new Button();
         buildProgressDialog();
     }
 
     public void open(String titleKey, String messageKey, String subMessageKey) {
+        open(titleKey, messageKey, subMessageKey, null);
+    }
+
+    /**
+     * Open the dialog with a button to cancel the running operation.
+     *
+     * @param cancelAction called if the user clicks the cancel button, can be null
+     */
+    public void open(String titleKey, String messageKey, String subMessageKey, Runnable cancelAction) {
+        this.cancelAction = cancelAction;
         dialog.setHeaderTitle(UI.getCurrent().getTranslation(titleKey));
         progressBarLabel.setText(UI.getCurrent().getTranslation(messageKey));
         progressBarSubLabel.setText(UI.getCurrent().getTranslation(subMessageKey));
+        cancelButton.setText(UI.getCurrent().getTranslation("cancel"));
+        cancelButton.setEnabled(true);
+        cancelButton.setVisible(cancelAction != null);
+        progressBar.setIndeterminate(true);
         dialog.open();
     }
 
+    /**
+     * Show the progress of the running job.
+     * Must be called from the UI thread, e.g. within {@link UI#access}.
+     *
+     * @param progress of the job
+     */
+    public void setProgress(JobProgress progress) {
+        if (progress == null || !dialog.isOpened()) {
+            return;
+        }
+        UI ui = UI.getCurrent();
+        if (progress.total() > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(progress.getFraction());
+        } else {
+            progressBar.setIndeterminate(true);
+        }
+        String eta = "?";
+        if (progress.etaSeconds() >= 0) {
+            eta = String.format("%d:%02d", progress.etaSeconds() / 60, progress.etaSeconds() % 60);
+        }
+        progressBarSubLabel.setText(ui.getTranslation("import.progress",
+                ui.getTranslation("import.phase." + progress.phase()),
+                progress.processed(), progress.total(), Math.round(progress.ratePerSecond()), eta));
+    }
+
+    /**
+     * Create a listener, which pushes the progress of a job to the session of the UI.
+     * Progress received while an update is pending is coalesced, only the latest is shown.
+     *
+     * @param ui of the initiating session
+     * @return the listener for the job
+     */
+    public JobProgressListener createProgressListener(UI ui) {
+        AtomicReference<JobProgress> pendingProgress = new AtomicReference<>();
+        return progress -> {
+            if (pendingProgress.getAndSet(progress) == null) {
+                try {
+                    ui.access(() -> setProgress(pendingProgress.getAndSet(null)));
+                } catch (UIDetachedException exception) {
+                    pendingProgress.set(null); // the session is closed
+                }
+            }
+        };
+    }
+
     public void close() {
         dialog.close();
     }
 
+    public boolean isOpened() {
+        return dialog.isOpened();
+    }
+
     private void buildProgressDialog() {
         progressBar.setIndeterminate(true);
         progressBarSubLabel.getStyle().set("font-size", "var(--lumo-font-size-xs)");
@@ -47,5 +119,12 @@ public final class ProgressModalDialog {
         dialog.setModal(true);
         dialog.setResizable(true);
         dialog.add(progressBarLabel, progressBar, progressBarSubLabel);
+        cancelButton.addClickListener(click -> {
+            if (cancelAction != null) {
+                cancelButton.setEnabled(false);
+                cancelAction.run();
+            }
+        });
+        dialog.getFooter().add(cancelButton);
     }
 }
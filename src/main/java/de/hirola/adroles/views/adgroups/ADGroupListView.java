@@ -1,8 +1,8 @@
 package de.hirola.adroles.views.adgroups;
 
-import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
@@ -16,9 +16,14 @@ import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.ADGroup;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.EventService;
+import de.hirola.adroles.service.JobService;
+import de.hirola.adroles.service.ServiceEventListener;
 import de.hirola.adroles.util.ServiceEvent;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.MainLayout;
@@ -28,20 +33,20 @@ import de.hirola.adroles.views.persons.PersonAssignRoleForm;
 import de.hirola.adroles.views.persons.PersonForm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.annotation.security.PermitAll;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 @Route(value="ad-group", layout = MainLayout.class)
 @PageTitle("AD-Groups | AD-Roles")
 @PermitAll
-public class ADGroupListView extends VerticalLayout {
+public class ADGroupListView extends VerticalLayout implements ServiceEventListener {
     private final Logger logger = LoggerFactory.getLogger(ADGroupListView.class);
     private final IdentityService identityService;
+    private final JobService jobService;
+    private final EventService eventService;
+    private Registration eventRegistration;
     private final List<ADGroup> selectedADGroups = new ArrayList<>();
     private ProgressModalDialog progressModalDialog;
     private ADGroupForm adGroupForm;
@@ -50,8 +55,10 @@ public class ADGroupListView extends VerticalLayout {
     private TextField filterTextField;
     private Button addADGroupButton, updateButton, deleteADGroupsButton;
 
-    public ADGroupListView(IdentityService identityService) {
+    public ADGroupListView(IdentityService identityService, JobService jobService, EventService eventService) {
         this.identityService = identityService;
+        this.jobService = jobService;
+        this.eventService = eventService;
         addClassName("ad-group-list-view");
         setSizeFull();
         addComponents();
@@ -63,40 +70,32 @@ public class ADGroupListView extends VerticalLayout {
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
-
+        eventRegistration = eventService.register(attachEvent.getUI(), this);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        identityService.unregister(this);
+        if (eventRegistration != null) {
+            eventRegistration.remove();
+            eventRegistration = null;
+        }
     }
 
-    @Subscribe
+    @Override
     public void onServiceEvent(ServiceEvent event) {
-        if (getUI().isPresent()) {
-            getUI().get().access(() -> {
-                if (progressModalDialog != null) {
-                    progressModalDialog.close();
-                    ServiceResult serviceResult = event.getServiceResult();
-                    if (serviceResult.operationSuccessful) {
-                        NotificationPopUp.show(NotificationPopUp.INFO,
-                                getTranslation("import.successful"), serviceResult.resultMessage);
-                    } else {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.import"), serviceResult.resultMessage);
-                    }
-                    updateList();
-                }
-            });
+        if (progressModalDialog != null && progressModalDialog.isOpened()) {
+            progressModalDialog.close();
+            ServiceResult serviceResult = event.getServiceResult();
+            if (serviceResult.operationSuccessful) {
+                NotificationPopUp.show(NotificationPopUp.INFO,
+                        getTranslation("import.successful"), serviceResult.resultMessage);
+            } else {
+                NotificationPopUp.show(NotificationPopUp.ERROR,
+                        getTranslation("error.import"), serviceResult.resultMessage);
+            }
         }
+        updateList();
     }
 
     private void addComponents() {
@@ -132,13 +131,13 @@ public class ADGroupListView extends VerticalLayout {
         grid.setSizeFull();
         grid.addColumn(ADGroup::getName).setHeader(getTranslation("name"))
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setSortable(true)
+                .setSortProperty("name")
                 .setFooter(String.format(getTranslation("adGroups.sum") + ": %s", identityService.countADGroups()));
         grid.addColumn(ADGroup::getDescription).setHeader(getTranslation("description"))
-                .setSortable(true);
+                .setSortProperty("description");
         grid.addColumn(adGroup -> adGroup.isAdminGroup() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("adminGroup"))
-                .setSortable(true);
+                .setSortProperty("isAdminGroup");
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
         grid.setSelectionMode(Grid.SelectionMode.MULTI);
         grid.addItemClickListener(event -> editADGroup(event.getItem()));
@@ -157,7 +156,7 @@ public class ADGroupListView extends VerticalLayout {
         adGroupForm.addListener(ADGroupForm.SaveEvent.class, this::saveADGroup);
         adGroupForm.addListener(ADGroupForm.CloseEvent.class, event -> closeADGroupForm());
 
-        assignRoleForm = new PersonAssignRoleForm();
+        assignRoleForm = new PersonAssignRoleForm(identityService);
         assignRoleForm.setWidthFull();
         assignRoleForm.addListener(PersonAssignRoleForm.SaveEvent.class, this::saveAssignedRoles);
         assignRoleForm.addListener(PersonAssignRoleForm.CloseEvent.class, event -> closeAssignRolesForm());
@@ -187,8 +186,13 @@ public class ADGroupListView extends VerticalLayout {
             }
             progressModalDialog.open("update",
                     "import.running.message",
-                    "import.running.subMessage");
-            new Thread(identityService::updateGroupsFromAD).start();
+                    "import.running.subMessage",
+                    () -> jobService.cancel(Global.JOB_TYPE.UPDATE_AD_GROUPS));
+            if (!jobService.submit(Global.JOB_TYPE.UPDATE_AD_GROUPS, identityService::updateGroupsFromAD,
+                    progressModalDialog.createProgressListener(UI.getCurrent()))) {
+                progressModalDialog.close();
+                NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("import.alreadyRunning"));
+            }
         });
         dialog.open();
     }
@@ -198,7 +202,10 @@ public class ADGroupListView extends VerticalLayout {
     }
 
     private void saveADGroup(ADGroupForm.SaveEvent event) {
-        identityService.saveADGroup(event.getAdGroup());
+        ServiceResult serviceResult = identityService.saveADGroup(event.getAdGroup());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         closeADGroupForm();
         updateList();
     }
@@ -238,21 +245,27 @@ public class ADGroupListView extends VerticalLayout {
         closeADGroupForm();
         enableComponents(false);
         assignRoleForm.setVisible(true);
-        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(null, null), null);
+        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(), null);
         addClassName("editing");
     }
 
     private void saveAssignedRoles(PersonAssignRoleForm.SaveEvent event) {
-        identityService.savePerson(event.getPerson());
+        ServiceResult serviceResult = identityService.savePerson(event.getPerson());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         updateList();
     }
 
     private void updateList() {
-        List<ADGroup> filteredADGroups = identityService.findAllADGroups(filterTextField.getValue());
-        grid.setItems(filteredADGroups);
+        String filter = filterTextField.getValue();
+        long count = identityService.countADGroups(filter);
+        grid.setItems(query -> identityService.findADGroups(filter,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("adGroups.sum") + ": %s", filteredADGroups.size()));
+                .setFooter(String.format(getTranslation("adGroups.sum") + ": %s", count));
     }
 
     private void closeADGroupForm() {
@@ -283,8 +296,4 @@ public class ADGroupListView extends VerticalLayout {
             updateButton.setEnabled(enabled);
         }
     }
-
-    private static boolean matchesTerm(String value, String searchTerm) {
-        return value.toLowerCase(Locale.ROOT).contains(searchTerm.toLowerCase(Locale.ROOT));
-    }
 }
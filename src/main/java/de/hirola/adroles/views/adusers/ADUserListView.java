@@ -1,8 +1,8 @@
 package de.hirola.adroles.views.adusers;
 
-import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
@@ -16,9 +16,14 @@ import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.ADUser;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.EventService;
+import de.hirola.adroles.service.JobService;
+import de.hirola.adroles.service.ServiceEventListener;
 import de.hirola.adroles.util.ServiceEvent;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.MainLayout;
@@ -28,20 +33,20 @@ import de.hirola.adroles.views.persons.PersonAssignRoleForm;
 import de.hirola.adroles.views.persons.PersonForm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.annotation.security.PermitAll;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 @Route(value="ad-user", layout = MainLayout.class)
 @PageTitle("AD-Users | AD-Roles")
 @PermitAll
-public class ADUserListView extends VerticalLayout {
+public class ADUserListView extends VerticalLayout implements ServiceEventListener {
     private final Logger logger = LoggerFactory.getLogger(ADUserListView.class);
     private final IdentityService identityService;
+    private final JobService jobService;
+    private final EventService eventService;
+    private Registration eventRegistration;
     private final List<ADUser> selectedADUsers = new ArrayList<>();
     private ProgressModalDialog progressModalDialog;
     private ADUserForm adUserForm;
@@ -50,8 +55,10 @@ public class ADUserListView extends VerticalLayout {
     private TextField filterTextField;
     private Button addADUserButton, updateButton, deleteADUsersButton;
 
-    public ADUserListView(IdentityService identityService) {
+    public ADUserListView(IdentityService identityService, JobService jobService, EventService eventService) {
         this.identityService = identityService;
+        this.jobService = jobService;
+        this.eventService = eventService;
         addClassName("ad-user-list-view");
         setSizeFull();
         addComponents();
@@ -63,39 +70,32 @@ public class ADUserListView extends VerticalLayout {
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
+        eventRegistration = eventService.register(attachEvent.getUI(), this);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        identityService.unregister(this);
+        if (eventRegistration != null) {
+            eventRegistration.remove();
+            eventRegistration = null;
+        }
     }
 
-    @Subscribe
+    @Override
     public void onServiceEvent(ServiceEvent event) {
-        if (getUI().isPresent()) {
-            getUI().get().access(() -> {
-                if (progressModalDialog != null) {
-                    progressModalDialog.close();
-                    ServiceResult serviceResult = event.getServiceResult();
-                    if (serviceResult.operationSuccessful) {
-                        NotificationPopUp.show(NotificationPopUp.INFO,
-                                getTranslation("import.successful"), serviceResult.resultMessage);
-                    } else {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.import"), serviceResult.resultMessage);
-                    }
-                    updateList();
-                }
-            });
+        if (progressModalDialog != null && progressModalDialog.isOpened()) {
+            progressModalDialog.close();
+            ServiceResult serviceResult = event.getServiceResult();
+            if (serviceResult.operationSuccessful) {
+                NotificationPopUp.show(NotificationPopUp.INFO,
+                        getTranslation("import.successful"), serviceResult.resultMessage);
+            } else {
+                NotificationPopUp.show(NotificationPopUp.ERROR,
+                        getTranslation("error.import"), serviceResult.resultMessage);
+            }
         }
+        updateList();
     }
 
     private void addComponents() {
@@ -131,20 +131,20 @@ public class ADUserListView extends VerticalLayout {
         grid.setSizeFull();
         grid.addColumn(ADUser::getLogonName).setHeader(getTranslation("logonName"))
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setSortable(true)
+                .setSortProperty("logonName")
                 .setFooter(String.format(getTranslation("adUsers.sum") + ": %s", identityService.countADUsers()));
         grid.addColumn(adUser -> adUser.isEnabled() ? getTranslation("enabled") : getTranslation("disabled"))
                 .setHeader(getTranslation("status"))
-                .setSortable(true);
+                .setSortProperty("enabled");
         grid.addColumn(adUser -> adUser.isPasswordExpires() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("passwordExpires"))
-                .setSortable(true);
+                .setSortProperty("passwordExpires");
         grid.addColumn(adUser -> adUser.isAdminAccount() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("adminAccount"))
-                .setSortable(true);
+                .setSortProperty("isAdminAccount");
         grid.addColumn(adUser -> adUser.isServiceAccount() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("serviceAccount"))
-                .setSortable(true);
+                .setSortProperty("isServiceAccount");
         grid.getColumns().forEach(col -> {
             String columnKey = col.getKey();
             if (columnKey != null) {
@@ -175,7 +175,7 @@ public class ADUserListView extends VerticalLayout {
         adUserForm.addListener(ADUserForm.SaveEvent.class, this::saveADUser);
         adUserForm.addListener(ADUserForm.CloseEvent.class, event -> closeADUserForm());
 
-        assignRoleForm = new PersonAssignRoleForm();
+        assignRoleForm = new PersonAssignRoleForm(identityService);
         assignRoleForm.setWidthFull();
         assignRoleForm.addListener(PersonAssignRoleForm.SaveEvent.class, this::saveAssignedRoles);
         assignRoleForm.addListener(PersonAssignRoleForm.CloseEvent.class, event -> closeAssignRolesForm());
@@ -204,8 +204,13 @@ public class ADUserListView extends VerticalLayout {
             }
             progressModalDialog.open("update",
                     "import.running.message",
-                    "import.running.subMessage");
-            new Thread(identityService::updateUserFromAD).start();
+                    "import.running.subMessage",
+                    () -> jobService.cancel(Global.JOB_TYPE.UPDATE_AD_USERS));
+            if (!jobService.submit(Global.JOB_TYPE.UPDATE_AD_USERS, identityService::updateUserFromAD,
+                    progressModalDialog.createProgressListener(UI.getCurrent()))) {
+                progressModalDialog.close();
+                NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("import.alreadyRunning"));
+            }
             dialog.close();
         });
         dialog.open();
@@ -216,7 +221,10 @@ public class ADUserListView extends VerticalLayout {
     }
 
     private void saveADUser(ADUserForm.SaveEvent event) {
-        identityService.saveADUser(event.getAdUser());
+        ServiceResult serviceResult = identityService.saveADUser(event.getAdUser());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         closeADUserForm();
         updateList();
     }
@@ -256,21 +264,27 @@ public class ADUserListView extends VerticalLayout {
         closeADUserForm();
         enableComponents(false);
         assignRoleForm.setVisible(true);
-        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(null, null), null);
+        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(), null);
         addClassName("editing");
     }
 
     private void saveAssignedRoles(PersonAssignRoleForm.SaveEvent event) {
-        identityService.savePerson(event.getPerson());
+        ServiceResult serviceResult = identityService.savePerson(event.getPerson());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         updateList();
     }
 
     private void updateList() {
-        List<ADUser> filteredADUsers = identityService.findAllADUsers(filterTextField.getValue());
-        grid.setItems(filteredADUsers);
+        String filter = filterTextField.getValue();
+        long count = identityService.countADUsers(filter);
+        grid.setItems(query -> identityService.findADUsers(filter,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("adUsers.sum") + ": %s", filteredADUsers.size()));
+                .setFooter(String.format(getTranslation("adUsers.sum") + ": %s", count));
     }
 
     private void closeADUserForm() {
@@ -301,8 +315,4 @@ public class ADUserListView extends VerticalLayout {
             updateButton.setEnabled(enabled);
         }
     }
-
-    private static boolean matchesTerm(String value, String searchTerm) {
-        return value.toLowerCase(Locale.ROOT).contains(searchTerm.toLowerCase(Locale.ROOT));
-    }
 }
@@ -8,13 +8,16 @@ import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.projection.PersonRow;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.MainLayout;
+import de.hirola.adroles.views.NotificationPopUp;
 
 import javax.annotation.security.PermitAll;
-import java.util.List;
 
 @Route(value="employees", layout = MainLayout.class)
 @PageTitle("Employee | AD-Roles")
@@ -22,7 +25,7 @@ import java.util.List;
 public class EmployeeListView extends VerticalLayout {
     private final IdentityService identityService;
     private EmpoyeeForm empoyeeForm;
-    private final Grid<Person> grid = new Grid<>(Person.class, false);
+    private final Grid<PersonRow> grid = new Grid<>(PersonRow.class, false);
     private TextField filterTextField;
 
     public EmployeeListView(IdentityService identityService) {
@@ -47,20 +50,21 @@ public class EmployeeListView extends VerticalLayout {
 
         grid.addClassNames("employee-grid");
         grid.setSizeFull();
-        grid.addColumn(Person::getLastName).setHeader(getTranslation("lastname"))
+        grid.addColumn(PersonRow::lastName).setHeader(getTranslation("lastname"))
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setSortable(true)
+                .setSortProperty("lastName")
                 .setFooter(String.format(getTranslation("persons.sum") + ": %s", identityService.countPersons()));
-        grid.addColumn(Person::getFirstName).setHeader(getTranslation("firstname"))
-                .setSortable(true);
-        grid.addColumn(Person::getCentralAccountName)
+        grid.addColumn(PersonRow::firstName).setHeader(getTranslation("firstname"))
+                .setSortProperty("firstName");
+        grid.addColumn(PersonRow::centralAccountName)
                 .setHeader(getTranslation("centralAccountName"))
-                .setSortable(true);
-        grid.addColumn(Person::getDepartmentName).setHeader(getTranslation("department"))
-                .setSortable(true);
+                .setSortProperty("centralAccountName");
+        grid.addColumn(PersonRow::departmentName).setHeader(getTranslation("department"))
+                .setSortProperty("departmentName");
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
         grid.setSelectionMode(Grid.SelectionMode.SINGLE);
-        grid.addItemClickListener(event -> editEmployee(event.getItem()));
+        grid.addItemClickListener(event ->
+                editEmployee(identityService.findPersonWithRelations(event.getItem().id())));
 
         empoyeeForm = new EmpoyeeForm();
         empoyeeForm.setWidthFull();
@@ -78,7 +82,10 @@ public class EmployeeListView extends VerticalLayout {
     }
 
     private void saveEmployee(EmpoyeeForm.SaveEvent event) {
-        identityService.savePerson(event.getPerson());
+        ServiceResult serviceResult = identityService.savePerson(event.getPerson());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         closeEmployeeForm();
         updateList();
     }
@@ -95,11 +102,14 @@ public class EmployeeListView extends VerticalLayout {
     }
 
     private void updateList() {
-        List<Person> filteredPersons = identityService.findAllEmployees(filterTextField.getValue());
-        grid.setItems(filteredPersons);
+        String filter = filterTextField.getValue();
+        long count = identityService.countPersons(filter, true);
+        grid.setItems(query -> identityService.findPersons(filter, true,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("persons.sum") + ": %s", filteredPersons.size()));
+                .setFooter(String.format(getTranslation("persons.sum") + ": %s", count));
     }
 
     private void closeEmployeeForm() {
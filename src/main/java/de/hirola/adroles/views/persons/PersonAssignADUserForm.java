@@ -28,13 +28,17 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 public class PersonAssignADUserForm extends VerticalLayout {
+  private final IdentityService identityService;
   private Person person;
   private final Set<ADUser> selectedADUsers = new LinkedHashSet<>();
   private TextField personTextField, searchField;
   private final Grid<ADUser> grid = new Grid<>(ADUser.class, false);
   private GridListDataView<ADUser> dataView;
+  // the ids of the entities matching the search field, null if all match
+  private Set<Integer> matchingIds;
   
   public PersonAssignADUserForm(IdentityService identityService) {
+    this.identityService = identityService;
     addClassName("person-assign-ad-users-form");
     addComponents();
   }
@@ -52,6 +56,7 @@ public class PersonAssignADUserForm extends VerticalLayout {
     searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
     searchField.setValueChangeMode(ValueChangeMode.EAGER);
     searchField.addValueChangeListener(event -> {
+      matchingIds = identityService.findMatchingIds(ADUser.class, event.getValue());
       if (dataView != null) {
         dataView.refreshAll();
       }
@@ -125,16 +130,7 @@ public class PersonAssignADUserForm extends VerticalLayout {
 
       // you can filter the grid
       dataView = grid.setItems(adUsers);
-      dataView.addFilter(adUser -> {
-        String searchTerm = searchField.getValue().trim();
-        if (searchTerm.isEmpty()) {
-          return true;
-        }
-        boolean matchesLogonName = matchesTerm(adUser.getLogonName(), searchTerm);
-        boolean matchesDistinguishedName = matchesTerm(adUser.getDistinguishedName(), searchTerm);
-
-        return matchesLogonName || matchesDistinguishedName;
-      });
+      dataView.addFilter(adUser -> matchingIds == null || matchingIds.contains(adUser.getId()));
 
       // show first assigned AD users
       dataView.setSortOrder((ValueProvider<ADUser, String>) adUser -> {
@@ -156,13 +152,6 @@ public class PersonAssignADUserForm extends VerticalLayout {
     }
   }
 
-  private boolean matchesTerm(String value, String searchTerm) {
-    if (value == null ||searchTerm == null) {
-      return false;
-    }
-    return value.toLowerCase().contains(searchTerm.toLowerCase());
-  }
-
   private void validateAndSave() {
     if (person.getADUsers().isEmpty()) {
       person.setADUsers(selectedADUsers);
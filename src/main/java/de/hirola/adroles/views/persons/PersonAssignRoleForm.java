@@ -19,6 +19,7 @@ import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.Person;
 import de.hirola.adroles.data.entity.Role;
 import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.service.IdentityService;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -27,13 +28,17 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 public class PersonAssignRoleForm extends VerticalLayout {
+  private final IdentityService identityService;
   private Person person;
   private final Set<Role> selectedRoles = new LinkedHashSet<>();
   private TextField personTexField, searchField;
   private final Grid<Role> grid = new Grid<>(Role.class, false);
   private GridListDataView<Role> dataView;
+  // the ids of the entities matching the search field, null if all match
+  private Set<Integer> matchingIds;
 
-  public PersonAssignRoleForm() {
+  public PersonAssignRoleForm(IdentityService identityService) {
+    this.identityService = identityService;
     addClassName("person-assign-role-form");
     addComponents();
   }
@@ -51,6 +56,7 @@ public class PersonAssignRoleForm extends VerticalLayout {
     searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
     searchField.setValueChangeMode(ValueChangeMode.EAGER);
     searchField.addValueChangeListener(event -> {
+      matchingIds = identityService.findMatchingIds(Role.class, event.getValue());
       if (dataView != null) {
         dataView.refreshAll();
       }
@@ -131,16 +137,7 @@ public class PersonAssignRoleForm extends VerticalLayout {
 
       // you can filter the grid
       dataView = grid.setItems(filteredRoles);
-      dataView.addFilter(role -> {
-        String searchTerm = searchField.getValue().trim();
-        if (searchTerm.isEmpty()) {
-          return true;
-        }
-        boolean matchesName = matchesTerm(role.getName(), searchTerm);
-        boolean matchesDescription = matchesTerm(role.getDescription(), searchTerm);
-
-        return matchesName || matchesDescription;
-      });
+      dataView.addFilter(role -> matchingIds == null || matchingIds.contains(role.getId()));
 
       // show first assigned persons
       dataView.setSortOrder((ValueProvider<Role, String>) role -> {
@@ -177,13 +174,6 @@ public class PersonAssignRoleForm extends VerticalLayout {
     fireEvent(new SaveEvent(this, person));
   }
 
-  private boolean matchesTerm(String value, String searchTerm) {
-    if (value == null ||searchTerm == null) {
-      return false;
-    }
-    return value.toLowerCase().contains(searchTerm.toLowerCase());
-  }
-
   // Events
   public static abstract class PersonAssignRoleFormEvent extends ComponentEvent<PersonAssignRoleForm> {
     private final Person person;
@@ -1,8 +1,8 @@
 package de.hirola.adroles.views.persons;
 
-import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
 import com.vaadin.flow.component.grid.contextmenu.GridContextMenu;
@@ -10,7 +10,12 @@ import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.projection.PersonRow;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.Job;
+import de.hirola.adroles.service.EventService;
+import de.hirola.adroles.service.JobService;
+import de.hirola.adroles.service.ServiceEventListener;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.util.ServiceEvent;
 import de.hirola.adroles.views.MainLayout;
@@ -23,36 +28,40 @@ import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.views.NotificationPopUp;
 import de.hirola.adroles.views.ProgressModalDialog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.annotation.security.PermitAll;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 @Route(value="persons", layout = MainLayout.class)
 @PageTitle("Persons | AD-Roles")
 @PermitAll
-public class PersonListView extends VerticalLayout {
+public class PersonListView extends VerticalLayout implements ServiceEventListener {
 
     private final Logger logger = LoggerFactory.getLogger(PersonListView.class);
     private final IdentityService identityService;
+    private final JobService jobService;
+    private final EventService eventService;
+    private Registration eventRegistration;
     private ProgressModalDialog progressModalDialog;
-    private final List<Person> selectedPersons = new ArrayList<>();
+    private final List<PersonRow> selectedPersons = new ArrayList<>();
     private PersonForm personForm;
     private PersonAssignADUserForm assignADUserForm;
     private PersonAssignRoleForm assignRoleForm;
-    private final Grid<Person> grid = new Grid<>(Person.class, false);
+    private final Grid<PersonRow> grid = new Grid<>(PersonRow.class, false);
     private TextField filterTextField;
     private Button addPersonButton, updateButton, assignToRolesButton, deletePersonsButton;
 
-    public PersonListView(IdentityService identityService) {
+    public PersonListView(IdentityService identityService, JobService jobService, EventService eventService) {
         this.identityService = identityService;
+        this.jobService = jobService;
+        this.eventService = eventService;
         addClassName("persons-list-view");
         setSizeFull();
         addComponents();
@@ -63,40 +72,32 @@ public class PersonListView extends VerticalLayout {
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
-
+        eventRegistration = eventService.register(attachEvent.getUI(), this);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        identityService.unregister(this);
+        if (eventRegistration != null) {
+            eventRegistration.remove();
+            eventRegistration = null;
+        }
     }
 
-    @Subscribe
+    @Override
     public void onServiceEvent(ServiceEvent event) {
-        if (getUI().isPresent()) {
-            getUI().get().access(() -> {
-                if (progressModalDialog != null) {
-                    progressModalDialog.close();
-                    ServiceResult serviceResult = event.getServiceResult();
-                    if (serviceResult.operationSuccessful) {
-                        NotificationPopUp.show(NotificationPopUp.INFO,
-                                getTranslation("import.successful"), serviceResult.resultMessage);
-                    } else {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.import"), serviceResult.resultMessage);
-                    }
-                    updateList();
-                }
-            });
+        if (progressModalDialog != null && progressModalDialog.isOpened()) {
+            progressModalDialog.close();
+            ServiceResult serviceResult = event.getServiceResult();
+            if (serviceResult.operationSuccessful) {
+                NotificationPopUp.show(NotificationPopUp.INFO,
+                        getTranslation("import.successful"), serviceResult.resultMessage);
+            } else {
+                NotificationPopUp.show(NotificationPopUp.ERROR,
+                        getTranslation("error.import"), serviceResult.resultMessage);
+            }
         }
+        updateList();
     }
 
     private void addComponents() {
@@ -136,25 +137,27 @@ public class PersonListView extends VerticalLayout {
 
         grid.addClassNames("person-grid");
         grid.setSizeFull();
-        grid.addColumn(Person::getLastName).setHeader(getTranslation("lastname"))
+        grid.addColumn(PersonRow::lastName).setHeader(getTranslation("lastname"))
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setSortable(true)
+                .setSortProperty("lastName")
                 .setFooter(String.format(getTranslation("persons.sum") + ": %s", identityService.countPersons()));
-        grid.addColumn(Person::getFirstName).setHeader(getTranslation("firstname"))
-                .setSortable(true);
-        grid.addColumn(Person::getCentralAccountName)
+        grid.addColumn(PersonRow::firstName).setHeader(getTranslation("firstname"))
+                .setSortProperty("firstName");
+        grid.addColumn(PersonRow::centralAccountName)
                 .setHeader(getTranslation("centralAccountName"))
-                .setSortable(true);
-        grid.addColumn(Person::getDepartmentName).setHeader(getTranslation("department"))
-                .setSortable(true);
-        grid.addColumn(Person::getDescription).setHeader(getTranslation("description"))
-                .setSortable(true);
-        grid.addColumn(person -> person.isEmployee() ? getTranslation("yes") : getTranslation("no"))
+                .setSortProperty("centralAccountName");
+        grid.addColumn(PersonRow::departmentName).setHeader(getTranslation("department"))
+                .setSortProperty("departmentName");
+        grid.addColumn(PersonRow::description).setHeader(getTranslation("description"))
+                .setSortProperty("description");
+        grid.addColumn(personRow -> personRow.isEmployee() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("employee"))
-                .setSortable(true);
+                .setSortProperty("isEmployee");
+        grid.addColumn(PersonRow::roleCount).setHeader(getTranslation("roles"));
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
         grid.setSelectionMode(Grid.SelectionMode.MULTI);
-        grid.addItemClickListener(event -> editPerson(event.getItem()));
+        grid.addItemClickListener(event ->
+                editPerson(identityService.findPersonWithRelations(event.getItem().id())));
         grid.addSelectionListener(selection -> {
             selectedPersons.clear();
             if (selection.getAllSelectedItems().isEmpty()) {
@@ -183,7 +186,7 @@ public class PersonListView extends VerticalLayout {
         assignADUserForm.addListener(PersonAssignADUserForm.CloseEvent.class, event -> closeAssignADUsersForm(event.getPerson()));
         assignADUserForm.setVisible(false);
 
-        assignRoleForm = new PersonAssignRoleForm();
+        assignRoleForm = new PersonAssignRoleForm(identityService);
         assignRoleForm.setWidthFull();
         assignRoleForm.addListener(PersonAssignRoleForm.SaveEvent.class, this::saveAssignedRoles);
         assignRoleForm.addListener(PersonAssignRoleForm.CloseEvent.class, this::closeAssignRolesForm);
@@ -214,43 +217,45 @@ public class PersonListView extends VerticalLayout {
             dialog.setRejectable(false);
             dialog.setConfirmText("Ok");
             dialog.addConfirmListener(clickEvent -> {
-                if (progressModalDialog == null) {
-                    progressModalDialog = new ProgressModalDialog();
-                }
-                progressModalDialog.open("update",
-                        "import.running.message",
-                        "import.running.subMessage");
-                new Thread(identityService::updatePersonsFromAD).start();
+                submitJob(Global.JOB_TYPE.UPDATE_PERSONS, identityService::updatePersonsFromAD);
                 dialog.close();
             });
             dialog.open();
         } else {
-            if (progressModalDialog == null) {
-                progressModalDialog = new ProgressModalDialog();
-            }
-            progressModalDialog.open("update",
-                    "import.running.message",
-                    "import.running.subMessage");
-            new Thread(identityService::updatePersonsFromAD).start();
-            dialog.close();
+            submitJob(Global.JOB_TYPE.UPDATE_PERSONS, identityService::updatePersonsFromAD);
+        }
+    }
+
+    private void submitJob(int jobType, Job job) {
+        if (progressModalDialog == null) {
+            progressModalDialog = new ProgressModalDialog();
+        }
+        progressModalDialog.open("update",
+                "import.running.message",
+                "import.running.subMessage",
+                () -> jobService.cancel(jobType));
+        if (!jobService.submit(jobType, job, progressModalDialog.createProgressListener(UI.getCurrent()))) {
+            progressModalDialog.close();
+            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("import.alreadyRunning"));
         }
     }
 
     private void assignADUsers(PersonForm.AssignADUsersEvent event) {
         closePersonForm();
         enableComponents(false);
-        assignADUserForm.setData(event.getPerson(), identityService.findAllADUsers(null));
+        assignADUserForm.setData(event.getPerson(), identityService.findAllADUsers());
         assignADUserForm.setVisible(true);
         addClassName("editing-assign-ad-users-form");
     }
 
     private void saveAssignedADUsers(PersonAssignADUserForm.SaveEvent event) {
         Person person = event.getPerson();
-        if (identityService.savePerson(person)) {
+        ServiceResult serviceResult = identityService.savePerson(person);
+        if (serviceResult.operationSuccessful) {
             closeAssignADUsersForm(person);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
@@ -267,24 +272,19 @@ public class PersonListView extends VerticalLayout {
 
             dialog.setConfirmText("Ok");
             dialog.addConfirmListener(clickEvent -> {
-                if (progressModalDialog == null) {
-                    progressModalDialog = new ProgressModalDialog();
-                }
-                progressModalDialog.open("update",
-                        "import.running.message",
-                        "import.running.subMessage");
-                new Thread(() -> identityService.assignPersonsToRoles(selectedPersons)).start();
+                // the selection can change while the job is running
+                List<Integer> personIds = getSelectedPersonIds();
+                submitJob(Global.JOB_TYPE.ASSIGN_PERSONS_TO_ROLES,
+                        context -> identityService.assignPersonsToRoles(personIds, context));
                 dialog.close();
             });
+            dialog.open();
         }
     }
 
     private void updateEmployeeStatusOfSelectedPersons(boolean isEmployee) {
-        for (Person person: selectedPersons) {
-            person.setEmployee(isEmployee);
-            if (!identityService.savePerson(person)) {
-                NotificationPopUp.show(NotificationPopUp.ERROR, "error.save");
-            }
+        if (!identityService.updateEmployeeStatus(getSelectedPersonIds(), isEmployee)) {
+            NotificationPopUp.show(NotificationPopUp.ERROR, "error.save");
         }
         updateList();
     }
@@ -294,7 +294,10 @@ public class PersonListView extends VerticalLayout {
     }
 
     private void savePerson(PersonForm.SaveEvent event) {
-        identityService.savePerson(event.getPerson());
+        ServiceResult serviceResult = identityService.savePerson(event.getPerson());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         closePersonForm();
         updateList();
     }
@@ -321,7 +324,7 @@ public class PersonListView extends VerticalLayout {
         dialog.setRejectable(false);
         dialog.setConfirmText("Ok");
         dialog.addConfirmListener(clickEvent -> {
-            identityService.deletePersons(selectedPersons);
+            identityService.deletePersons(getSelectedPersonIds());
             updateList();
             selectedPersons.clear();
             deletePersonsButton.setEnabled(false);
@@ -334,7 +337,7 @@ public class PersonListView extends VerticalLayout {
         closePersonForm();
         enableComponents(false);
         assignRoleForm.setVisible(true);
-        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(null, null),
+        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(),
                 identityService.getRoleResource(Global.ROLE_RESOURCE.DEFAULT_ROLE));
         addClassName("editing");
     }
@@ -343,22 +346,32 @@ public class PersonListView extends VerticalLayout {
         closePersonForm();
         enableComponents(false);
         assignRoleForm.setVisible(true);
-        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(null, null),
+        assignRoleForm.setData(event.getPerson(), identityService.findAllRoles(),
                 identityService.getRoleResource(Global.ROLE_RESOURCE.ORG_ROLE));
         addClassName("editing");
     }
 
     private void saveAssignedRoles(PersonAssignRoleForm.SaveEvent event) {
-        identityService.savePerson(event.getPerson());
+        ServiceResult serviceResult = identityService.savePerson(event.getPerson());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         updateList();
     }
 
     private void updateList() {
-        List<Person> filteredPersons = identityService.findAllPersons(filterTextField.getValue());
-        grid.setItems(filteredPersons);
+        String filter = filterTextField.getValue();
+        long count = identityService.countPersons(filter, false);
+        grid.setItems(query -> identityService.findPersons(filter, false,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("persons.sum") + ": %s", filteredPersons.size()));
+                .setFooter(String.format(getTranslation("persons.sum") + ": %s", count));
+    }
+
+    private List<Integer> getSelectedPersonIds() {
+        return selectedPersons.stream().map(PersonRow::id).toList();
     }
 
     private void closePersonForm() {
@@ -385,10 +398,6 @@ public class PersonListView extends VerticalLayout {
         removeClassName("editing");
     }
 
-    private static boolean matchesTerm(String value, String searchTerm) {
-        return value.toLowerCase(Locale.ROOT).contains(searchTerm.toLowerCase(Locale.ROOT));
-    }
-
     private void enableComponents(boolean enabled) {
         filterTextField.setEnabled(enabled);
         addPersonButton.setEnabled(enabled);
@@ -407,10 +416,10 @@ public class PersonListView extends VerticalLayout {
         }
     }
 
-    private static class PersonContextMenu extends GridContextMenu<Person> {
+    private static class PersonContextMenu extends GridContextMenu<PersonRow> {
 
         private final PersonListView listView;
-        PersonContextMenu(Grid<Person> target, PersonListView listView) {
+        PersonContextMenu(Grid<PersonRow> target, PersonListView listView) {
             super(target);
             this.listView = listView;
 
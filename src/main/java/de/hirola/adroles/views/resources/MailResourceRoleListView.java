@@ -11,7 +11,9 @@ package de.hirola.adroles.views.resources;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import de.hirola.adroles.Global;
+import de.hirola.adroles.service.EventService;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.JobService;
 import de.hirola.adroles.views.MainLayout;
 
 import javax.annotation.security.PermitAll;
@@ -21,7 +23,8 @@ import javax.annotation.security.PermitAll;
 @PermitAll
 public class MailResourceRoleListView extends ResourceListView {
 
-    public MailResourceRoleListView(IdentityService identityService) throws InstantiationException {
-        super(identityService, Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE);
+    public MailResourceRoleListView(IdentityService identityService, JobService jobService, EventService eventService)
+            throws InstantiationException {
+        super(identityService, jobService, eventService, Global.ROLE_RESOURCE.EMAIL_RESOURCE_ROLE);
     }
 }
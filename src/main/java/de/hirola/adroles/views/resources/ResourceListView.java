@@ -1,8 +1,8 @@
 package de.hirola.adroles.views.resources;
 
-import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
@@ -14,10 +14,16 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.data.projection.RoleRow;
 import de.hirola.adroles.data.entity.Role;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.EventService;
+import de.hirola.adroles.service.JobService;
+import de.hirola.adroles.service.ServiceEventListener;
 import de.hirola.adroles.util.ServiceEvent;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.NotificationPopUp;
@@ -27,8 +33,6 @@ import de.hirola.adroles.views.roles.RoleAssignADGroupForm;
 import de.hirola.adroles.views.roles.RoleAssignPersonForm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.ArrayList;
 import java.util.Hashtable;
@@ -45,29 +49,29 @@ import java.util.List;
  */
 
 
-class ResourceListView extends VerticalLayout {
+class ResourceListView extends VerticalLayout implements ServiceEventListener {
     private final Logger logger = LoggerFactory.getLogger(ResourceListView.class);
     private final IdentityService identityService;
+    private final JobService jobService;
+    private final EventService eventService;
+    private Registration eventRegistration;
     private ProgressModalDialog progressModalDialog;
     private final Hashtable<String, RoleResource> roleResourceList = new Hashtable<>();
     private final RoleResource roleResource;
-    private final List<Role> selectedResourceRoles = new ArrayList<>();
+    private final List<RoleRow> selectedResourceRoles = new ArrayList<>();
     private RoleForm roleForm;
     private RoleAssignPersonForm assignPersonForm;
     private RoleAssignADGroupForm assignADGroupForm;
-    private final Grid<Role> grid = new Grid<>(Role.class, false);
+    private final Grid<RoleRow> grid = new Grid<>(RoleRow.class, false);
     private TextField filterTextField;
     private Button addResourceRoleButton, deleteResourceRolesButton, updateButton, importFromJSONButton;
 
-    ResourceListView(IdentityService identityService, int resourceType) throws InstantiationException {
+    ResourceListView(IdentityService identityService, JobService jobService, EventService eventService,
+                     int resourceType)
+            throws InstantiationException {
         this.identityService = identityService;
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
+        this.jobService = jobService;
+        this.eventService = eventService;
         roleResource = identityService.getRoleResource(resourceType);
         if (roleResource == null) {
             throw  new InstantiationException(getTranslation("error.resource.instantiation"));
@@ -83,39 +87,32 @@ class ResourceListView extends VerticalLayout {
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
+        eventRegistration = eventService.register(attachEvent.getUI(), this);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        identityService.unregister(this);
+        if (eventRegistration != null) {
+            eventRegistration.remove();
+            eventRegistration = null;
+        }
     }
 
-    @Subscribe
+    @Override
     public void onServiceEvent(ServiceEvent event) {
-        if (getUI().isPresent()) {
-            getUI().get().access(() -> {
-                if (progressModalDialog != null) {
-                    progressModalDialog.close();
-                    ServiceResult serviceResult = event.getServiceResult();
-                    if (serviceResult.operationSuccessful) {
-                        NotificationPopUp.show(NotificationPopUp.INFO,
-                                getTranslation("import.successful"), serviceResult.resultMessage);
-                    } else {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.import"), serviceResult.resultMessage);
-                    }
-                    updateList();
-                }
-            });
+        if (progressModalDialog != null && progressModalDialog.isOpened()) {
+            progressModalDialog.close();
+            ServiceResult serviceResult = event.getServiceResult();
+            if (serviceResult.operationSuccessful) {
+                NotificationPopUp.show(NotificationPopUp.INFO,
+                        getTranslation("import.successful"), serviceResult.resultMessage);
+            } else {
+                NotificationPopUp.show(NotificationPopUp.ERROR,
+                        getTranslation("error.import"), serviceResult.resultMessage);
+            }
         }
+        updateList();
     }
 
     private void addComponents() {
@@ -169,16 +166,18 @@ class ResourceListView extends VerticalLayout {
 
         grid.addClassNames(roleResource.getViewClassName() + "-grid");
         grid.setSizeFull();
-        grid.addColumn(Role::getName).setHeader(getTranslation("name"))
+        grid.addColumn(RoleRow::name).setHeader(getTranslation("name"))
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setSortable(true)
+                .setSortProperty("name")
                 .setFooter(String.format(
                         getTranslation("role.sum") + ": %s", identityService.countRoles(roleResource)));
-        grid.addColumn(Role::getDescription).setHeader(getTranslation("description"))
-                .setSortable(true);
+        grid.addColumn(RoleRow::description).setHeader(getTranslation("description"))
+                .setSortProperty("description");
+        grid.addColumn(RoleRow::personCount).setHeader(getTranslation("persons"));
         grid.getColumns().forEach(col -> col.setAutoWidth(true));
         grid.setSelectionMode(Grid.SelectionMode.MULTI);
-        grid.addItemClickListener(event -> editResource(event.getItem()));
+        grid.addItemClickListener(event ->
+                editResource(identityService.findRoleWithRelations(event.getItem().id())));
         grid.addSelectionListener(selection -> {
             selectedResourceRoles.clear();
             if (selection.getAllSelectedItems().isEmpty()) {
@@ -220,7 +219,10 @@ class ResourceListView extends VerticalLayout {
     }
 
     private void saveResourceRole(RoleForm.SaveEvent event) {
-        identityService.saveRole(event.getRole());
+        ServiceResult serviceResult = identityService.saveRole(event.getRole());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         updateList();
     }
 
@@ -235,7 +237,7 @@ class ResourceListView extends VerticalLayout {
         dialog.setRejectable(false);
         dialog.setConfirmText("Ok");
         dialog.addConfirmListener(clickEvent -> {
-            identityService.deleteRoles(selectedResourceRoles);
+            identityService.deleteRoles(selectedResourceRoles.stream().map(RoleRow::id).toList());
             updateList();
             selectedResourceRoles.clear();
             deleteResourceRolesButton.setEnabled(false);
@@ -276,8 +278,13 @@ class ResourceListView extends VerticalLayout {
                 }
                 progressModalDialog.open("update",
                         "import.running.message",
-                        "import.running.subMessage");
-                new Thread(identityService::updateOrgRolesFromPersons).start();
+                        "import.running.subMessage",
+                        () -> jobService.cancel(Global.JOB_TYPE.UPDATE_ORG_ROLES));
+                if (!jobService.submit(Global.JOB_TYPE.UPDATE_ORG_ROLES, identityService::updateOrgRolesFromPersons,
+                        progressModalDialog.createProgressListener(UI.getCurrent()))) {
+                    progressModalDialog.close();
+                    NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("import.alreadyRunning"));
+                }
                 dialog.close();
             });
             dialog.open();
@@ -295,44 +302,49 @@ class ResourceListView extends VerticalLayout {
         closeRoleForm();
         enableComponents(false);
         assignPersonForm.setVisible(true);
-        assignPersonForm.setData(event.getRole(), identityService.findAllPersons(null));
+        assignPersonForm.setData(event.getRole(), identityService.findAllPersons());
         addClassName("editing-assign-persons-form");
     }
 
     private void saveAssignedPersons(RoleAssignPersonForm.SaveEvent event) {
         Role role = event.getRole();
-        if (identityService.saveRole(role)) {
+        ServiceResult serviceResult = identityService.saveRole(role);
+        if (serviceResult.operationSuccessful) {
             closeAssignPersonsForm(role);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
     private void addADGroups(RoleForm.AssignADGroupsEvent event) {
         closeRoleForm();
         enableComponents(false);
-        assignADGroupForm.setData(event.getRole(), identityService.findAllADGroups(null));
+        assignADGroupForm.setData(event.getRole(), identityService.findAllADGroups());
         assignADGroupForm.setVisible(true);
         addClassName("editing-assign-ad-groups-form");
     }
 
     private void saveAssignedADGroups(RoleAssignADGroupForm.SaveEvent event) {
         Role role = event.getRole();
-        if (identityService.saveRole(role)) {
+        ServiceResult serviceResult = identityService.saveRole(role);
+        if (serviceResult.operationSuccessful) {
             closeAssignADGroupsForm(role);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
     private void updateList() {
-        List<Role> filteredRoles = identityService.findAllRoles(filterTextField.getValue(), roleResource);
-        grid.setItems(filteredRoles);
+        String filter = filterTextField.getValue();
+        long count = identityService.countRoles(filter, roleResource);
+        grid.setItems(query -> identityService.findRoles(filter, roleResource,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("role.sum") + ": %s", filteredRoles.size()));
+                .setFooter(String.format(getTranslation("role.sum") + ": %s", count));
     }
 
     private void loadAvailableRoleResources() {
@@ -36,6 +36,8 @@ public class RoleAssignADGroupForm extends VerticalLayout {
   private final Grid<ADGroup> grid = new Grid<>(ADGroup.class, false);
 
   private GridListDataView<ADGroup> dataView;
+  // the ids of the entities matching the search field, null if all match
+  private Set<Integer> matchingIds;
   public RoleAssignADGroupForm(IdentityService identityService) {
     this.identityService = identityService;
     addClassName("role-assign-ad-groups-form");
@@ -55,6 +57,7 @@ public class RoleAssignADGroupForm extends VerticalLayout {
     searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
     searchField.setValueChangeMode(ValueChangeMode.EAGER);
     searchField.addValueChangeListener(event -> {
+      matchingIds = identityService.findMatchingIds(ADGroup.class, event.getValue());
       if (dataView != null) {
         dataView.refreshAll();
       }
@@ -131,17 +134,7 @@ public class RoleAssignADGroupForm extends VerticalLayout {
 
       // you can filter the grid
       dataView = grid.setItems(adGroups);
-      dataView.addFilter(adGroup -> {
-        String searchTerm = searchField.getValue().trim();
-        if (searchTerm.isEmpty()) {
-          return true;
-        }
-        boolean matchesName = matchesTerm(adGroup.getName(), searchTerm);
-        boolean matchesDescription = matchesTerm(adGroup.getDescription(), searchTerm);
-        boolean matchesDistinguishedName = matchesTerm(adGroup.getDistinguishedName(), searchTerm);
-
-        return matchesName || matchesDescription || matchesDistinguishedName;
-      });
+      dataView.addFilter(adGroup -> matchingIds == null || matchingIds.contains(adGroup.getId()));
 
       // show first assigned adGroups
       dataView.setSortOrder((ValueProvider<ADGroup, String>) adGroup -> {
@@ -163,13 +156,6 @@ public class RoleAssignADGroupForm extends VerticalLayout {
     }
   }
 
-  private boolean matchesTerm(String value, String searchTerm) {
-    if (value == null ||searchTerm == null) {
-      return false;
-    }
-    return value.toLowerCase().contains(searchTerm.toLowerCase());
-  }
-
   private void assignFromADGroups() {
     selectedADGroups.addAll(identityService.findAllADGroupsForPersons(role.getPersons()));
     grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
@@ -35,6 +35,8 @@ public class RoleAssignADUserForm extends VerticalLayout {
   private Button assignAutomaticallyButton;
   private final Grid<ADUser> grid = new Grid<>(ADUser.class, false);
   private GridListDataView<ADUser> dataView;
+  // the ids of the entities matching the search field, null if all match
+  private Set<Integer> matchingIds;
   
   public RoleAssignADUserForm(IdentityService identityService) {
     this.identityService = identityService;
@@ -55,6 +57,7 @@ public class RoleAssignADUserForm extends VerticalLayout {
     searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
     searchField.setValueChangeMode(ValueChangeMode.EAGER);
     searchField.addValueChangeListener(event -> {
+      matchingIds = identityService.findMatchingIds(ADUser.class, event.getValue());
       if (dataView != null) {
         dataView.refreshAll();
       }
@@ -135,16 +138,7 @@ public class RoleAssignADUserForm extends VerticalLayout {
 
       // you can filter the grid
       dataView = grid.setItems(adUsers);
-      dataView.addFilter(adUser -> {
-        String searchTerm = searchField.getValue().trim();
-        if (searchTerm.isEmpty()) {
-          return true;
-        }
-        boolean matchesLogonName = matchesTerm(adUser.getLogonName(), searchTerm);
-        boolean matchesDistinguishedName = matchesTerm(adUser.getDistinguishedName(), searchTerm);
-
-        return matchesLogonName || matchesDistinguishedName;
-      });
+      dataView.addFilter(adUser -> matchingIds == null || matchingIds.contains(adUser.getId()));
 
       // show first assigned AD users
       dataView.setSortOrder((ValueProvider<ADUser, String>) adUser -> {
@@ -166,13 +160,6 @@ public class RoleAssignADUserForm extends VerticalLayout {
     }
   }
 
-  private boolean matchesTerm(String value, String searchTerm) {
-    if (value == null ||searchTerm == null) {
-      return false;
-    }
-    return value.toLowerCase().contains(searchTerm.toLowerCase());
-  }
-
   private void assignFromADGroups() {
     selectedADUsers.addAll(identityService.findAllManageableADUsers());
     grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
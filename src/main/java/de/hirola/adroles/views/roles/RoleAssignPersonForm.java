@@ -42,6 +42,8 @@ public class RoleAssignPersonForm extends VerticalLayout {
   private Button assignAutomaticallyButton;
   private final Grid<Person> grid = new Grid<>(Person.class, false);
   private GridListDataView<Person> dataView;
+  // the ids of the entities matching the search field, null if all match
+  private Set<Integer> matchingIds;
   public RoleAssignPersonForm(IdentityService identityService) {
     this.identityService = identityService;
     addClassName("editing-assign-persons-form");
@@ -61,6 +63,7 @@ public class RoleAssignPersonForm extends VerticalLayout {
     searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
     searchField.setValueChangeMode(ValueChangeMode.EAGER);
     searchField.addValueChangeListener(event -> {
+      matchingIds = identityService.findMatchingIds(Person.class, event.getValue());
       if (dataView != null) {
         dataView.refreshAll();
       }
@@ -142,18 +145,7 @@ public class RoleAssignPersonForm extends VerticalLayout {
 
       // you can filter the grid
       dataView = grid.setItems(persons);
-      dataView.addFilter(person -> {
-        String searchTerm = searchField.getValue().trim();
-        if (searchTerm.isEmpty()) {
-          return true;
-        }
-        boolean matchesLastName = matchesTerm(person.getLastName(), searchTerm);
-        boolean matchesFirstName = matchesTerm(person.getFirstName(), searchTerm);
-        boolean matchesCentralAccountName = matchesTerm(person.getCentralAccountName(), searchTerm);
-        boolean matchesDepartmentName = matchesTerm(person.getDepartmentName(), searchTerm);
-
-        return matchesLastName || matchesFirstName || matchesCentralAccountName || matchesDepartmentName;
-      });
+      dataView.addFilter(person -> matchingIds == null || matchingIds.contains(person.getId()));
 
       // show first assigned persons
       dataView.setSortOrder((ValueProvider<Person, String>) person -> {
@@ -196,13 +188,6 @@ public class RoleAssignPersonForm extends VerticalLayout {
     fireEvent(new SaveEvent(this, role));
   }
 
-  private boolean matchesTerm(String value, String searchTerm) {
-    if (value == null ||searchTerm == null) {
-      return false;
-    }
-    return value.toLowerCase().contains(searchTerm.toLowerCase());
-  }
-
   // Events
   public static abstract class RoleAssignPersonFormEvent extends ComponentEvent<RoleAssignPersonForm> {
     private final Role role;
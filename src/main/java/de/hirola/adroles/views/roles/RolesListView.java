@@ -1,8 +1,8 @@
 package de.hirola.adroles.views.roles;
 
-import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
@@ -15,15 +15,20 @@ import com.vaadin.flow.component.orderedlayout.FlexLayout;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.provider.QuerySortOrder;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.Role;
 import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.data.projection.RoleRow;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.EventService;
+import de.hirola.adroles.service.JobService;
+import de.hirola.adroles.service.ServiceEventListener;
 import de.hirola.adroles.util.ServiceEvent;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.MainLayout;
@@ -31,42 +36,37 @@ import de.hirola.adroles.views.NotificationPopUp;
 import de.hirola.adroles.views.ProgressModalDialog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.annotation.security.PermitAll;
-import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.*;
 
 @Route(value="roles", layout = MainLayout.class)
 @PageTitle("Roles Overview | AD-Roles")
 @PermitAll
-public class RolesListView extends VerticalLayout {
+public class RolesListView extends VerticalLayout implements ServiceEventListener {
     private final Logger logger = LoggerFactory.getLogger(RolesListView.class);
     private final Hashtable<String, RoleResource> roleResourceList = new Hashtable<>();
+    private final Map<Integer, RoleResource> roleResources = new HashMap<>();
     private ProgressModalDialog progressModalDialog;
     private RoleContextMenu contextMenu;
     private RoleForm roleForm;
     private RoleAssignPersonForm assignPersonForm;
     private RoleAssignADUserForm assignADUserForm;
     private RoleAssignADGroupForm assignADGroupForm;
-    private final List<Role> selectedRoles = new ArrayList<>();
-    private final Grid<Role> grid = new Grid<>(Role.class, false);
+    private final List<RoleRow> selectedRoles = new ArrayList<>();
+    private final Grid<RoleRow> grid = new Grid<>(RoleRow.class, false);
     private TextField filterTextField;
     private final IdentityService identityService;
+    private final JobService jobService;
+    private final EventService eventService;
+    private Registration eventRegistration;
 
     private Button addRoleButton, updateButton, importFromJSONButton, deleteRolesButton;
 
-    public RolesListView(IdentityService identityService) {
+    public RolesListView(IdentityService identityService, JobService jobService, EventService eventService) {
         this.identityService = identityService;
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            logger.debug("Could not determine currently user.", exception);
-        }
+        this.jobService = jobService;
+        this.eventService = eventService;
         loadAvailableRoleResources();
         addClassName("role-list-view");
         setSizeFull();
@@ -78,40 +78,32 @@ public class RolesListView extends VerticalLayout {
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            identityService.register(this, authentication.getName());
-        } catch (RuntimeException exception) {
-            identityService.register(this, null);
-            logger.debug("Could not determine currently user.", exception);
-        }
-
+        eventRegistration = eventService.register(attachEvent.getUI(), this);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         super.onDetach(detachEvent);
-        identityService.unregister(this);
+        if (eventRegistration != null) {
+            eventRegistration.remove();
+            eventRegistration = null;
+        }
     }
 
-    @Subscribe
+    @Override
     public void onServiceEvent(ServiceEvent event) {
-        if (getUI().isPresent()) {
-            getUI().get().access(() -> {
-                if (progressModalDialog != null) {
-                    progressModalDialog.close();
-                    ServiceResult serviceResult = event.getServiceResult();
-                    if (serviceResult.operationSuccessful) {
-                        NotificationPopUp.show(NotificationPopUp.INFO,
-                                getTranslation("import.successful"), serviceResult.resultMessage);
-                    } else {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.import"), serviceResult.resultMessage);
-                    }
-                    updateList();
-                }
-            });
+        if (progressModalDialog != null && progressModalDialog.isOpened()) {
+            progressModalDialog.close();
+            ServiceResult serviceResult = event.getServiceResult();
+            if (serviceResult.operationSuccessful) {
+                NotificationPopUp.show(NotificationPopUp.INFO,
+                        getTranslation("import.successful"), serviceResult.resultMessage);
+            } else {
+                NotificationPopUp.show(NotificationPopUp.ERROR,
+                        getTranslation("error.import"), serviceResult.resultMessage);
+            }
         }
+        updateList();
     }
 
     private void addComponents() {
@@ -153,8 +145,8 @@ public class RolesListView extends VerticalLayout {
 
         grid.addClassNames("roles-grid");
         grid.setSizeFull();
-        grid.addColumn(new ComponentRenderer<>(role -> {
-                    RoleResource roleResource = role.getRoleResource();
+        grid.addColumn(new ComponentRenderer<>(roleRow -> {
+                    RoleResource roleResource = roleResources.get(roleRow.roleResourceId());
                     if (roleResource != null) {
                         if (roleResource.isOrgResource()) {
                             return VaadinIcon.OFFICE.create();
@@ -169,33 +161,28 @@ public class RolesListView extends VerticalLayout {
                         }
                     }
                     return VaadinIcon.CUBE.create();
-                }), "roleResource")
+                }), "roleResource.id")
                 .setHeader(getTranslation("roleResource"))
-                .setWidth(Global.Component.IMAGE_COLUMN_WIDTH)
-                .setSortable(true)
-                .setSortOrderProvider(direction -> Stream.of(new QuerySortOrder("roleResource", direction)))
-                .setComparator((role1, role2) -> {
-                   RoleResource roleResource1 = role1.getRoleResource();
-                   RoleResource roleResource2 = role2.getRoleResource();
-                    return roleResource1.compareTo(roleResource2);
-                });
-        grid.addColumn(Role::getName).setHeader(getTranslation("name"))
-                .setSortable(true)
+                .setWidth(Global.Component.IMAGE_COLUMN_WIDTH);
+        grid.addColumn(RoleRow::name).setHeader(getTranslation("name"))
+                .setSortProperty("name")
                 .setKey(Global.Component.FOOTER_COLUMN_KEY)
                 .setFooter(String.format(getTranslation("role.sum") + ": %s", identityService.countRoles(null)));
-        grid.addColumn(Role::getDescription).setHeader(getTranslation("description"))
+        grid.addColumn(RoleRow::description).setHeader(getTranslation("description"))
                 .setWidth(Global.Component.DEFAULT_COLUMN_WIDTH)
-                .setSortable(true);
-        grid.addColumn(role -> role.isAdminRole() ? getTranslation("yes") : getTranslation("no"))
+                .setSortProperty("description");
+        grid.addColumn(roleRow -> roleRow.isAdminRole() ? getTranslation("yes") : getTranslation("no"))
                 .setHeader(getTranslation("adminRole"))
-                .setSortable(true);
+                .setSortProperty("isAdminRole");
+        grid.addColumn(RoleRow::personCount).setHeader(getTranslation("persons"));
         grid.getColumns().forEach(col -> {
             if (col.getWidth() == null) {
                 col.setAutoWidth(true);
             }
         });
         grid.setSelectionMode(Grid.SelectionMode.MULTI);
-        grid.addItemClickListener(event -> editRole(event.getItem()));
+        grid.addItemClickListener(event ->
+                editRole(identityService.findRoleWithRelations(event.getItem().id())));
         grid.addSelectionListener(selection -> {
             selectedRoles.clear();
             if (selection.getAllSelectedItems().isEmpty()) {
@@ -268,8 +255,13 @@ public class RolesListView extends VerticalLayout {
             }
             progressModalDialog.open("update",
                     "import.running.message",
-                    "import.running.subMessage");
-            new Thread(identityService::updateRolesFromGroups).start();
+                    "import.running.subMessage",
+                    () -> jobService.cancel(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS));
+            if (!jobService.submit(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS, identityService::updateRolesFromGroups,
+                    progressModalDialog.createProgressListener(UI.getCurrent()))) {
+                progressModalDialog.close();
+                NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("import.alreadyRunning"));
+            }
             dialog.close();
         });
         dialog.open();
@@ -284,7 +276,10 @@ public class RolesListView extends VerticalLayout {
     }
 
     private void saveRole(RoleForm.SaveEvent event) {
-        identityService.saveRole(event.getRole());
+        ServiceResult serviceResult = identityService.saveRole(event.getRole());
+        if (!serviceResult.operationSuccessful) {
+            NotificationPopUp.showSaveError(serviceResult);
+        }
         updateList();
         closeRoleForm();
     }
@@ -311,7 +306,7 @@ public class RolesListView extends VerticalLayout {
         dialog.setRejectable(false);
         dialog.setConfirmText("Ok");
         dialog.addConfirmListener(clickEvent -> {
-            identityService.deleteRoles(selectedRoles);
+            identityService.deleteRoles(getSelectedRoleIds());
             updateList();
             selectedRoles.clear();
             deleteRolesButton.setEnabled(false);
@@ -323,18 +318,19 @@ public class RolesListView extends VerticalLayout {
     private void assignPersons(RoleForm.AssignPersonsEvent event) {
         closeRoleForm();
         enableComponents(false);
-        assignPersonForm.setData(event.getRole(), identityService.findAllPersons(null));
+        assignPersonForm.setData(event.getRole(), identityService.findAllPersons());
         assignPersonForm.setVisible(true);
         addClassName("editing-assign-persons-form");
     }
 
     private void saveAssignedPersons(RoleAssignPersonForm.SaveEvent event) {
         Role role = event.getRole();
-        if (identityService.saveRole(role)) {
+        ServiceResult serviceResult = identityService.saveRole(role);
+        if (serviceResult.operationSuccessful) {
             closeAssignPersonsForm(role);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
@@ -348,43 +344,49 @@ public class RolesListView extends VerticalLayout {
 
     private void saveAssignedADUsers(RoleAssignADUserForm.SaveEvent event) {
         Role role = event.getRole();
-        if (identityService.saveRole(role)) {
+        ServiceResult serviceResult = identityService.saveRole(role);
+        if (serviceResult.operationSuccessful) {
             closeAssignADUsersForm(role);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
     private void assignADGroups(RoleForm.AssignADGroupsEvent event) {
         closeRoleForm();
         enableComponents(false);
-        assignADGroupForm.setData(event.getRole(), identityService.findAllADGroups(null));
+        assignADGroupForm.setData(event.getRole(), identityService.findAllADGroups());
         assignADGroupForm.setVisible(true);
         addClassName("editing-assign-ad-groups-form");
     }
 
     private void saveAssignedADGroups(RoleAssignADGroupForm.SaveEvent event) {
         Role role = event.getRole();
-        if (identityService.saveRole(role)) {
+        ServiceResult serviceResult = identityService.saveRole(role);
+        if (serviceResult.operationSuccessful) {
             closeAssignADGroupsForm(role);
             updateList();
         } else {
-            NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
+            NotificationPopUp.showSaveError(serviceResult);
         }
     }
 
     private void updateList() {
-        List<Role> filteredRoles = identityService.findAllRoles(filterTextField.getValue(), null);
-        grid.setItems(filteredRoles);
+        String filter = filterTextField.getValue();
+        long count = identityService.countRoles(filter, null);
+        grid.setItems(query -> identityService.findRoles(filter, null,
+                        VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) count);
         grid.deselectAll();
         grid.getColumnByKey(Global.Component.FOOTER_COLUMN_KEY)
-                .setFooter(String.format(getTranslation("role.sum") + ": %s", filteredRoles.size()));
+                .setFooter(String.format(getTranslation("role.sum") + ": %s", count));
     }
 
     private void loadAvailableRoleResources() {
         List<RoleResource> roleResources = identityService.getAllRoleResources();
         for (RoleResource roleResource: roleResources) {
+            this.roleResources.put(roleResource.getId(), roleResource);
             if (roleResource.isOrgResource()) {
                 roleResourceList.put(getTranslation("org"), roleResource);
             } else if (roleResource.isProjectResource()) {
@@ -401,13 +403,9 @@ public class RolesListView extends VerticalLayout {
         if (!selectedRoles.isEmpty()) {
             RoleResource roleResource = identityService.getRoleResource(type);
             if (roleResource != null) {
-                for (Role role : selectedRoles) {
-                    role.setRoleResource(roleResource);
-                    if (!identityService.saveRole(role)) {
-                        NotificationPopUp.show(NotificationPopUp.ERROR,
-                                getTranslation("error.save"));
-                        break;
-                    }
+                if (!identityService.updateRoleResource(getSelectedRoleIds(), roleResource)) {
+                    NotificationPopUp.show(NotificationPopUp.ERROR,
+                            getTranslation("error.save"));
                 }
             } else {
                 NotificationPopUp.show(NotificationPopUp.ERROR,
@@ -418,6 +416,10 @@ public class RolesListView extends VerticalLayout {
         updateList();
     }
 
+    private List<Integer> getSelectedRoleIds() {
+        return selectedRoles.stream().map(RoleRow::id).toList();
+    }
+
     private void closeRoleForm() {
         roleForm.setRole(null);
         enableComponents(true);
@@ -465,10 +467,10 @@ public class RolesListView extends VerticalLayout {
         }
     }
 
-    private static class RoleContextMenu extends GridContextMenu<Role> {
+    private static class RoleContextMenu extends GridContextMenu<RoleRow> {
 
         private final RolesListView listView;
-        RoleContextMenu(Grid<Role> target, RolesListView listView) {
+        RoleContextMenu(Grid<RoleRow> target, RolesListView listView) {
             super(target);
             this.listView = listView;
 
@@ -5,7 +5,9 @@ import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.html.H4;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.NumberField;
 import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.component.textfield.TextField;
@@ -17,6 +19,7 @@ import com.vaadin.flow.router.Route;
 import de.hirola.adroles.Global;
 import de.hirola.adroles.data.entity.ActiveDirectory;
 import de.hirola.adroles.service.IdentityService;
+import de.hirola.adroles.service.SyncService;
 import de.hirola.adroles.util.ServiceResult;
 import de.hirola.adroles.views.MainLayout;
 import de.hirola.adroles.views.NotificationPopUp;
@@ -34,11 +37,13 @@ public class ConnectionSettingsTabView extends VerticalLayout implements Compone
     private final Binder<ActiveDirectory> activeDirectoryBinder = new BeanValidationBinder<>(ActiveDirectory.class);
     private final ActiveDirectory activeDirectory; //TODO: in v.0.1 only 1 DC is possible
     private final IdentityService identityService;
+    private final SyncService syncService;
     private Button saveButton;
     private Button verifyButton;
 
-    public ConnectionSettingsTabView(IdentityService identityService) {
+    public ConnectionSettingsTabView(IdentityService identityService, SyncService syncService) {
         this.identityService = identityService;
+        this.syncService = syncService;
         // load the objects from backend
         activeDirectory = identityService.getActiveDirectory();
         activeDirectoryBinder.setBean(activeDirectory);
@@ -105,6 +110,41 @@ public class ConnectionSettingsTabView extends VerticalLayout implements Compone
                 .bind(ActiveDirectory::isReadOnly, ActiveDirectory::setReadOnly);
         add(isReadOnly);
 
+        add(new H4(getTranslation("domain.sync")));
+
+        Checkbox syncEnabled = new Checkbox(getTranslation("domain.sync.enabled"));
+        activeDirectoryBinder
+                .forField(syncEnabled)
+                .bind(ActiveDirectory::isSyncEnabled, ActiveDirectory::setSyncEnabled);
+        add(syncEnabled);
+
+        TextField syncCronTextField = new TextField(getTranslation("domain.sync.cron"));
+        syncCronTextField.setPlaceholder(Global.SYNC_DEFAULT_VALUES.CRON_EXPRESSION);
+        syncCronTextField.setHelperText(getTranslation("domain.sync.cron.helperText"));
+        syncCronTextField.setWidth(Global.Component.DEFAULT_TEXT_FIELD_WIDTH);
+        activeDirectoryBinder
+                .forField(syncCronTextField)
+                .withValidator(SyncService::isValidCronExpression, getTranslation("error.input.cron"))
+                .bind(ActiveDirectory::getSyncCronExpression, ActiveDirectory::setSyncCronExpression);
+        add(syncCronTextField);
+
+        IntegerField syncJitterField = new IntegerField(getTranslation("domain.sync.jitter"));
+        syncJitterField.setMin(0);
+        activeDirectoryBinder
+                .forField(syncJitterField)
+                .withValidator(minutes -> minutes != null && minutes >= 0, getTranslation("error.input.all.empty"))
+                .bind(ActiveDirectory::getSyncJitterMinutes, ActiveDirectory::setSyncJitterMinutes);
+        add(syncJitterField);
+
+        IntegerField syncMaxRunTimeField = new IntegerField(getTranslation("domain.sync.maxRunTime"));
+        syncMaxRunTimeField.setMin(0);
+        syncMaxRunTimeField.setHelperText(getTranslation("domain.sync.maxRunTime.helperText"));
+        activeDirectoryBinder
+                .forField(syncMaxRunTimeField)
+                .withValidator(minutes -> minutes != null && minutes >= 0, getTranslation("error.input.all.empty"))
+                .bind(ActiveDirectory::getSyncMaxRunTimeMinutes, ActiveDirectory::setSyncMaxRunTimeMinutes);
+        add(syncMaxRunTimeField);
+
         saveButton = new Button(getTranslation("save"));
         saveButton.setWidth(Global.Component.DEFAULT_BUTTON_WIDTH);
         saveButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
@@ -125,6 +165,7 @@ public class ConnectionSettingsTabView extends VerticalLayout implements Compone
                 // update form object from component values
                 activeDirectoryBinder.writeBean(activeDirectory);
                 identityService.saveActiveDirectory(activeDirectory);
+                syncService.reschedule(activeDirectory);
                 NotificationPopUp.show(NotificationPopUp.INFO, getTranslation("data.saved"));
             } catch (ValidationException exception) {
                 NotificationPopUp.show(NotificationPopUp.ERROR, getTranslation("error.save"));
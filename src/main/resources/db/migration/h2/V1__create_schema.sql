@@ -0,0 +1,182 @@
+-- the schema of the entities, the tables are only created if they not exist,
+-- so that databases created by older versions without migrations can be migrated
+
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table if not exists active_directory (
+    id integer not null,
+    connection_password varchar(255),
+    connection_user_name varchar(255),
+    domain_name varchar(255),
+    ip_address varchar(255),
+    is_read_only boolean not null,
+    port double not null,
+    sync_cron_expression varchar(255),
+    sync_enabled boolean not null,
+    sync_jitter_minutes integer not null,
+    sync_max_run_time_minutes integer not null,
+    use_secure_connection boolean not null,
+    primary key (id)
+);
+
+create table if not exists adgroup (
+    id integer not null,
+    description varchar(255),
+    distinguished_name varchar(255),
+    group_area integer not null,
+    group_type integer not null,
+    is_admin_group boolean not null,
+    name varchar(255),
+    objectsid varchar(255),
+    search_text varchar(2048),
+    primary key (id)
+);
+
+create table if not exists person (
+    id integer not null,
+    central_account_name varchar(255),
+    department_name varchar(255),
+    description varchar(255),
+    email_address varchar(255),
+    entry_date date,
+    exit_date date,
+    first_name varchar(255),
+    is_employee boolean not null,
+    last_name varchar(255),
+    mobile_phone_number varchar(255),
+    phone_number varchar(255),
+    search_text varchar(2048),
+    primary key (id)
+);
+
+create table if not exists aduser (
+    id integer not null,
+    distinguished_name varchar(255),
+    enabled boolean not null,
+    is_admin_account boolean not null,
+    is_role_managed boolean not null,
+    is_service_account boolean not null,
+    logon_name varchar(255),
+    objectsid varchar(255),
+    password_expires boolean not null,
+    search_text varchar(2048),
+    person_id integer,
+    primary key (id),
+    constraint aduser_person_fk foreign key (person_id) references person
+);
+
+create table if not exists authorities (
+    id integer not null,
+    authority varchar(255),
+    login_name varchar(255),
+    primary key (id)
+);
+
+create table if not exists dbconfig (
+    id integer not null,
+    jdbc_driver_name varchar(255),
+    jdbc_url varchar(255),
+    name varchar(255),
+    password varchar(255),
+    username varchar(255),
+    primary key (id)
+);
+
+create table if not exists import_checkpoint (
+    id integer not null,
+    import_type integer,
+    last_key varchar(255),
+    phase integer not null,
+    updated_at timestamp,
+    primary key (id),
+    constraint import_checkpoint_import_type_key unique (import_type)
+);
+
+create table if not exists job_record (
+    id integer not null,
+    added_count integer not null,
+    duration_millis bigint not null,
+    finished_at timestamp,
+    job_type integer not null,
+    processed_count integer not null,
+    queued_at timestamp,
+    result_message varchar(255),
+    started_at timestamp,
+    started_by varchar(255),
+    state integer not null,
+    updated_count integer not null,
+    primary key (id)
+);
+
+create table if not exists role_resource (
+    id integer not null,
+    add_resource_translation_key varchar(255),
+    delete_resources_translation_key varchar(255),
+    description varchar(255),
+    name varchar(255),
+    resource_type integer default 0 not null,
+    view_class_name varchar(255),
+    primary key (id)
+);
+
+create table if not exists role (
+    id integer not null,
+    description varchar(255),
+    is_admin_role boolean not null,
+    name varchar(255),
+    search_text varchar(2048),
+    responsible_id integer,
+    role_resource_id integer,
+    second_responsible_id integer,
+    primary key (id),
+    constraint role_responsible_fk foreign key (responsible_id) references person,
+    constraint role_role_resource_fk foreign key (role_resource_id) references role_resource,
+    constraint role_second_responsible_fk foreign key (second_responsible_id) references person
+);
+
+create table if not exists role_adgroup (
+    role_id integer not null,
+    adgroup_id integer not null,
+    primary key (role_id, adgroup_id),
+    constraint role_adgroup_adgroup_fk foreign key (adgroup_id) references adgroup,
+    constraint role_adgroup_role_fk foreign key (role_id) references role
+);
+
+create table if not exists role_aduser (
+    role_id integer not null,
+    aduser_id integer not null,
+    primary key (role_id, aduser_id),
+    constraint role_aduser_aduser_fk foreign key (aduser_id) references aduser,
+    constraint role_aduser_role_fk foreign key (role_id) references role
+);
+
+create table if not exists role_person (
+    role_id integer not null,
+    person_id integer not null,
+    primary key (role_id, person_id),
+    constraint role_person_person_fk foreign key (person_id) references person,
+    constraint role_person_role_fk foreign key (role_id) references role
+);
+
+create table if not exists search_token (
+    id bigint generated by default as identity,
+    entity_id integer not null,
+    entity_type varchar(16) not null,
+    token varchar(64) not null,
+    primary key (id)
+);
+
+create table if not exists users (
+    id integer not null,
+    enabled boolean not null,
+    login_name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+-- columns added by later versions
+alter table person add column if not exists search_text varchar(2048);
+alter table role add column if not exists search_text varchar(2048);
+alter table aduser add column if not exists search_text varchar(2048);
+alter table adgroup add column if not exists search_text varchar(2048);
+alter table role_resource add column if not exists resource_type integer default 0 not null;
@@ -0,0 +1,19 @@
+-- the indexes of the lookups of the imports and assignments,
+-- H2 has no indexes on expressions, the case-insensitive indexes exist only on Postgres
+
+-- the AD objects are found by the SID on each import
+create unique index if not exists aduser_objectsid_idx on aduser (objectsid);
+create index if not exists aduser_logon_name_idx on aduser (logon_name);
+create unique index if not exists adgroup_objectsid_idx on adgroup (objectsid);
+create index if not exists adgroup_name_idx on adgroup (name);
+
+-- organisations are derived from the departments of the persons
+create index if not exists role_name_idx on role (name);
+create index if not exists role_resource_type_idx on role_resource (resource_type);
+create index if not exists person_department_name_idx on person (department_name);
+
+-- H2 creates an index for each foreign key, also for the members of the join tables
+
+-- the search tokens are searched by prefix
+create index if not exists search_token_token_idx on search_token (entity_type, token);
+create index if not exists search_token_entity_idx on search_token (entity_type, entity_id);
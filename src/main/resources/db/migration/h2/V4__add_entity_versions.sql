@@ -0,0 +1,5 @@
+-- the version of the entities edited in the forms for the optimistic locking
+alter table person add column if not exists version integer default 0 not null;
+alter table role add column if not exists version integer default 0 not null;
+alter table aduser add column if not exists version integer default 0 not null;
+alter table adgroup add column if not exists version integer default 0 not null;
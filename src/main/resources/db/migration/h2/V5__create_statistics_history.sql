@@ -0,0 +1,17 @@
+-- the history of the dashboard numbers, one row per hour, day or week (resolution)
+create table if not exists statistics_record (
+    id integer not null,
+    ad_group_count integer not null,
+    ad_user_count integer not null,
+    admin_group_count integer not null,
+    org_unit_count integer not null,
+    password_never_expires_count integer not null,
+    person_count integer not null,
+    recorded_at timestamp not null,
+    resolution integer not null,
+    role_count integer not null,
+    primary key (id)
+);
+
+-- the downsampling selects the rows of a resolution by time
+create index if not exists statistics_record_resolution_idx on statistics_record (resolution, recorded_at);
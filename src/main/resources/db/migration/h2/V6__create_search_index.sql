@@ -0,0 +1,11 @@
+-- the tokens of the search texts are written by triggers, also for bulk updates and imports
+-- the tokens of the existing search texts are created on the next start of the application
+
+create trigger if not exists person_search_token after insert, update, delete on person
+    for each row call "de.hirola.adroles.data.search.H2SearchTrigger";
+create trigger if not exists role_search_token after insert, update, delete on role
+    for each row call "de.hirola.adroles.data.search.H2SearchTrigger";
+create trigger if not exists aduser_search_token after insert, update, delete on aduser
+    for each row call "de.hirola.adroles.data.search.H2SearchTrigger";
+create trigger if not exists adgroup_search_token after insert, update, delete on adgroup
+    for each row call "de.hirola.adroles.data.search.H2SearchTrigger";
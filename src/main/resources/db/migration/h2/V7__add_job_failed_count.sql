@@ -0,0 +1,2 @@
+-- the entries of an import which could not be saved
+alter table job_record add column if not exists failed_count integer default 0 not null;
@@ -0,0 +1,29 @@
+-- the indexes of the lookups of the imports and assignments
+
+-- the AD objects are found by the SID on each import
+create unique index if not exists aduser_objectsid_idx on aduser (objectsid);
+create index if not exists aduser_logon_name_idx on aduser (logon_name);
+create index if not exists aduser_person_idx on aduser (person_id);
+create unique index if not exists adgroup_objectsid_idx on adgroup (objectsid);
+create index if not exists adgroup_name_idx on adgroup (name);
+
+-- organisations are derived from the departments of the persons
+create index if not exists role_name_idx on role (name);
+create index if not exists role_role_resource_idx on role (role_resource_id);
+create index if not exists role_resource_type_idx on role_resource (resource_type);
+create index if not exists person_department_name_idx on person (department_name);
+
+-- the grids sort the names case-insensitive
+create index if not exists aduser_logon_name_lower_idx on aduser (lower(logon_name));
+create index if not exists adgroup_name_lower_idx on adgroup (lower(name));
+create index if not exists role_name_lower_idx on role (lower(name));
+create index if not exists person_last_name_lower_idx on person (lower(last_name));
+
+-- the primary keys of the join tables start with the role
+create index if not exists role_person_person_idx on role_person (person_id);
+create index if not exists role_aduser_aduser_idx on role_aduser (aduser_id);
+create index if not exists role_adgroup_adgroup_idx on role_adgroup (adgroup_id);
+
+-- the search tokens are searched by prefix
+create index if not exists search_token_token_idx on search_token (entity_type, token);
+create index if not exists search_token_entity_idx on search_token (entity_type, entity_id);
@@ -0,0 +1,23 @@
+-- the search texts are searched with wildcards at both ends, trigram indexes can be used for it
+
+-- the extension is trusted since Postgres 13, older versions need a superuser to create it once
+-- without the extension the search texts are searched without index
+do $$
+begin
+    create extension if not exists pg_trgm;
+exception
+    when insufficient_privilege then
+        raise notice 'The extension pg_trgm could not be created, searching without index.';
+end
+$$;
+
+do $$
+begin
+    if exists (select 1 from pg_extension where extname = 'pg_trgm') then
+        create index if not exists person_search_text_idx on person using gin (search_text gin_trgm_ops);
+        create index if not exists role_search_text_idx on role using gin (search_text gin_trgm_ops);
+        create index if not exists aduser_search_text_idx on aduser using gin (search_text gin_trgm_ops);
+        create index if not exists adgroup_search_text_idx on adgroup using gin (search_text gin_trgm_ops);
+    end if;
+end
+$$;
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The data of a persistent H2 database must survive a restart of the application.
+ * Read-only transactions must be sent to the replica, if one is configured.
+ */
+class DataSourceFactoryTest {
+
+    @Test
+    void h2DatabaseKeepsDataAfterRestart() throws Exception {
+        Path directory = Files.createTempDirectory("adroles");
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(DataSourceFactory.class)
+                .withPropertyValues("db.type=H2", "db.name=adroles", "db.jdbcDriver=", "db.jdbcUrl=",
+                        "db.username=sa", "db.password=", "db.h2.directory=" + directory);
+
+        contextRunner.run(context -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            jdbcTemplate.execute("create table person (id integer primary key, last_name varchar(255))");
+            jdbcTemplate.update("insert into person values (1, 'Schmidt')");
+        });
+        assertTrue(Files.exists(directory.resolve("adroles.mv.db")));
+
+        contextRunner.run(context -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+            assertEquals("Schmidt", jdbcTemplate.queryForObject("select last_name from person where id = 1",
+                    String.class));
+        });
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() throws Exception {
+        Path directory = Files.createTempDirectory("adroles");
+        String replicaUrl = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+        new ApplicationContextRunner()
+                .withUserConfiguration(DataSourceFactory.class)
+                .withPropertyValues("db.type=H2", "db.name=adroles", "db.jdbcDriver=", "db.jdbcUrl=",
+                        "db.username=sa", "db.password=", "db.h2.directory=" + directory,
+                        "db.replica.jdbcUrl=" + replicaUrl)
+                .run(context -> {
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                    TransactionTemplate transactionTemplate =
+                            new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+                    // the same table with different rows in the primary and the replica
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.execute("create table person (id integer primary key, last_name varchar(255))");
+                        jdbcTemplate.update("insert into person values (1, 'Primary')");
+                    });
+                    JdbcTemplate replicaJdbcTemplate =
+                            new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+                    replicaJdbcTemplate.execute("create table person (id integer primary key, last_name varchar(255))");
+                    replicaJdbcTemplate.update("insert into person values (1, 'Replica')");
+
+                    String query = "select last_name from person where id = 1";
+                    assertEquals("Primary", transactionTemplate.execute(status ->
+                            jdbcTemplate.queryForObject(query, String.class)));
+                    transactionTemplate.setReadOnly(true);
+                    assertEquals("Replica", transactionTemplate.execute(status ->
+                            jdbcTemplate.queryForObject(query, String.class)));
+                    assertEquals("Primary", ReadWriteRoutingDataSource.onPrimary(() -> transactionTemplate.execute(
+                            status -> jdbcTemplate.queryForObject(query, String.class))));
+                });
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.data.repository.RoleResourceRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The reference data must be loaded from the database only once,
+ * until it is evicted from the cache.
+ * <p>The test runs without a surrounding transaction, a table written in the running transaction
+ * bypasses the query cache until the commit.</p>
+ */
+@DataJpaTest(properties = {
+        "ADROLES_LOG_DIR=${java.io.tmpdir}",
+        "adroles.cache.statistics=true"})
+@Import({ReferenceDataCacheConfiguration.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RoleResourceRepository roleResourceRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RoleResource roleResource = new RoleResource();
+        roleResource.setName("Organisation");
+        roleResource.setViewClassName("OrgView");
+        roleResource.setAddResourceTranslationKey("addOrg");
+        roleResource.setDeleteResourcesTranslationKey("deleteOrgs");
+        roleResource.setResourceType(Global.ROLE_RESOURCE.ORG_ROLE);
+        roleResourceRepository.save(roleResource);
+        referenceDataCache.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roleResourceRepository.deleteAll();
+    }
+
+    @Test
+    void lookupIsCached() {
+        RoleResource roleResource = roleResourceRepository
+                .findFirstByResourceTypeOrderByIdAsc(Global.ROLE_RESOURCE.ORG_ROLE).orElseThrow();
+
+        assertEquals(roleResource, roleResourceRepository
+                .findFirstByResourceTypeOrderByIdAsc(Global.ROLE_RESOURCE.ORG_ROLE).orElseThrow());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void evictedLookupIsLoadedAgain() {
+        roleResourceRepository.findFirstByResourceTypeOrderByIdAsc(Global.ROLE_RESOURCE.ORG_ROLE);
+        referenceDataCache.evictAll();
+
+        assertTrue(roleResourceRepository
+                .findFirstByResourceTypeOrderByIdAsc(Global.ROLE_RESOURCE.ORG_ROLE).isPresent());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.listener;
+
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+import de.hirola.adroles.data.repository.PersonRepository;
+import de.hirola.adroles.service.StatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A committed change of an entity must invalidate the snapshot of the statistics,
+ * a rolled back change must keep it.
+ * <p>The test runs without a surrounding transaction, the snapshot is only invalidated after the commit.</p>
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+@Import(StatisticsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatisticsListenerTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void committedChangeInvalidatesSnapshot() {
+        long personCount = statisticsService.refresh().personCount();
+
+        personRepository.save(createPerson("Schmidt"));
+
+        assertEquals(personCount + 1, statisticsService.getStatistics().personCount());
+    }
+
+    @Test
+    void rolledBackChangeKeepsSnapshot() {
+        DashboardStatistics statistics = statisticsService.refresh();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            personRepository.saveAndFlush(createPerson("Weber"));
+            status.setRollbackOnly();
+        });
+
+        assertSame(statistics, statisticsService.getStatistics());
+    }
+
+    private static Person createPerson(String lastName) {
+        Person person = new Person();
+        person.setLastName(lastName);
+        return person;
+    }
+}
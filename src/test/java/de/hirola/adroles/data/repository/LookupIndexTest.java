@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The lookups of the imports and assignments must use the indexes of the migrations.
+ * The schema is created by the migrations and validated against the entities.
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+class LookupIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importLookupsUseIndexes() {
+        assertUsesIndex("select id from aduser where objectsid = 'S-1'", "aduser_objectsid_idx");
+        assertUsesIndex("select id from aduser where logon_name = 'user'", "aduser_logon_name_idx");
+        assertUsesIndex("select id from adgroup where objectsid = 'S-1'", "adgroup_objectsid_idx");
+        assertUsesIndex("select id from adgroup where name = 'group'", "adgroup_name_idx");
+        assertUsesIndex("select id from role where name = 'role'", "role_name_idx");
+        assertUsesIndex("select id from person where department_name = 'department'", "person_department_name_idx");
+    }
+
+    @Test
+    void assignmentLookupsUseForeignKeyIndexes() {
+        assertUsesIndex("select id from aduser where person_id in (1, 2)", "aduser_person_fk");
+        assertUsesIndex("select id from role where role_resource_id = 1", "role_role_resource_fk");
+        assertUsesIndex("select role_id from role_person where person_id in (1, 2)", "role_person_person_fk");
+        assertUsesIndex("select role_id from role_aduser where aduser_id = 1", "role_aduser_aduser_fk");
+        assertUsesIndex("select role_id from role_adgroup where adgroup_id in (1, 2)", "role_adgroup_adgroup_fk");
+    }
+
+    @Test
+    void searchUsesTokenIndex() {
+        assertUsesIndex("select entity_id from search_token where entity_type = 'person' and token like 'abc%'",
+                "search_token_token_idx");
+    }
+
+    private void assertUsesIndex(String query, String indexName) {
+        String plan = jdbcTemplate.queryForObject("explain " + query, String.class);
+        assertTrue(plan != null && plan.toLowerCase(Locale.ROOT).contains(indexName), plan);
+    }
+}
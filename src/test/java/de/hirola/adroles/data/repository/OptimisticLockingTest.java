@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * An outdated copy of an entity, e.g. in a form, must not overwrite the changes of others.
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+class OptimisticLockingTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    private Integer roleId;
+    private Integer personId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setLastName("Schmidt");
+        personId = entityManager.persist(person).getId();
+        Role role = new Role();
+        role.setName("Accounting");
+        roleId = entityManager.persist(role).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void outdatedCopyIsNotSaved() {
+        Role firstCopy = roleRepository.findById(roleId).orElseThrow();
+        entityManager.clear();
+        Role secondCopy = roleRepository.findById(roleId).orElseThrow();
+        entityManager.clear();
+
+        firstCopy.setDescription("changed by the first admin");
+        Role savedRole = roleRepository.saveAndFlush(firstCopy);
+        assertEquals(secondCopy.getVersion() + 1, savedRole.getVersion());
+        entityManager.clear();
+
+        secondCopy.setDescription("changed by the second admin");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> roleRepository.saveAndFlush(secondCopy));
+    }
+
+    @Test
+    void assignmentChangesVersionOfRoleOnly() {
+        Role role = roleRepository.findById(roleId).orElseThrow();
+        Person person = personRepository.findById(personId).orElseThrow();
+        int roleVersion = role.getVersion();
+        int personVersion = person.getVersion();
+
+        role.addPerson(person);
+        person.addRole(role);
+        entityManager.flush();
+
+        assertEquals(roleVersion + 1, role.getVersion());
+        assertEquals(personVersion, person.getVersion());
+    }
+}
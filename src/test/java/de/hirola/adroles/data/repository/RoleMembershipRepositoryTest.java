@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The join rows of a role are written without loading the role or its members.
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+@Import(RoleMembershipRepository.class)
+class RoleMembershipRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RoleMembershipRepository roleMembershipRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    private Integer roleId;
+    private Integer firstPersonId;
+    private Integer secondPersonId;
+
+    @BeforeEach
+    void setUp() {
+        Person firstPerson = new Person();
+        firstPerson.setLastName("Schmidt");
+        firstPersonId = entityManager.persist(firstPerson).getId();
+        Person secondPerson = new Person();
+        secondPerson.setLastName("Weber");
+        secondPersonId = entityManager.persist(secondPerson).getId();
+        Role role = new Role();
+        role.setName("Accounting");
+        role.addPerson(firstPerson);
+        roleId = entityManager.persist(role).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void changedJoinRowsAreWritten() {
+        RoleMembershipRepository.RoleMember firstMember =
+                new RoleMembershipRepository.RoleMember(roleId, firstPersonId);
+        RoleMembershipRepository.RoleMember secondMember =
+                new RoleMembershipRepository.RoleMember(roleId, secondPersonId);
+        assertEquals(Set.of(firstMember), roleMembershipRepository.findPersonsOfRole(roleId));
+
+        roleMembershipRepository.insertRolePersons(List.of(secondMember));
+        roleMembershipRepository.deleteRolePersons(List.of(firstMember));
+
+        assertEquals(Set.of(secondMember), roleMembershipRepository.findPersonsOfRole(roleId));
+        assertEquals(Set.of(secondMember), roleMembershipRepository.findRolePersons(List.of(secondPersonId)));
+        assertTrue(roleMembershipRepository.findRolePersons(List.of(firstPersonId)).isEmpty());
+    }
+
+    @Test
+    void existingJoinRowsAreNotInsertedAgain() {
+        RoleMembershipRepository.RoleMember firstMember =
+                new RoleMembershipRepository.RoleMember(roleId, firstPersonId);
+        RoleMembershipRepository.RoleMember secondMember =
+                new RoleMembershipRepository.RoleMember(roleId, secondPersonId);
+
+        // the first row was inserted by a save in the meantime
+        roleMembershipRepository.insertRolePersons(List.of(firstMember, secondMember));
+
+        assertEquals(Set.of(firstMember, secondMember), roleMembershipRepository.findPersonsOfRole(roleId));
+    }
+
+    @Test
+    void changedJoinRowsIncrementVersionOfRole() {
+        int roleVersion = roleRepository.findById(roleId).orElseThrow().getVersion();
+        entityManager.clear();
+
+        roleRepository.incrementVersion(List.of(roleId));
+
+        assertEquals(roleVersion + 1, roleRepository.findById(roleId).orElseThrow().getVersion());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.repository;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.*;
+import de.hirola.adroles.data.projection.RoleRow;
+import de.hirola.adroles.data.search.SearchText;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The grids must load the roles with a constant count of statements,
+ * independent of the count of roles and their relations.
+ */
+@DataJpaTest(properties = {
+        "ADROLES_LOG_DIR=${java.io.tmpdir}",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class RoleRepositoryTest {
+    private static final int ROLE_COUNT = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    private Statistics statistics;
+    private Integer roleId;
+
+    @BeforeEach
+    void setUp() {
+        RoleResource roleResource = new RoleResource();
+        roleResource.setName("Organisation");
+        roleResource.setViewClassName("OrgView");
+        roleResource.setAddResourceTranslationKey("addOrg");
+        roleResource.setDeleteResourcesTranslationKey("deleteOrgs");
+        roleResource.setResourceType(Global.ROLE_RESOURCE.ORG_ROLE);
+        entityManager.persist(roleResource);
+        for (int i = 0; i < ROLE_COUNT; i++) {
+            Person person = new Person();
+            person.setLastName("Person " + i);
+            entityManager.persist(person);
+            ADUser adUser = new ADUser();
+            adUser.setLogonName("user" + i);
+            adUser.setDistinguishedName("CN=user" + i);
+            adUser.setPerson(person);
+            entityManager.persist(adUser);
+            ADGroup adGroup = new ADGroup();
+            adGroup.setName("group" + i);
+            adGroup.setDistinguishedName("CN=group" + i);
+            entityManager.persist(adGroup);
+            Role role = new Role();
+            role.setName("Role " + i);
+            role.setRoleResource(roleResource);
+            role.addPerson(person);
+            role.addADUser(adUser);
+            role.addADGroup(adGroup);
+            roleId = entityManager.persist(role).getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void gridLoadsRolesWithOneStatement() {
+        List<Role> roles = roleRepository.findAll(Sort.by("name"));
+        // the grid shows the name and the resource of the role
+        roles.forEach(role -> assertFalse(role.getRoleResource().getName().isEmpty()));
+
+        assertEquals(ROLE_COUNT, roles.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(Hibernate.isInitialized(roles.get(0).getPersons()));
+    }
+
+    @Test
+    void gridSearchLoadsRolesWithOneStatement() {
+        List<Role> roles = roleRepository.findByRoleResource_ResourceTypeOrderByNameAsc(
+                Global.ROLE_RESOURCE.ORG_ROLE);
+        roles.forEach(role -> assertTrue(role.getRoleResource().isOrgResource()));
+
+        assertEquals(ROLE_COUNT, roles.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void gridRowsAreLoadedWithOneStatement() {
+        Sort sort = Sort.by(Sort.Order.asc("name").ignoreCase(), Sort.Order.asc("roleResource.id"),
+                Sort.Order.asc("id"));
+        List<RoleRow> roleRows = roleRepository.findByFilter(SearchText.getSearchPattern("Role"), null, PageRequest.of(0, 10, sort));
+
+        assertEquals(10, roleRows.size());
+        assertEquals("Role 0", roleRows.get(0).name());
+        assertEquals(1, roleRows.get(0).personCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void formLoadsRoleWithRelations() {
+        Role role = roleRepository.findWithRelationsById(roleId).orElseThrow();
+        Hibernate.initialize(role.getADUsers());
+        Hibernate.initialize(role.getADGroups());
+
+        assertEquals(1, role.getPersons().size());
+        assertEquals(1, role.getADUsers().size());
+        assertEquals(1, role.getADGroups().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
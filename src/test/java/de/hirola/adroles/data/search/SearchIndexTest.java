@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.search;
+
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.repository.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The triggers of the migrations must write the tokens of the search texts
+ * and the missing tokens must be created on start.
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+@Import(SearchIndex.class)
+class SearchIndexTest {
+
+    @Autowired
+    private SearchIndex searchIndex;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void tokensAreWrittenByTriggers() {
+        Person person = new Person();
+        person.setLastName("Schmidt");
+        person = personRepository.saveAndFlush(person);
+
+        assertTrue(countTokens(person.getId()) > 0);
+        assertNotNull(searchIndex.getTokenPattern(Person.class, "schmi"));
+    }
+
+    @Test
+    void missingTokensAreCreatedInBatches() {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            Person person = new Person();
+            person.setLastName("Person" + i);
+            persons.add(person);
+        }
+        persons = personRepository.saveAllAndFlush(persons);
+        List<Integer> tokenCounts = persons.stream().map(person -> countTokens(person.getId())).toList();
+        jdbcTemplate.update("delete from search_token");
+
+        searchIndex.createIndex();
+
+        assertEquals(tokenCounts, persons.stream().map(person -> countTokens(person.getId())).toList());
+    }
+
+    private int countTokens(int personId) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from search_token "
+                + "where entity_type = 'person' and entity_id = ?", Integer.class, personId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.data.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The index must find the same entities as a search in the search texts,
+ * also after the entities were changed.
+ */
+class TrigramIndexTest {
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1, SearchText.of("Michael", "Schmidt", "IT"));
+        index.put(2, SearchText.of("Anna", "Schmitt", "Einkauf"));
+        index.put(3, SearchText.of("Peter", "Mueller", "IT Support"));
+    }
+
+    @Test
+    void findsTermsInsideWords() {
+        assertEquals(Set.of(1, 2), index.find("schmi"));
+        assertEquals(Set.of(1), index.find("chael schm"));
+        assertEquals(Set.of(3), index.find("muell"));
+        assertTrue(index.find("schmidtt").isEmpty());
+    }
+
+    @Test
+    void findsShortTermsInSearchTexts() {
+        assertEquals(Set.of(2), index.find("ei"));
+    }
+
+    @Test
+    void patchesChangedEntities() {
+        index.put(2, SearchText.of("Anna", "Weber", "Einkauf"));
+        index.remove(1);
+
+        assertTrue(index.find("schmi").isEmpty());
+        assertEquals(Set.of(2), index.find("webe"));
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.data.ReferenceDataCache;
+import de.hirola.adroles.data.entity.ADGroup;
+import de.hirola.adroles.data.entity.ADUser;
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import de.hirola.adroles.data.repository.RoleMembershipRepository;
+import de.hirola.adroles.data.search.MemorySearchIndex;
+import de.hirola.adroles.data.search.SearchIndex;
+import de.hirola.adroles.security.SecurityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bulk deletes must remove all rows referencing the deleted entities.
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+@Import({IdentityService.class, DirectoryExecutor.class, StatisticsService.class, ReferenceDataCache.class, RoleMembershipRepository.class,
+        SearchIndex.class, MemorySearchIndex.class})
+class BulkDeleteTest {
+
+    @MockBean
+    private SecurityService securityService;
+    @Autowired
+    private IdentityService identityService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private Person person;
+    private Role role;
+    private ADUser adUser;
+    private ADGroup adGroup;
+
+    @BeforeEach
+    void setUp() {
+        person = new Person();
+        person.setLastName("Schmidt");
+        entityManager.persist(person);
+        adUser = new ADUser();
+        adUser.setLogonName("schmidt");
+        adUser.setDistinguishedName("cn=schmidt");
+        adUser.setPerson(person);
+        entityManager.persist(adUser);
+        adGroup = new ADGroup();
+        adGroup.setName("accounting");
+        adGroup.setDistinguishedName("cn=accounting");
+        entityManager.persist(adGroup);
+        role = new Role();
+        role.setName("Accounting");
+        role.setResponsible(person);
+        role.addPerson(person);
+        role.addADUser(adUser);
+        role.addADGroup(adGroup);
+        entityManager.persist(role);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deletedPersonIsRemovedFromRolesAndADUsers() {
+        identityService.deletePersons(List.of(person.getId()));
+
+        assertEquals(0, count("select count(*) from person"));
+        assertEquals(0, count("select count(*) from role_person"));
+        assertEquals(0, count("select count(*) from role where responsible_id is not null"));
+        assertEquals(0, count("select count(*) from aduser where person_id is not null"));
+        assertEquals(1, count("select count(*) from role"));
+    }
+
+    @Test
+    void deletedRoleIsRemovedFromMembers() {
+        identityService.deleteRoles(List.of(role.getId()));
+
+        assertEquals(0, count("select count(*) from role"));
+        assertEquals(0, count("select count(*) from role_person")
+                + count("select count(*) from role_aduser") + count("select count(*) from role_adgroup"));
+        assertEquals(1, count("select count(*) from person"));
+    }
+
+    @Test
+    void deletedADUsersAndADGroupsAreRemovedFromRoles() {
+        identityService.deleteADUsers(List.of(adUser));
+        identityService.deleteADGroups(List.of(adGroup));
+
+        assertEquals(0, count("select count(*) from aduser") + count("select count(*) from adgroup"));
+        assertEquals(0, count("select count(*) from role_aduser") + count("select count(*) from role_adgroup"));
+        assertEquals(1, count("select count(*) from role_person"));
+    }
+
+    private int count(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count == null ? 0 : count;
+    }
+}
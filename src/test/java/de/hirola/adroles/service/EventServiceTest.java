@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.shared.Registration;
+import de.hirola.adroles.util.ServiceEvent;
+import de.hirola.adroles.util.ServiceResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The events must reach the listeners of the target UI only.
+ * The events are delivered one after another on one thread in the test.
+ */
+class EventServiceTest {
+    private final EventService eventService = new EventService(1, 10);
+
+    @AfterEach
+    void tearDown() {
+        eventService.shutdown();
+    }
+
+    @Test
+    void eventReachesOnlyTargetSession() throws InterruptedException {
+        UI ui = createUI();
+        UI otherUI = createUI();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        BlockingQueue<String> otherEvents = new LinkedBlockingQueue<>();
+        eventService.register(ui, event -> events.add(event.getServiceResult().resultMessage));
+        eventService.register(otherUI, event -> otherEvents.add(event.getServiceResult().resultMessage));
+
+        eventService.publish(ui, createEvent("import finished"));
+        eventService.publish(otherUI, createEvent("other import finished"));
+
+        assertEquals("other import finished", otherEvents.poll(5, TimeUnit.SECONDS));
+        assertEquals(List.of("import finished"), List.copyOf(events));
+        assertTrue(otherEvents.isEmpty());
+    }
+
+    @Test
+    void eventReachesAllSessions() throws InterruptedException {
+        UI ui = createUI();
+        UI otherUI = createUI();
+        BlockingQueue<UI> receivers = new LinkedBlockingQueue<>();
+        eventService.register(ui, event -> receivers.add(ui));
+        eventService.register(otherUI, event -> receivers.add(otherUI));
+
+        eventService.publishToAll(createEvent("settings changed"));
+
+        UI firstReceiver = receivers.poll(5, TimeUnit.SECONDS);
+        UI secondReceiver = receivers.poll(5, TimeUnit.SECONDS);
+        assertNotNull(secondReceiver);
+        assertNotSame(firstReceiver, secondReceiver);
+    }
+
+    @Test
+    void removedListenerGetsNoEvents() throws InterruptedException {
+        UI ui = createUI();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        Registration registration = eventService.register(ui, event -> events.add("removed"));
+        eventService.register(ui, event -> events.add("registered"));
+
+        registration.remove();
+        eventService.publish(ui, createEvent("import finished"));
+
+        assertEquals("registered", events.poll(5, TimeUnit.SECONDS));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void detachedSessionIsRemoved() throws InterruptedException {
+        UI detachedUI = mock(UI.class);
+        when(detachedUI.access(any(Command.class))).thenThrow(new UIDetachedException());
+        UI ui = createUI();
+        BlockingQueue<ServiceEvent> events = new LinkedBlockingQueue<>();
+        eventService.register(detachedUI, event -> fail("The UI is detached."));
+        eventService.register(ui, events::add);
+
+        eventService.publish(detachedUI, createEvent("first"));
+        // delivered after the first event on the same thread
+        eventService.publish(ui, createEvent("barrier"));
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+        eventService.publishToAll(createEvent("second"));
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+
+        verify(detachedUI, times(1)).access(any(Command.class));
+    }
+
+    private static UI createUI() {
+        UI ui = mock(UI.class);
+        // runs the command like a UI without a locked session
+        when(ui.access(any(Command.class))).thenAnswer(invocation -> {
+            invocation.<Command>getArgument(0).execute();
+            return null;
+        });
+        return ui;
+    }
+
+    private ServiceEvent createEvent(String message) {
+        return new ServiceEvent(this, new ServiceResult(true, message));
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.ReferenceDataCache;
+import de.hirola.adroles.data.entity.ADGroup;
+import de.hirola.adroles.data.entity.ADUser;
+import de.hirola.adroles.data.entity.ImportCheckpoint;
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import de.hirola.adroles.data.repository.ADGroupRepository;
+import de.hirola.adroles.data.repository.ADUserRepository;
+import de.hirola.adroles.data.repository.ImportCheckpointRepository;
+import de.hirola.adroles.data.repository.PersonRepository;
+import de.hirola.adroles.data.repository.RoleMembershipRepository;
+import de.hirola.adroles.data.repository.RoleRepository;
+import de.hirola.adroles.data.search.MemorySearchIndex;
+import de.hirola.adroles.data.search.SearchIndex;
+import de.hirola.adroles.security.SecurityService;
+import de.hirola.adroles.util.ServiceResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The imports must commit their chunks, continue after the last committed entry
+ * and commit the entries of a failed chunk one by one. The assignments must only add
+ * the missing join rows, the organisation roles must be derived from the departments
+ * and the AD users must be linked with the persons.
+ * <p>The test runs without a surrounding transaction like the jobs, so the entities
+ * loaded before the chunks are detached.</p>
+ */
+@DataJpaTest(properties = "ADROLES_LOG_DIR=${java.io.tmpdir}")
+@Import({IdentityService.class, DirectoryExecutor.class, StatisticsService.class, ReferenceDataCache.class,
+        RoleMembershipRepository.class, SearchIndex.class, MemorySearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportTest {
+
+    @MockBean
+    private SecurityService securityService;
+    @Autowired
+    private IdentityService identityService;
+    @Autowired
+    private ADGroupRepository adGroupRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private ADUserRepository adUserRepository;
+    @Autowired
+    private RoleMembershipRepository roleMembershipRepository;
+    @Autowired
+    private ImportCheckpointRepository importCheckpointRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("alter table role drop constraint if exists import_test_check");
+        for (String table : List.of("role_adgroup", "role_aduser", "role_person", "role", "role_resource",
+                "aduser", "adgroup", "person", "import_checkpoint", "search_token")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        // the cached role resources were deleted
+        referenceDataCache.evictAll();
+    }
+
+    @Test
+    void rolesAreCreatedAndUpdatedFromGroups() {
+        ADGroup accounting = saveADGroup("accounting");
+        ADGroup backup = saveADGroup("backup");
+        Role role = new Role();
+        role.setName("accounting");
+        roleRepository.save(role);
+
+        ServiceResult serviceResult = identityService.updateRolesFromGroups(
+                createContext(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS));
+
+        assertTrue(serviceResult.operationSuccessful, serviceResult.resultMessage);
+        assertEquals("1 roles added and 1 roles updated from AD groups", serviceResult.resultMessage);
+        assertEquals(2, count("select count(*) from role"));
+        assertEquals(1, count("select count(*) from role r join role_adgroup ra on ra.role_id = r.id"
+                + " where r.name = 'accounting' and ra.adgroup_id = " + accounting.getId()));
+        assertEquals(1, count("select count(*) from role r join role_adgroup ra on ra.role_id = r.id"
+                + " where r.name = 'backup' and ra.adgroup_id = " + backup.getId()));
+    }
+
+    @Test
+    void interruptedImportIsResumedAfterCheckpoint() {
+        ADGroup accounting = saveADGroup("accounting");
+        saveADGroup("backup");
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setImportType(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS);
+        checkpoint.setPhase(Global.IMPORT_PHASE.ROLES_FROM_GROUPS);
+        checkpoint.setLastKey(String.format("%012d", accounting.getId()));
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        importCheckpointRepository.save(checkpoint);
+
+        ServiceResult serviceResult = identityService.updateRolesFromGroups(
+                createContext(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS));
+
+        assertTrue(serviceResult.operationSuccessful, serviceResult.resultMessage);
+        assertEquals(List.of("backup"), jdbcTemplate.queryForList("select name from role", String.class));
+        // the completed import starts from the beginning next time
+        assertTrue(importCheckpointRepository.findFirstByImportType(
+                Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS).isEmpty());
+    }
+
+    @Test
+    void entriesOfFailedChunkAreCommittedOneByOne() {
+        saveADGroup("accounting");
+        saveADGroup("broken");
+        saveADGroup("backup");
+        jdbcTemplate.execute("alter table role add constraint import_test_check check (name <> 'broken')");
+
+        ServiceResult serviceResult = identityService.updateRolesFromGroups(
+                createContext(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS));
+
+        assertEquals("2 roles added and 0 roles updated from AD groups, 1 entries could not be saved",
+                serviceResult.resultMessage);
+        assertEquals(List.of("accounting", "backup"),
+                jdbcTemplate.queryForList("select name from role order by name", String.class));
+        assertEquals(2, count("select count(*) from role_adgroup"));
+    }
+
+    @Test
+    void failedEntryIsSkippedAndCounted() {
+        saveADGroup("accounting");
+        ADGroup broken = saveADGroup("broken");
+        saveADGroup("backup");
+        // not a database error, e.g. an unexpected value of an AD attribute
+        jdbcTemplate.update("update adgroup set name = null where id = " + broken.getId());
+        JobContext context = createContext(Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS);
+
+        ServiceResult serviceResult = identityService.updateRolesFromGroups(context);
+
+        assertTrue(serviceResult.operationSuccessful, serviceResult.resultMessage);
+        assertEquals("2 roles added and 0 roles updated from AD groups, 1 entries could not be saved",
+                serviceResult.resultMessage);
+        assertEquals(1, context.getFailedCount());
+        assertEquals(List.of("accounting", "backup"),
+                jdbcTemplate.queryForList("select name from role order by name", String.class));
+        // the import is completed
+        assertTrue(importCheckpointRepository.findFirstByImportType(
+                Global.JOB_TYPE.UPDATE_ROLES_FROM_GROUPS).isEmpty());
+    }
+
+    @Test
+    void onlyMissingRoleAssignmentsAreInserted() {
+        ADGroup adGroup = saveADGroup("accounting");
+        Role role = new Role();
+        role.setName("accounting");
+        role = roleRepository.save(role);
+        Person assignedPerson = savePerson("Schmidt");
+        Person person = savePerson("Weber");
+        // assigned by a save of the role after the assignment was started
+        roleMembershipRepository.insertRolePersons(List.of(
+                new RoleMembershipRepository.RoleMember(role.getId(), assignedPerson.getId())));
+
+        List<RoleMembershipRepository.RoleMember> newRolePersons = identityService.saveRoleAssignments(
+                List.of(assignedPerson.getId(), person.getId()),
+                List.of(new IdentityService.RoleAssignment(assignedPerson.getId(), role.getId(),
+                                adGroup.getId(), adGroup.getName()),
+                        new IdentityService.RoleAssignment(person.getId(), role.getId(),
+                                adGroup.getId(), adGroup.getName())),
+                "test");
+
+        assertEquals(List.of(new RoleMembershipRepository.RoleMember(role.getId(), person.getId())),
+                newRolePersons);
+        assertEquals(2, count("select count(*) from role_person"));
+        assertEquals(1, count("select count(*) from role_adgroup"));
+    }
+
+    @Test
+    void organisationRolesAreDerivedFromDepartments() {
+        Role role = new Role();
+        role.setName("it");
+        roleRepository.save(role);
+        Person accountant = savePerson("Schmidt", "Accounting");
+        savePerson("Weber", "accounting");
+        Person administrator = savePerson("Mueller", "IT");
+        ADUser adUser = new ADUser();
+        adUser.setLogonName("mueller");
+        adUser.setDistinguishedName("cn=mueller");
+        adUser.setPerson(administrator);
+        adUserRepository.save(adUser);
+
+        ServiceResult serviceResult = identityService.updateOrgRolesFromPersons(
+                createContext(Global.JOB_TYPE.UPDATE_ORG_ROLES));
+
+        assertTrue(serviceResult.operationSuccessful, serviceResult.resultMessage);
+        assertEquals("2 organizations added or updated from persons", serviceResult.resultMessage);
+        // the existing role is kept, the names are compared case-insensitive
+        assertEquals(List.of("accounting", "it"), jdbcTemplate.queryForList("select lower(r.name) from role r"
+                + " join role_resource rr on rr.id = r.role_resource_id where rr.resource_type = "
+                + Global.ROLE_RESOURCE.ORG_ROLE + " order by r.name", String.class));
+        assertEquals(3, count("select count(*) from person where is_employee"));
+        assertEquals(2, count("select count(*) from role_person rp join role r on r.id = rp.role_id"
+                + " where lower(r.name) = 'accounting'"));
+        assertEquals(1, count("select count(*) from role_person where person_id = " + accountant.getId()));
+        assertEquals(1, count("select count(*) from aduser where is_role_managed"));
+    }
+
+    @Test
+    void adUsersAreLinkedWithPersons() {
+        Person person = savePerson("Schmidt");
+        person.setCentralAccountName("MSchmidt");
+        person = personRepository.save(person);
+        ADUser adUser = new ADUser();
+        adUser.setLogonName("mschmidt");
+        adUser.setDistinguishedName("cn=mschmidt");
+        adUser = adUserRepository.save(adUser);
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setImportType(Global.JOB_TYPE.UPDATE_PERSONS);
+
+        assertNotNull(identityService.linkADUsersWithPersons(
+                createContext(Global.JOB_TYPE.UPDATE_PERSONS), checkpoint));
+
+        assertEquals(person.getId(), jdbcTemplate.queryForObject(
+                "select person_id from aduser where id = " + adUser.getId(), Integer.class));
+        // an open form of the AD user must not remove the link
+        assertEquals(adUser.getVersion() + 1, count("select version from aduser where id = " + adUser.getId()));
+    }
+
+    @Test
+    void personsWithoutAccountNameAreNotLinked() {
+        // created in the form without central account name
+        Person formPerson = savePerson("Weber");
+        Person person = savePerson("Schmidt");
+        person.setCentralAccountName("MSchmidt");
+        person = personRepository.save(person);
+        ADUser adUser = saveADUser("mschmidt");
+        // accounts imported without logon name
+        ADUser emptyADUser = saveADUser("empty");
+        jdbcTemplate.update("update aduser set logon_name = '' where id = " + emptyADUser.getId());
+        ADUser unnamedADUser = saveADUser("unnamed");
+        jdbcTemplate.update("update aduser set logon_name = null where id = " + unnamedADUser.getId());
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setImportType(Global.JOB_TYPE.UPDATE_PERSONS);
+
+        assertNotNull(identityService.linkADUsersWithPersons(
+                createContext(Global.JOB_TYPE.UPDATE_PERSONS), checkpoint));
+
+        assertEquals(person.getId(), jdbcTemplate.queryForObject(
+                "select person_id from aduser where id = " + adUser.getId(), Integer.class));
+        assertEquals(0, count("select count(*) from aduser where person_id = " + formPerson.getId()));
+    }
+
+    @Test
+    void unchangedOrganisationsKeepTheirVersions() {
+        savePerson("Schmidt", "Accounting");
+        Person administrator = savePerson("Mueller", "IT");
+        ADUser adUser = new ADUser();
+        adUser.setLogonName("mueller");
+        adUser.setDistinguishedName("cn=mueller");
+        adUser.setPerson(administrator);
+        adUserRepository.save(adUser);
+        identityService.updateOrgRolesFromPersons(createContext(Global.JOB_TYPE.UPDATE_ORG_ROLES));
+        List<Integer> versions = getVersions();
+
+        // e.g. the next scheduled synchronisation
+        ServiceResult serviceResult = identityService.updateOrgRolesFromPersons(
+                createContext(Global.JOB_TYPE.UPDATE_ORG_ROLES));
+
+        assertEquals("0 organizations added or updated from persons", serviceResult.resultMessage);
+        // the forms opened in the meantime can still be saved
+        assertEquals(versions, getVersions());
+    }
+
+    private List<Integer> getVersions() {
+        List<Integer> versions = new ArrayList<>();
+        for (String table : List.of("role", "person", "aduser")) {
+            versions.addAll(jdbcTemplate.queryForList("select version from " + table + " order by id", Integer.class));
+        }
+        return versions;
+    }
+
+    private Person savePerson(String lastName) {
+        return savePerson(lastName, null);
+    }
+
+    private Person savePerson(String lastName, String departmentName) {
+        Person person = new Person();
+        person.setLastName(lastName);
+        person.setDepartmentName(departmentName);
+        return personRepository.save(person);
+    }
+
+    private ADUser saveADUser(String logonName) {
+        ADUser adUser = new ADUser();
+        adUser.setLogonName(logonName);
+        adUser.setDistinguishedName("cn=" + logonName);
+        return adUserRepository.save(adUser);
+    }
+
+    private ADGroup saveADGroup(String name) {
+        ADGroup adGroup = new ADGroup();
+        adGroup.setName(name);
+        adGroup.setDistinguishedName("cn=" + name);
+        return adGroupRepository.save(adGroup);
+    }
+
+    private static JobContext createContext(int jobType) {
+        return new JobContext(jobType, "test", null, null, 0);
+    }
+
+    private int count(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The progress of a job must be published at most once per interval
+ * and at the start of every phase.
+ */
+class JobContextTest {
+    private final List<JobProgress> progresses = new ArrayList<>();
+
+    @Test
+    void progressIsThrottled() {
+        JobContext context = createContext(Duration.ofHours(1).toMillis());
+
+        context.startPhase(Global.IMPORT_PHASE.AD_USERS, 1000);
+        for (int i = 0; i < 1000; i++) {
+            context.processed();
+        }
+
+        assertEquals(1, progresses.size());
+        assertEquals(0, progresses.get(0).processed());
+        assertEquals(1000, context.getProcessedCount());
+    }
+
+    @Test
+    void everyPhaseStartsWithProgress() {
+        JobContext context = createContext(Duration.ofHours(1).toMillis());
+
+        context.startPhase(Global.IMPORT_PHASE.AD_USERS, 10);
+        context.processed(10);
+        context.startPhase(Global.IMPORT_PHASE.PERSONS, 20);
+
+        assertEquals(2, progresses.size());
+        JobProgress progress = progresses.get(1);
+        assertEquals(Global.IMPORT_PHASE.PERSONS, progress.phase());
+        assertEquals(0, progress.processed());
+        assertEquals(20, progress.total());
+        // the processed entries are counted over all phases
+        assertEquals(10, context.getProcessedCount());
+    }
+
+    @Test
+    void progressIsCountedPerPhase() {
+        JobContext context = createContext(0);
+
+        context.startPhase(Global.IMPORT_PHASE.AD_GROUPS, 4);
+        context.processed(3);
+
+        JobProgress progress = progresses.get(progresses.size() - 1);
+        assertEquals(3, progress.processed());
+        assertEquals(0.75, progress.getFraction());
+    }
+
+    private JobContext createContext(long progressIntervalMillis) {
+        return new JobContext(Global.JOB_TYPE.UPDATE_PERSONS, "test", null, progresses::add,
+                progressIntervalMillis);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import com.vaadin.flow.component.UI;
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.JobRecord;
+import de.hirola.adroles.data.repository.JobRecordRepository;
+import de.hirola.adroles.security.SecurityService;
+import de.hirola.adroles.util.ServiceEvent;
+import de.hirola.adroles.util.ServiceResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Only one job of each type can be queued or running, the job type must be released
+ * after every outcome of the job. Every state of a job is recorded in the job history.
+ */
+class JobServiceTest {
+    private static final int JOB_TYPE = Global.JOB_TYPE.UPDATE_AD_USERS;
+    private static final int OTHER_JOB_TYPE = Global.JOB_TYPE.UPDATE_AD_GROUPS;
+
+    private EventService eventService;
+    private StatisticsService statisticsService;
+    private JobService jobService;
+    private final Map<Integer, List<Integer>> recordedStates = new ConcurrentHashMap<>();
+    private final Map<Integer, JobRecord> jobRecords = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        JobRecordRepository jobRecordRepository = mock(JobRecordRepository.class);
+        when(jobRecordRepository.save(any(JobRecord.class))).thenAnswer(invocation -> {
+            JobRecord jobRecord = invocation.getArgument(0);
+            recordedStates.computeIfAbsent(jobRecord.getJobType(), key -> new CopyOnWriteArrayList<>())
+                    .add(jobRecord.getState());
+            jobRecords.put(jobRecord.getJobType(), jobRecord);
+            return jobRecord;
+        });
+        SecurityService securityService = mock(SecurityService.class);
+        when(securityService.getAuthenticatedUserName()).thenReturn("admin");
+        statisticsService = mock(StatisticsService.class);
+        eventService = mock(EventService.class);
+        jobService = new JobService(jobRecordRepository, eventService, securityService,
+                statisticsService, 1, 10, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void jobOfTypeIsQueuedOnlyOnce() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(jobService.submit(JOB_TYPE, context -> {
+            release.await();
+            return new ServiceResult(true, "done");
+        }));
+
+        assertFalse(jobService.submit(JOB_TYPE, context -> new ServiceResult(true, "second")));
+        assertTrue(jobService.submit(OTHER_JOB_TYPE, context -> new ServiceResult(true, "other")));
+
+        release.countDown();
+        awaitFinished(JOB_TYPE);
+        awaitFinished(OTHER_JOB_TYPE);
+        assertTrue(jobService.submit(JOB_TYPE, context -> new ServiceResult(true, "again")));
+        awaitFinished(JOB_TYPE);
+    }
+
+    @Test
+    void finishedJobIsRecordedWithCounts() throws InterruptedException {
+        jobService.submit(JOB_TYPE, context -> {
+            context.added();
+            context.updated();
+            context.failed();
+            context.processed(3);
+            return new ServiceResult(true, "2 users imported");
+        });
+        awaitFinished(JOB_TYPE);
+
+        JobRecord jobRecord = jobRecords.get(JOB_TYPE);
+        assertEquals(List.of(Global.JOB_STATE.QUEUED, Global.JOB_STATE.RUNNING, Global.JOB_STATE.FINISHED),
+                recordedStates.get(JOB_TYPE));
+        assertEquals("admin", jobRecord.getStartedBy());
+        assertEquals(1, jobRecord.getAddedCount());
+        assertEquals(1, jobRecord.getUpdatedCount());
+        assertEquals(1, jobRecord.getFailedCount());
+        assertEquals(3, jobRecord.getProcessedCount());
+        assertEquals("2 users imported", jobRecord.getResultMessage());
+        assertNotNull(jobRecord.getFinishedAt());
+    }
+
+    @Test
+    void queuedJobIsCancelledWithoutRunning() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean hasRun = new AtomicBoolean();
+        jobService.submit(JOB_TYPE, context -> {
+            release.await();
+            return new ServiceResult(true, "done");
+        });
+        jobService.submit(OTHER_JOB_TYPE, context -> {
+            hasRun.set(true);
+            return new ServiceResult(true, "done");
+        });
+
+        assertTrue(jobService.cancel(OTHER_JOB_TYPE));
+        assertFalse(jobService.isActive(OTHER_JOB_TYPE));
+        release.countDown();
+        awaitFinished(JOB_TYPE);
+
+        assertFalse(hasRun.get());
+        assertEquals(List.of(Global.JOB_STATE.QUEUED, Global.JOB_STATE.CANCELLED),
+                recordedStates.get(OTHER_JOB_TYPE));
+        assertFalse(jobService.cancel(OTHER_JOB_TYPE));
+    }
+
+    @Test
+    void runningJobStopsWhenCancelled() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        jobService.submit(JOB_TYPE, context -> {
+            running.countDown();
+            while (!context.isCancelled()) {
+                Thread.sleep(5);
+            }
+            return new ServiceResult(false, "cancelled");
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertTrue(jobService.cancel(JOB_TYPE));
+        awaitFinished(JOB_TYPE);
+
+        assertEquals(Global.JOB_STATE.CANCELLED, jobRecords.get(JOB_TYPE).getState());
+    }
+
+    @Test
+    void jobTypeIsReleasedAfterErrors() throws InterruptedException {
+        jobService.submit(JOB_TYPE, context -> {
+            throw new IllegalStateException("no connection");
+        });
+        awaitFinished(JOB_TYPE);
+        assertEquals(Global.JOB_STATE.FAILED, jobRecords.get(JOB_TYPE).getState());
+
+        jobService.submit(JOB_TYPE, context -> {
+            throw new NoClassDefFoundError("com/imperva/ddc/core/Connector");
+        });
+        awaitFinished(JOB_TYPE);
+        assertEquals(Global.JOB_STATE.FAILED, jobRecords.get(JOB_TYPE).getState());
+
+        // an error after the job, e.g. while recording the statistics
+        when(statisticsService.refresh()).thenThrow(new IllegalStateException("no database"));
+        jobService.submit(JOB_TYPE, context -> new ServiceResult(true, "done"));
+        awaitFinished(JOB_TYPE);
+
+        assertEquals(Global.JOB_STATE.FINISHED, jobRecords.get(JOB_TYPE).getState());
+        assertTrue(jobService.submit(JOB_TYPE, context -> new ServiceResult(true, "again")));
+        awaitFinished(JOB_TYPE);
+    }
+
+    @Test
+    void resultIsPublishedToInitiatingSession() throws InterruptedException {
+        UI ui = mock(UI.class);
+        UI.setCurrent(ui);
+        try {
+            jobService.submit(JOB_TYPE, context -> new ServiceResult(true, "done"));
+        } finally {
+            UI.setCurrent(null);
+        }
+        awaitFinished(JOB_TYPE);
+
+        // the result is published after the job type is released
+        ArgumentCaptor<ServiceEvent> event = ArgumentCaptor.forClass(ServiceEvent.class);
+        verify(eventService, timeout(5000)).publish(same(ui), event.capture());
+        assertEquals("done", event.getValue().getServiceResult().resultMessage);
+        verify(eventService, never()).publishToAll(any());
+    }
+
+    private void awaitFinished(int jobType) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jobService.isActive(jobType)) {
+            assertTrue(System.nanoTime() < deadline, "The job of type " + jobType + " has not finished.");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.entity.ADGroup;
+import de.hirola.adroles.data.entity.Person;
+import de.hirola.adroles.data.entity.Role;
+import de.hirola.adroles.data.entity.RoleResource;
+import de.hirola.adroles.data.entity.StatisticsRecord;
+import de.hirola.adroles.data.projection.DashboardStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The numbers of the dashboard are loaded with one query and served from the snapshot.
+ * The history is combined to days and weeks and served from the cache until a snapshot is recorded.
+ */
+@DataJpaTest(properties = {
+        "ADROLES_LOG_DIR=${java.io.tmpdir}",
+        "adroles.statistics.historySize=3"})
+@Import(StatisticsService.class)
+class StatisticsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setLastName("Schmidt");
+        entityManager.persist(person);
+        RoleResource orgResource = new RoleResource();
+        orgResource.setName("Organisation");
+        orgResource.setViewClassName("OrgView");
+        orgResource.setAddResourceTranslationKey("addOrg");
+        orgResource.setDeleteResourcesTranslationKey("deleteOrgs");
+        orgResource.setResourceType(Global.ROLE_RESOURCE.ORG_ROLE);
+        entityManager.persist(orgResource);
+        Role orgUnit = new Role();
+        orgUnit.setName("Accounting");
+        orgUnit.setRoleResource(orgResource);
+        entityManager.persist(orgUnit);
+        Role role = new Role();
+        role.setName("Backup");
+        entityManager.persist(role);
+        ADGroup adminGroup = new ADGroup();
+        adminGroup.setName("domain admins");
+        adminGroup.setDistinguishedName("cn=domain admins");
+        adminGroup.setAdminGroup(true);
+        entityManager.persist(adminGroup);
+        entityManager.flush();
+    }
+
+    @Test
+    void statisticsAreCountedWithOneQuery() {
+        DashboardStatistics statistics = statisticsService.refresh();
+
+        assertEquals(new DashboardStatistics(1, 1, 2, 0, 1, 1, 0), statistics);
+    }
+
+    @Test
+    void snapshotIsServedUntilInvalidated() {
+        DashboardStatistics statistics = statisticsService.refresh();
+        assertSame(statistics, statisticsService.getStatistics());
+
+        Person person = new Person();
+        person.setLastName("Weber");
+        entityManager.persist(person);
+        entityManager.flush();
+        // the change is not committed in the test
+        assertSame(statistics, statisticsService.getStatistics());
+
+        statisticsService.refresh();
+        assertEquals(2, statisticsService.getStatistics().personCount());
+    }
+
+    @Test
+    void historyIsDownsampled() {
+        statisticsService.recordHistory(statistics(1), LocalDateTime.of(2026, 1, 5, 8, 0));
+        statisticsService.recordHistory(statistics(2), LocalDateTime.of(2026, 1, 5, 9, 0));
+        statisticsService.recordHistory(statistics(3), LocalDateTime.of(2026, 6, 1, 8, 0));
+        statisticsService.recordHistory(statistics(4), LocalDateTime.of(2026, 6, 1, 12, 0));
+        statisticsService.recordHistory(statistics(5), LocalDateTime.of(2026, 6, 15, 9, 0));
+        statisticsService.recordHistory(statistics(6), LocalDateTime.of(2026, 6, 15, 9, 30));
+
+        List<StatisticsRecord> history = statisticsService.getHistory();
+
+        assertEquals(3, history.size());
+        assertRecord(history.get(0), Global.STATISTICS_RESOLUTION.HOURLY, LocalDateTime.of(2026, 6, 15, 9, 0), 6);
+        assertRecord(history.get(1), Global.STATISTICS_RESOLUTION.DAILY, LocalDateTime.of(2026, 6, 1, 0, 0), 4);
+        assertRecord(history.get(2), Global.STATISTICS_RESOLUTION.WEEKLY, LocalDateTime.of(2026, 1, 5, 0, 0), 2);
+    }
+
+    @Test
+    void historyIsCachedUntilRecorded() {
+        statisticsService.recordHistory(statistics(1), LocalDateTime.of(2026, 6, 15, 8, 0));
+        List<StatisticsRecord> history = statisticsService.getHistory();
+        assertSame(history, statisticsService.getHistory());
+
+        statisticsService.recordHistory(statistics(2), LocalDateTime.of(2026, 6, 15, 9, 0));
+
+        List<StatisticsRecord> recordedHistory = statisticsService.getHistory();
+        assertNotSame(history, recordedHistory);
+        assertEquals(2, recordedHistory.size());
+        assertEquals(2, recordedHistory.get(0).getPersonCount());
+    }
+
+    @Test
+    void historyIsLimitedPerResolution() {
+        statisticsService.recordHistory(statistics(1), LocalDateTime.of(2026, 1, 5, 8, 0));
+        statisticsService.recordHistory(statistics(2), LocalDateTime.of(2026, 6, 1, 8, 0));
+        for (int hour = 5; hour <= 9; hour++) {
+            statisticsService.recordHistory(statistics(hour), LocalDateTime.of(2026, 6, 15, hour, 0));
+        }
+
+        List<StatisticsRecord> history = statisticsService.getHistory();
+
+        // the latest hours and still the days and weeks
+        assertEquals(5, history.size());
+        assertRecord(history.get(0), Global.STATISTICS_RESOLUTION.HOURLY, LocalDateTime.of(2026, 6, 15, 9, 0), 9);
+        assertRecord(history.get(2), Global.STATISTICS_RESOLUTION.HOURLY, LocalDateTime.of(2026, 6, 15, 7, 0), 7);
+        assertRecord(history.get(3), Global.STATISTICS_RESOLUTION.DAILY, LocalDateTime.of(2026, 6, 1, 0, 0), 2);
+        assertRecord(history.get(4), Global.STATISTICS_RESOLUTION.WEEKLY, LocalDateTime.of(2026, 1, 5, 0, 0), 1);
+    }
+
+    private static DashboardStatistics statistics(int personCount) {
+        return new DashboardStatistics(personCount, 0, 0, 0, 0, 0, 0);
+    }
+
+    private static void assertRecord(StatisticsRecord statisticsRecord, int resolution,
+                                     LocalDateTime recordedAt, int personCount) {
+        assertEquals(resolution, statisticsRecord.getResolution());
+        assertEquals(recordedAt, statisticsRecord.getRecordedAt());
+        assertEquals(personCount, statisticsRecord.getPersonCount());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 by Michael Schmidt, Hirola Consulting
+ * This software us licensed under the AGPL-3.0 or later.
+ *
+ * @author Michael Schmidt (Hirola)
+ * @since v0.1
+ */
+
+package de.hirola.adroles.service;
+
+import de.hirola.adroles.Global;
+import de.hirola.adroles.data.repository.ActiveDirectoryRepository;
+import de.hirola.adroles.util.ServiceResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * A scheduled synchronisation must be skipped, if an import is running,
+ * and must stop at the first failed step.
+ */
+class SyncServiceTest {
+    private IdentityService identityService;
+    private JobService jobService;
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        identityService = mock(IdentityService.class);
+        jobService = mock(JobService.class);
+        syncService = new SyncService(mock(ActiveDirectoryRepository.class), identityService, jobService);
+    }
+
+    @Test
+    void scheduledRunIsSkippedWhileImportIsRunning() {
+        when(jobService.isActive(Global.JOB_TYPE.UPDATE_PERSONS)).thenReturn(true);
+
+        syncService.start(1, 30);
+
+        verify(jobService, never()).submit(anyInt(), any(Job.class), anyString(), any(), any());
+    }
+
+    @Test
+    void scheduledRunIsSubmittedAsSchedulerJob() {
+        syncService.start(1, 30);
+
+        verify(jobService).submit(eq(Global.JOB_TYPE.SYNC_ACTIVE_DIRECTORY), any(Job.class),
+                eq(Global.LOGGING_VALUES.SCHEDULER_USER_STRING), eq(Duration.ofMinutes(30)), isNull());
+    }
+
+    @Test
+    void synchronisationStopsAtFailedStep() throws Exception {
+        JobContext context = new JobContext(Global.JOB_TYPE.SYNC_ACTIVE_DIRECTORY,
+                Global.LOGGING_VALUES.SCHEDULER_USER_STRING, null, null, 0);
+        when(identityService.updatePersonsFromAD(context)).thenReturn(new ServiceResult(true, "persons"));
+        when(identityService.updateGroupsFromAD(context)).thenReturn(new ServiceResult(false, "groups failed"));
+        syncService.start(1, 0);
+        ArgumentCaptor<Job> job = ArgumentCaptor.forClass(Job.class);
+        verify(jobService).submit(anyInt(), job.capture(), anyString(), isNull(), isNull());
+
+        ServiceResult serviceResult = job.getValue().run(context);
+
+        assertFalse(serviceResult.operationSuccessful);
+        assertTrue(serviceResult.resultMessage.contains("groups failed"));
+        verify(identityService, never()).updateRolesFromGroups(any());
+        verify(identityService, never()).updateOrgRolesFromPersons(any());
+    }
+}